@@ -0,0 +1,51 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.service.PancakeServiceImpl;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//adding pancakes of one recipe to an order of the thread, all threads share one service
+//a thread moves on to a new order now and then so that pancake counts stay far from overflowing
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AddPancakesBenchmark {
+    private static final int ADDS_PER_ORDER = 10_000;
+
+    @Param({"1", "100", "10000"})
+    private int quantity;
+
+    private PancakeServiceImpl service;
+
+    @State(Scope.Thread)
+    public static class ThreadOrder {
+        UUID orderId;
+        int adds;
+
+        // orders belong to the service of the previous iteration
+        @Setup(Level.Iteration)
+        public void setUp() {
+            orderId = null;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        service = new PancakeServiceImpl(NoOpLogger.INSTANCE);
+    }
+
+    @Benchmark
+    public UUID addPancakes(ThreadOrder order) {
+        if (order.orderId == null || ++order.adds == ADDS_PER_ORDER) {
+            order.orderId = service.createOrder(1, 1).id();
+            order.adds = 0;
+        }
+        service.addPancakes(order.orderId, PancakeServiceBenchmark.DARK, quantity);
+        return order.orderId;
+    }
+}
@@ -0,0 +1,80 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.service.AsyncPancakeServiceImpl;
+import org.pancakelab.service.PancakeServiceImpl;
+import org.pancakelab.service.ServiceExecutors;
+import org.pancakelab.service.interfaces.AsyncPancakeService;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//100k clients at once through the async service, each creates an order, adds pancakes and completes it
+//the score is time per client, p99 latency of a client from its start to its completed order is printed per iteration
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(AsyncPancakeServiceBenchmark.CLIENTS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AsyncPancakeServiceBenchmark {
+    static final int CLIENTS = 100_000;
+
+    // orders are never finished, a new service per iteration keeps the heap from growing for the whole run
+    @State(Scope.Benchmark)
+    public static class Service {
+        ExecutorService executor;
+        AsyncPancakeService service;
+
+        @Setup(Level.Trial)
+        public void startExecutor() {
+            executor = ServiceExecutors.preferVirtualThreads();
+        }
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            service = new AsyncPancakeServiceImpl(new PancakeServiceImpl(NoOpLogger.INSTANCE), executor);
+        }
+
+        @TearDown(Level.Trial)
+        public void stopExecutor() {
+            executor.shutdown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Latencies {
+        final long[] nanos = new long[CLIENTS];
+
+        @TearDown(Level.Iteration)
+        public void report() {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            System.out.printf("%n%d clients on %s, p99 latency %.2f ms%n", CLIENTS,
+                    ServiceExecutors.isVirtualThreadsSupported() ? "virtual threads" : "work stealing pool",
+                    sorted[(int) Math.ceil(CLIENTS * 0.99) - 1] / 1e6);
+        }
+    }
+
+    @Benchmark
+    public Void manyConcurrentClients(Service state, Latencies latencies) {
+        AsyncPancakeService service = state.service;
+        CompletableFuture<?>[] clients = new CompletableFuture<?>[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            int client = i;
+            long clientStart = System.nanoTime();
+            clients[i] = service.createOrder(client % 10 + 1, client % 999 + 1)
+                    .thenCompose(order -> {
+                        UUID orderId = order.id();
+                        return service.addPancakes(orderId, List.of("dark chocolate"), 2)
+                                .thenCompose(ignored -> service.completeOrder(orderId));
+                    })
+                    .thenRun(() -> latencies.nanos[client] = System.nanoTime() - clientStart);
+        }
+        return CompletableFuture.allOf(clients).join();
+    }
+}
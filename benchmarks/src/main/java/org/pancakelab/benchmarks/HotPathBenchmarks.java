@@ -0,0 +1,50 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+
+//runs the service hot path benchmarks once per thread count with allocation profiling on
+//takes the usual JMH options, "-t" runs a single thread count and any "-prof" replaces the gc profiler
+//main class of the benchmarks jar: java -jar target/benchmarks.jar [jmh options] [benchmark regexps]
+public final class HotPathBenchmarks {
+    private static final List<Integer> THREAD_COUNTS = List.of(1, 4, 16);
+    private static final List<Class<?>> HOT_PATHS = List.of(
+            PancakeServiceBenchmark.class,
+            AddPancakesBenchmark.class,
+            RemovePancakesBenchmark.class,
+            ListOrdersBenchmark.class,
+            LoggerBenchmark.class,
+            PancakeFactoryBenchmark.class,
+            AsyncPancakeServiceBenchmark.class);
+
+    private HotPathBenchmarks() {}
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        List<Integer> threadCounts = commandLine.getThreads().hasValue()
+                ? List.of(commandLine.getThreads().get())
+                : THREAD_COUNTS;
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .result("target/hot-paths-" + threads + "-threads.json")
+                    .resultFormat(ResultFormatType.JSON);
+            if (commandLine.getIncludes().isEmpty()) {
+                HOT_PATHS.forEach(benchmark -> options.include(benchmark.getName() + "\\."));
+            }
+            if (commandLine.getProfilers().isEmpty()) {
+                options.addProfiler(GCProfiler.class);
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.pancakelab.http.PancakeHttpServer;
+import org.pancakelab.service.PancakeServiceImpl;
+import org.pancakelab.service.RetentionPolicy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//requests against the http server from a local client, every benchmark thread keeps its own connection open
+//main reports throughput in requests per second and then sample time with latency percentiles up to p99.99 in microseconds,
+//client and server share the machine, so the numbers are what one box can do talking to itself
+//java -cp target/benchmarks.jar org.pancakelab.benchmarks.HttpServerBenchmark [jmh options, e.g. -t 4]
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpServerBenchmark {
+    private static final byte[] PANCAKES =
+            "{\"ingredients\":[\"dark chocolate\"],\"quantity\":5}".getBytes(StandardCharsets.UTF_8);
+
+    // finished orders are dropped by retention and created ones are cancelled again, so the heap stays flat
+    @State(Scope.Benchmark)
+    public static class Server {
+        PancakeHttpServer server;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            server = PancakeHttpServer.builder()
+                    .service(PancakeServiceImpl.builder()
+                            .logger(NoOpLogger.INSTANCE)
+                            .retention(RetentionPolicy.builder().maxCount(10_000).build())
+                            .build())
+                    .port(0)
+                    .build();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            server.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Connection {
+        KeepAliveClient client;
+        String orderPath;
+
+        @Setup(Level.Trial)
+        public void setUp(Server state) throws IOException {
+            client = new KeepAliveClient(state.server.getAddress());
+            client.post("/orders", "{\"building\":1,\"room\":1}".getBytes(StandardCharsets.UTF_8));
+            orderPath = "/orders/" + client.body().substring(7, 43);
+            client.post(orderPath + "/pancakes", PANCAKES);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            client.close();
+        }
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        String include = commandLine.getIncludes().isEmpty() ? HttpServerBenchmark.class.getName() + "\\." : null;
+        runModes(commandLine, include, Mode.Throughput, TimeUnit.SECONDS, "throughput");
+        runModes(commandLine, include, Mode.SampleTime, TimeUnit.MICROSECONDS, "latency");
+    }
+
+    private static void runModes(CommandLineOptions commandLine, String include, Mode mode, TimeUnit unit, String name)
+            throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .mode(mode)
+                .timeUnit(unit)
+                .result("target/http-server-" + name + ".json")
+                .resultFormat(ResultFormatType.JSON);
+        if (include != null) {
+            options.include(include);
+        }
+        new Runner(options.build()).run();
+    }
+
+    // an order with five pancakes, about 900 bytes of json
+    @Benchmark
+    public int getOrder(Connection connection) throws IOException {
+        return connection.client.get(connection.orderPath);
+    }
+
+    @Benchmark
+    public int getSummary(Connection connection) throws IOException {
+        return connection.client.get(connection.orderPath + "/summary");
+    }
+
+    // create and cancel, two requests per call
+    @Benchmark
+    public int createAndCancel(Connection connection) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] order = ("{\"building\":" + (1 + random.nextInt(10)) + ",\"room\":" + (1 + random.nextInt(100)) + "}")
+                .getBytes(StandardCharsets.UTF_8);
+        connection.client.post("/orders", order);
+        return connection.client.post("/orders/" + connection.client.body().substring(7, 43) + "/cancel", new byte[0]);
+    }
+}
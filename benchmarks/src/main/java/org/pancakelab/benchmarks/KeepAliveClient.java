@@ -0,0 +1,91 @@
+package org.pancakelab.benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+//http/1.1 client holding one connection open, just enough of the protocol to drive the server
+//a full client costs more than the server it calls on a small machine, this one adds next to nothing to the measurement
+final class KeepAliveClient implements AutoCloseable {
+    private final Socket socket;
+    private final OutputStream out;
+    private final InputStream in;
+    private final String host;
+    private byte[] body = new byte[4096];
+    private int bodyLength;
+
+    KeepAliveClient(InetSocketAddress address) throws IOException {
+        this.socket = new Socket(address.getAddress(), address.getPort());
+        socket.setTcpNoDelay(true);
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.host = "Host: " + address.getHostString() + ":" + address.getPort() + "\r\n";
+    }
+
+    // @return status of the response, its body stays in body()
+    int get(String path) throws IOException {
+        out.write(("GET " + path + " HTTP/1.1\r\n" + host + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return readResponse();
+    }
+
+    int post(String path, byte[] json) throws IOException {
+        out.write(("POST " + path + " HTTP/1.1\r\n" + host + "Content-Type: application/json\r\nContent-Length: "
+                + json.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(json);
+        out.flush();
+        return readResponse();
+    }
+
+    String body() {
+        return new String(body, 0, bodyLength, StandardCharsets.UTF_8);
+    }
+
+    private int readResponse() throws IOException {
+        String statusLine = readLine();
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        int length = 0;
+        for (String header = readLine(); !header.isEmpty(); header = readLine()) {
+            if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                length = Integer.parseInt(header.substring(15).trim());
+            }
+        }
+        if (length > body.length) {
+            body = Arrays.copyOf(body, length);
+        }
+        int read = 0;
+        while (read < length) {
+            int count = in.read(body, read, length - read);
+            if (count < 0) {
+                throw new IOException("Connection closed in the middle of a response");
+            }
+            read += count;
+        }
+        bodyLength = length;
+        return status;
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int c = in.read(); c != '\n'; c = in.read()) {
+            if (c < 0) {
+                throw new IOException("Connection closed by the server");
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,65 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.dto.BatchResult;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderRequest;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.PancakeServiceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//status queries next to a growing number of finished orders, a few orders stay NEW
+//listing a small status must not pay for the large one, listing the large one copies every id
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListOrdersBenchmark {
+    private static final int NEW_ORDERS = 100;
+    private static final int SETUP_BATCH = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    private int finishedOrders;
+
+    private PancakeServiceImpl service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new PancakeServiceImpl(NoOpLogger.INSTANCE);
+        List<OrderRequest> requests = new ArrayList<>(SETUP_BATCH);
+        for (int created = 0; created < finishedOrders; created += SETUP_BATCH) {
+            requests.clear();
+            for (int i = 0; i < Math.min(SETUP_BATCH, finishedOrders - created); i++) {
+                requests.add(new OrderRequest(1 + i % 10, 1 + i % 100));
+            }
+            for (BatchResult<OrderDTO> result : service.createOrders(requests)) {
+                service.cancelOrder(result.value().id());
+            }
+        }
+        for (int i = 0; i < NEW_ORDERS; i++) {
+            service.createOrder(1, 1 + i);
+        }
+    }
+
+    @Benchmark
+    public Set<UUID> listNewOrders() {
+        return service.listOrdersWithStatus(OrderStatus.NEW);
+    }
+
+    @Benchmark
+    public Set<UUID> listCancelledOrders() {
+        return service.listOrdersWithStatus(OrderStatus.CANCELLED);
+    }
+
+    @Benchmark
+    public int countCancelledOrders() {
+        return service.countOrdersWithStatus(OrderStatus.CANCELLED);
+    }
+}
@@ -0,0 +1,68 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.model.OrderFactory;
+import org.pancakelab.model.PancakeFactory;
+import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Order;
+import org.pancakelab.model.interfaces.Recipe;
+import org.pancakelab.service.AsyncOrderLogger;
+import org.pancakelab.service.OrderLogger;
+
+import java.io.Writer;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//cost of one log call as the service sees it, the async logger writes to a null sink and drops whatever does not fit
+//OrderLogger keeps every line in memory, it is cleared after each iteration
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggerBenchmark {
+    private static final Order ORDER = OrderFactory.restoreOrder(UUID.randomUUID(), 1, 1, OrderStatus.NEW);
+    private static final Recipe RECIPE =
+            PancakeFactory.getRecipe(List.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS));
+
+    private final OrderLogger orderLogger = OrderLogger.getInstance();
+    private AsyncOrderLogger asyncLogger;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        asyncLogger = AsyncOrderLogger.builder().sink(Writer.nullWriter()).build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearLogs() {
+        orderLogger.clearLogs();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        asyncLogger.close();
+    }
+
+    @Benchmark
+    public void orderLogger_pancakesAdded() {
+        orderLogger.logPancakesAdded(ORDER.getId(), RECIPE, 3);
+    }
+
+    @Benchmark
+    public void orderLogger_statusChange() {
+        orderLogger.logOrderStatusChange(ORDER, "Completed");
+    }
+
+    @Benchmark
+    public void asyncLogger_pancakesAdded() {
+        asyncLogger.logPancakesAdded(ORDER.getId(), RECIPE, 3);
+    }
+
+    @Benchmark
+    public void asyncLogger_statusChange() {
+        asyncLogger.logOrderStatusChange(ORDER, "Completed");
+    }
+}
@@ -0,0 +1,75 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.metrics.MetricsPancakeService;
+import org.pancakelab.service.PancakeServiceImpl;
+import org.pancakelab.service.RetentionPolicy;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//the same calls with and without MetricsPancakeService in front of the service, timing every call is the default and shows
+//what the clock reads cost, timing one call in 16 should stay within a few percent of no metrics on the lifecycle
+//finished orders are dropped by retention so the heap stays flat for the whole run
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Service {
+        @Param({"off", "sampled", "all"})
+        String metrics;
+
+        PancakeService service;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            PancakeService plain = PancakeServiceImpl.builder()
+                    .logger(NoOpLogger.INSTANCE)
+                    .retention(RetentionPolicy.builder().maxCount(10_000).build())
+                    .build();
+            service = switch (metrics) {
+                case "sampled" -> new MetricsPancakeService(plain, 16);
+                case "all" -> new MetricsPancakeService(plain);
+                default -> plain;
+            };
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadOrder {
+        UUID orderId;
+
+        @Setup(Level.Trial)
+        public void setUp(Service state) {
+            orderId = state.service.createOrder(1, 1).id();
+            state.service.addPancakes(orderId, PancakeServiceBenchmark.DARK, 5);
+        }
+    }
+
+    // one order from creation to delivery, seven timed calls
+    @Benchmark
+    public OrderDTO lifecycle(Service state) {
+        PancakeService service = state.service;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID orderId = service.createOrder(1 + random.nextInt(10), 1 + random.nextInt(100)).id();
+        service.addPancakes(orderId, PancakeServiceBenchmark.DARK, 2);
+        service.addPancakes(orderId, PancakeServiceBenchmark.MILK_HAZELNUTS, 1);
+        service.removePancakes(PancakeServiceBenchmark.DARK_DESCRIPTION, orderId, 1);
+        service.completeOrder(orderId);
+        service.prepareOrder(orderId);
+        return service.deliverOrder(orderId);
+    }
+
+    // the cheapest call there is, so the timer is the largest share of it
+    @Benchmark
+    public OrderDTO getOrderStatus(Service state, ThreadOrder order) {
+        return state.service.getOrderStatus(order.orderId);
+    }
+}
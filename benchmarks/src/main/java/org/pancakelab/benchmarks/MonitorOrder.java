@@ -0,0 +1,42 @@
+package org.pancakelab.benchmarks;
+
+import org.pancakelab.model.enums.OrderStatus;
+
+//order lifecycle as it was before transitions used compare and set, kept here as the baseline
+//every method takes the order monitor and the service took it once more around each call
+final class MonitorOrder {
+    private volatile OrderStatus status = OrderStatus.NEW;
+
+    OrderStatus getStatus() {
+        return status;
+    }
+
+    synchronized void complete() {
+        validateStatus(OrderStatus.NEW);
+        status = OrderStatus.COMPLETED;
+    }
+
+    synchronized void prepare() {
+        validateStatus(OrderStatus.COMPLETED);
+        status = OrderStatus.PREPARING;
+    }
+
+    synchronized void deliver() {
+        validateStatus(OrderStatus.PREPARING);
+        status = OrderStatus.DELIVERED;
+    }
+
+    synchronized void cancel() {
+        if (status != OrderStatus.NEW && status != OrderStatus.COMPLETED) {
+            throw new IllegalStateException("Can only cancel either NEW or COMPLETED orders");
+        }
+        status = OrderStatus.CANCELLED;
+    }
+
+    private void validateStatus(OrderStatus required) {
+        if (status != required) {
+            throw new IllegalStateException(
+                    String.format("Order must be %s (current: %s)", required, status));
+        }
+    }
+}
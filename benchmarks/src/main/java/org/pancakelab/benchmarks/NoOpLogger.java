@@ -0,0 +1,25 @@
+package org.pancakelab.benchmarks;
+
+import org.pancakelab.model.interfaces.Order;
+import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
+import org.pancakelab.service.interfaces.Logger;
+
+import java.util.UUID;
+
+//service benchmarks log nowhere so that they measure the service itself, LoggerBenchmark measures the loggers
+final class NoOpLogger implements Logger {
+    static final NoOpLogger INSTANCE = new NoOpLogger();
+
+    private NoOpLogger() {}
+
+    @Override public void logOrderCreated(Order order) {}
+    @Override public void logPancakesAdded(UUID orderId, Recipe recipe, int quantity) {}
+    @Override public void logPancakeRemoved(UUID orderId, Pancake pancake) {}
+    @Override public void logPancakesRemoved(UUID orderId, Recipe recipe, int quantity) {}
+    @Override public void logOrderStatusChange(Order order, String action) {}
+    @Override public void logOrderDelivered(Order order) {}
+    @Override public void logInvalidTransition(Order order, String action) {}
+    @Override public String getLastLog() { return null; }
+    @Override public void clearLogs() {}
+}
@@ -0,0 +1,73 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.model.OrderPancakes;
+import org.pancakelab.model.PancakeFactory;
+import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//removals from orders of growing size, every removal is followed by an add so the order keeps its size
+//pancakes alternate between two recipes so that no two neighbours share a run
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderPancakesBenchmark {
+    private static final Recipe DARK = PancakeFactory.getRecipe(List.of(Ingredient.DARK_CHOCOLATE));
+    private static final Recipe MILK_HAZELNUTS =
+            PancakeFactory.getRecipe(List.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS));
+
+    @Param({"10", "1000", "100000"})
+    private int pancakeCount;
+
+    private OrderPancakes pancakes;
+    private final ArrayDeque<UUID> ids = new ArrayDeque<>();
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        pancakes = new OrderPancakes(UUID.randomUUID());
+        for (int i = 0; i < pancakeCount; i++) {
+            pancakes.add(i % 2 == 0 ? DARK : MILK_HAZELNUTS, 1);
+        }
+        ids.clear();
+        for (Pancake pancake : pancakes.getPancakes()) {
+            ids.add(pancake.getPancakeId());
+        }
+    }
+
+    @Benchmark
+    public Pancake removeById() {
+        Pancake removed = pancakes.remove(ids.poll());
+        UUID id = new UUID(0, sequence++);
+        pancakes.restoreRun(removed.getRecipe(), 1, List.of(id), -1);
+        ids.add(id);
+        return removed;
+    }
+
+    @Benchmark
+    public int removeByRecipe() {
+        int available = pancakes.remove(MILK_HAZELNUTS, 1);
+        pancakes.add(DARK, 1);
+        pancakes.remove(DARK, 1);
+        pancakes.add(MILK_HAZELNUTS, 1);
+        return available;
+    }
+
+    @Benchmark
+    public Recipe removeFirstByIngredients() {
+        Recipe removed = pancakes.removeFirst(MILK_HAZELNUTS.getMask());
+        pancakes.add(DARK, 1);
+        pancakes.removeFirst(DARK.getMask());
+        pancakes.add(MILK_HAZELNUTS, 1);
+        return removed;
+    }
+}
@@ -0,0 +1,115 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.model.OrderFactory;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Order;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//every thread keeps moving the same few orders one step along their lifecycle
+//a delivered order is replaced by a new one, so a step fails only when another thread took it first
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderTransitionBenchmark {
+
+    private static final UUID ORDER_ID = UUID.randomUUID();
+
+    @Param({"4"})
+    private int orderCount;
+
+    private AtomicReferenceArray<Order> orders;
+    private AtomicReferenceArray<MonitorOrder> monitorOrders;
+
+    @Setup
+    public void setUp() {
+        orders = new AtomicReferenceArray<>(orderCount);
+        monitorOrders = new AtomicReferenceArray<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            orders.set(i, newOrder(i));
+            monitorOrders.set(i, new MonitorOrder());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean compareAndSet_1() {
+        return stepCompareAndSet();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean compareAndSet_8() {
+        return stepCompareAndSet();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean compareAndSet_64() {
+        return stepCompareAndSet();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean monitor_1() {
+        return stepMonitor();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean monitor_8() {
+        return stepMonitor();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean monitor_64() {
+        return stepMonitor();
+    }
+
+    private boolean stepCompareAndSet() {
+        int index = ThreadLocalRandom.current().nextInt(orderCount);
+        Order order = orders.get(index);
+        OrderStatus status = order.getStatus();
+        if (status == OrderStatus.DELIVERED) {
+            return orders.compareAndSet(index, order, newOrder(index));
+        }
+        return order.tryTransition(status, next(status));
+    }
+
+    private boolean stepMonitor() {
+        int index = ThreadLocalRandom.current().nextInt(orderCount);
+        MonitorOrder order = monitorOrders.get(index);
+        synchronized (order) {
+            switch (order.getStatus()) {
+                case NEW -> order.complete();
+                case COMPLETED -> order.prepare();
+                case PREPARING -> order.deliver();
+                default -> {
+                    return monitorOrders.compareAndSet(index, order, new MonitorOrder());
+                }
+            }
+            return true;
+        }
+    }
+
+    // fixed id, creating a random one would cost more than the transitions being measured
+    private static Order newOrder(int index) {
+        return OrderFactory.restoreOrder(ORDER_ID, 1, 1 + index, OrderStatus.NEW);
+    }
+
+    private static OrderStatus next(OrderStatus status) {
+        return switch (status) {
+            case NEW -> OrderStatus.COMPLETED;
+            case COMPLETED -> OrderStatus.PREPARING;
+            default -> OrderStatus.DELIVERED;
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.model.PancakeFactory;
+import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//recipe lookups every add and remove goes through, recipes are interned so none of them should allocate
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PancakeFactoryBenchmark {
+    private static final List<Ingredient> INGREDIENTS =
+            List.of(Ingredient.DARK_CHOCOLATE, Ingredient.WHIPPED_CREAM, Ingredient.HAZELNUTS);
+    private static final List<String> INGREDIENT_NAMES = List.of("dark chocolate", "whipped cream", "hazelnuts");
+    private static final UUID ORDER_ID = UUID.randomUUID();
+
+    private String description;
+
+    @Setup
+    public void setUp() {
+        description = PancakeFactory.getRecipe(INGREDIENTS).getDescription();
+    }
+
+    @Benchmark
+    public Recipe getRecipe() {
+        return PancakeFactory.getRecipe(INGREDIENTS);
+    }
+
+    @Benchmark
+    public Recipe findRecipe() {
+        return PancakeFactory.findRecipe(description);
+    }
+
+    @Benchmark
+    public int ingredientMask() {
+        return Ingredient.maskOf(INGREDIENT_NAMES);
+    }
+
+    @Benchmark
+    public Pancake createPancake() {
+        return PancakeFactory.createPancake(ORDER_ID, INGREDIENTS);
+    }
+}
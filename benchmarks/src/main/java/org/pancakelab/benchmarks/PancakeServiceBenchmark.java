@@ -0,0 +1,70 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.service.PancakeServiceImpl;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//creating orders and reading them back, all threads share one service
+//every thread reads its own order, which only changes in getOrderStatusAfterChange
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PancakeServiceBenchmark {
+    static final List<String> DARK = List.of("dark chocolate");
+    static final List<String> MILK_HAZELNUTS = List.of("milk chocolate", "hazelnuts");
+    static final String DARK_DESCRIPTION = "Delicious pancake with dark chocolate!";
+
+    // created orders are never finished, a new service per iteration keeps the heap from growing for the whole run
+    @State(Scope.Benchmark)
+    public static class Service {
+        PancakeServiceImpl service;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            service = new PancakeServiceImpl(NoOpLogger.INSTANCE);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadOrder {
+        UUID orderId;
+        boolean added;
+
+        @Setup(Level.Iteration)
+        public void setUp(Service state) {
+            orderId = state.service.createOrder(1 + ThreadLocalRandom.current().nextInt(10), 1).id();
+            state.service.addPancakes(orderId, DARK, 5);
+            state.service.addPancakes(orderId, MILK_HAZELNUTS, 5);
+        }
+    }
+
+    @Benchmark
+    public OrderDTO createOrder(Service state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return state.service.createOrder(1 + random.nextInt(10), 1 + random.nextInt(100));
+    }
+
+    @Benchmark
+    public OrderDTO getOrderStatus(Service state, ThreadOrder order) {
+        return state.service.getOrderStatus(order.orderId);
+    }
+
+    // every read follows a change, so it always builds new dtos
+    @Benchmark
+    public OrderDTO getOrderStatusAfterChange(Service state, ThreadOrder order) {
+        if (order.added) {
+            state.service.removePancakes(DARK_DESCRIPTION, order.orderId, 1);
+        } else {
+            state.service.addPancakes(order.orderId, DARK, 1);
+        }
+        order.added = !order.added;
+        return state.service.getOrderStatus(order.orderId);
+    }
+}
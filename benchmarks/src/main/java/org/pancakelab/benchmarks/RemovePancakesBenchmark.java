@@ -0,0 +1,78 @@
+package org.pancakelab.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.pancakelab.dto.PancakeDTO;
+import org.pancakelab.service.PancakeServiceImpl;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//every remove variant of the service against large orders, each removal is followed by an add so the order keeps its size
+//every thread has its own order in one shared service, pancakes alternate between two recipes so no two neighbours share a run
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RemovePancakesBenchmark {
+
+    @Param({"1000", "100000"})
+    private int orderSize;
+
+    private PancakeServiceImpl service;
+
+    @State(Scope.Thread)
+    public static class ThreadOrder {
+        UUID orderId;
+        final ArrayDeque<UUID> ids = new ArrayDeque<>();
+
+        @Setup(Level.Trial)
+        public void setUp(RemovePancakesBenchmark state) {
+            orderId = state.service.createOrder(1, 1).id();
+            for (int i = 0; i < state.orderSize; i++) {
+                state.service.addPancakes(orderId, i % 2 == 0
+                        ? PancakeServiceBenchmark.DARK : PancakeServiceBenchmark.MILK_HAZELNUTS, 1);
+            }
+            refillIds(state.service);
+        }
+
+        // pancakes added back have no ids until somebody asks for them, one pass per orderSize removals
+        void refillIds(PancakeServiceImpl service) {
+            for (PancakeDTO pancake : service.getPancakeDescriptions(orderId)) {
+                ids.add(pancake.pancakeId());
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new PancakeServiceImpl(NoOpLogger.INSTANCE);
+    }
+
+    @Benchmark
+    public UUID removeById(ThreadOrder order) {
+        if (order.ids.isEmpty()) {
+            order.refillIds(service);
+        }
+        UUID pancakeId = order.ids.poll();
+        service.removePancake(order.orderId, pancakeId);
+        service.addPancakes(order.orderId, PancakeServiceBenchmark.DARK, 1);
+        return pancakeId;
+    }
+
+    @Benchmark
+    public UUID removeByIngredients(ThreadOrder order) {
+        service.removePancake(order.orderId, PancakeServiceBenchmark.MILK_HAZELNUTS);
+        service.addPancakes(order.orderId, PancakeServiceBenchmark.MILK_HAZELNUTS, 1);
+        return order.orderId;
+    }
+
+    @Benchmark
+    public UUID removeByDescription(ThreadOrder order) {
+        service.removePancakes(PancakeServiceBenchmark.DARK_DESCRIPTION, order.orderId, 1);
+        service.addPancakes(order.orderId, PancakeServiceBenchmark.DARK, 1);
+        return order.orderId;
+    }
+}
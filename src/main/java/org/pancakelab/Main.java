@@ -1,9 +1,108 @@
 package org.pancakelab;
 
-import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.load.LoadGenerator;
+import org.pancakelab.load.LoadReport;
+import org.pancakelab.load.Workload;
+import org.pancakelab.service.AsyncOrderLogger;
+import org.pancakelab.service.PancakeServiceImpl;
+import org.pancakelab.service.RetentionPolicy;
+import org.pancakelab.service.ShardedPancakeService;
+import org.pancakelab.service.interfaces.PancakeService;
 
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//load driver for capacity planning, runs the order lifecycle against the service at every given rate
+//and stops at the first rate the service cannot keep up with, its saturation point lies between that rate and the one before
+//options, all of them optional:
+//  --rates=1000,2000,4000  orders per second to try in turn
+//  --duration=10s          length of every run, in s or ms
+//  --workers=4             threads driving orders
+//  --buildings=10          orders go to buildings 1 to this
+//  --pancakes=5            most pancakes per order
+//  --remove=0.1            share of orders that have a pancake removed
+//  --cancel=0.1            share of orders that are cancelled
+//  --think=0ms             pause between the steps of one order, in s or ms
+//  --shards=0              more than 0 runs the sharded service with that many shards
 public class Main {
+    private static final int RETAINED_ORDERS = 100_000; // keeps the heap flat however long the runs are
+
     public static void main(String[] args) {
-        System.out.println("Hello world!");
+        Map<String, String> options = parseOptions(args);
+        List<Double> rates = new ArrayList<>();
+        for (String rate : options.getOrDefault("rates", "1000,2000,4000,8000,16000").split(",")) {
+            rates.add(Double.parseDouble(rate.trim()));
+        }
+        int shards = Integer.parseInt(options.getOrDefault("shards", "0"));
+
+        try (AsyncOrderLogger logger = AsyncOrderLogger.builder().sink(Writer.nullWriter()).build()) {
+            for (double rate : rates) {
+                Workload workload = Workload.builder()
+                        .ordersPerSecond(rate)
+                        .duration(parseDuration(options.getOrDefault("duration", "10s")))
+                        .workers(Integer.parseInt(options.getOrDefault("workers",
+                                String.valueOf(Runtime.getRuntime().availableProcessors()))))
+                        .buildings(Integer.parseInt(options.getOrDefault("buildings", "10")))
+                        .maxPancakes(Integer.parseInt(options.getOrDefault("pancakes", "5")))
+                        .removeRate(Double.parseDouble(options.getOrDefault("remove", "0.1")))
+                        .cancelRate(Double.parseDouble(options.getOrDefault("cancel", "0.1")))
+                        .thinkTime(parseDuration(options.getOrDefault("think", "0ms")))
+                        .build();
+                LoadReport report = run(workload, logger, shards);
+                System.out.println(report.format());
+                if (report.isSaturated()) {
+                    System.out.printf("saturated at %.0f orders/s%n", rate);
+                    return;
+                }
+            }
+        }
+    }
+
+    // every rate gets a new service so that runs do not see each other's orders
+    private static LoadReport run(Workload workload, AsyncOrderLogger logger, int shards) {
+        if (shards > 0) {
+            try (ShardedPancakeService service = ShardedPancakeService.builder()
+                    .logger(logger)
+                    .shards(shards)
+                    .maxFinishedOrders(RETAINED_ORDERS)
+                    .build()) {
+                return new LoadGenerator(service).run(workload);
+            }
+        }
+        PancakeService service = PancakeServiceImpl.builder()
+                .logger(logger)
+                .retention(RetentionPolicy.builder().maxCount(RETAINED_ORDERS).build())
+                .build();
+        return new LoadGenerator(service).run(workload);
+    }
+
+    /*
+     * options given as --name=value
+     * @throws IllegalArgumentException if an argument is not an option
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Options look like --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        throw new IllegalArgumentException("Durations end with s or ms, got " + value);
     }
-}
\ No newline at end of file
+}
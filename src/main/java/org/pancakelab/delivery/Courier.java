@@ -0,0 +1,11 @@
+package org.pancakelab.delivery;
+
+import org.pancakelab.dto.OrderDTO;
+
+import java.util.List;
+
+//the trip of a runner, orders of the run are already delivered and sorted by room
+@FunctionalInterface
+public interface Courier {
+    void carry(int building, List<OrderDTO> run);
+}
@@ -0,0 +1,304 @@
+package org.pancakelab.delivery;
+
+import org.pancakelab.dto.BatchResult;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderSummaryDTO;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//collects ready orders into one pending run per building, every order only joins the run of its building
+//a run is released once it has runSize orders or its oldest order waited maxAge, only the few pending runs are checked for age
+//released runs are sorted by room and taken by runners, which deliver the whole run with one deliverOrders call
+public final class DeliveryDispatcher implements AutoCloseable {
+    private final PancakeService service;
+    private final Courier courier;
+    private final int runSize;
+    private final long maxAgeNanos;
+    private final BlockingQueue<Stop> intake = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Run> released = new LinkedBlockingQueue<>();
+    private final Thread scheduler;
+    private final Thread[] runners;
+    private volatile boolean running = true;
+
+    // pending runs are only touched by the scheduler thread
+    private final Map<Integer, List<Stop>> pendingByBuilding = new HashMap<>();
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder runsReleased = new LongAdder();
+    private final LongAdder ordersReleased = new LongAdder();
+    private final LongAdder failedDeliveries = new LongAdder();
+    private final AtomicInteger waitingOrders = new AtomicInteger();
+    private final AtomicInteger maxRunSize = new AtomicInteger();
+    private final LongAdder waitNanos = new LongAdder(); // summed per released order
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLongArray deliveredByRunner;
+
+    private static final long IDLE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double NANOS_PER_HOUR = TimeUnit.HOURS.toNanos(1);
+
+    // an order waiting for its run
+    private record Stop(UUID orderId, int building, int room, long readyAt) {
+    }
+
+    private record Run(int building, List<UUID> orderIds) {
+    }
+
+    private DeliveryDispatcher(Builder builder) {
+        this.service = Objects.requireNonNull(builder.service, "Service cannot be null");
+        this.courier = builder.courier;
+        this.runSize = builder.runSize;
+        this.maxAgeNanos = builder.maxAge.toNanos();
+        this.deliveredByRunner = new AtomicLongArray(builder.runners);
+        this.runners = new Thread[builder.runners];
+        for (int i = 0; i < runners.length; i++) {
+            int runner = i;
+            runners[i] = new Thread(() -> runDeliveries(runner), "delivery-runner-" + i);
+            runners[i].setDaemon(true);
+            runners[i].start();
+        }
+        this.scheduler = new Thread(this::schedule, "delivery-dispatcher");
+        this.scheduler.setDaemon(true);
+        this.scheduler.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private PancakeService service;
+        private Courier courier = (building, run) -> {};
+        private int runSize = 5;
+        private Duration maxAge = Duration.ofSeconds(1);
+        private int runners = 2;
+
+        private Builder() {}
+
+        public Builder service(PancakeService service) {
+            this.service = service;
+            return this;
+        }
+
+        public Builder courier(Courier courier) {
+            this.courier = Objects.requireNonNull(courier, "Courier cannot be null");
+            return this;
+        }
+
+        // most orders a runner carries at once
+        public Builder runSize(int runSize) {
+            if (runSize < 1) {
+                throw new IllegalArgumentException("Run size must be positive");
+            }
+            this.runSize = runSize;
+            return this;
+        }
+
+        // longest a ready order waits for its run to fill up
+        public Builder maxAge(Duration maxAge) {
+            if (maxAge.isNegative()) {
+                throw new IllegalArgumentException("Max age cannot be negative");
+            }
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        public Builder runners(int runners) {
+            if (runners < 1) {
+                throw new IllegalArgumentException("There must be at least one runner");
+            }
+            this.runners = runners;
+            return this;
+        }
+
+        public DeliveryDispatcher build() {
+            return new DeliveryDispatcher(this);
+        }
+    }
+
+    // ================== Orders ================== //
+
+    /*
+     * queues an order that is ready to leave the kitchen, fits Kitchen.Builder.onReady
+     * @throws IllegalArgumentException if an order does not exist
+     * @throws IllegalStateException if the dispatcher is closed
+     */
+    public void ready(UUID orderId) {
+        // the summary carries the location without building a dto per pancake
+        OrderSummaryDTO order = service.viewOrderSummary(orderId);
+        if (!order.orderExists()) {
+            throw new IllegalArgumentException("Order " + orderId + " not found");
+        }
+        ready(orderId, order.building(), order.room());
+    }
+
+    /*
+     * same as ready(UUID) for callers that already know where the order goes
+     * @throws IllegalStateException if the dispatcher is closed
+     */
+    public void ready(UUID orderId, int building, int room) {
+        if (!running) {
+            throw new IllegalStateException("Dispatcher is closed");
+        }
+        waitingOrders.incrementAndGet();
+        intake.add(new Stop(orderId, building, room, System.nanoTime()));
+    }
+
+    // ================== Metrics ================== //
+
+    public DeliveryMetrics getMetrics() {
+        long runs = runsReleased.sum();
+        long orders = ordersReleased.sum();
+        double hours = (System.nanoTime() - startNanos) / NANOS_PER_HOUR;
+        long delivered = 0;
+        List<Double> ordersPerHourByRunner = new ArrayList<>(runners.length);
+        for (int i = 0; i < runners.length; i++) {
+            delivered += deliveredByRunner.get(i);
+            ordersPerHourByRunner.add(hours == 0 ? 0 : deliveredByRunner.get(i) / hours);
+        }
+        return new DeliveryMetrics(
+                runs,
+                delivered,
+                failedDeliveries.sum(),
+                waitingOrders.get(),
+                runs == 0 ? 0 : (double) orders / runs,
+                maxRunSize.get(),
+                Duration.ofNanos(orders == 0 ? 0 : waitNanos.sum() / orders),
+                Duration.ofNanos(maxWaitNanos.get()),
+                ordersPerHourByRunner);
+    }
+
+    /*
+     * stops taking orders, every queued order still leaves in a run before this returns
+     * an order queued while the dispatcher is closing may be left PREPARING
+     */
+    @Override
+    public void close() {
+        running = false;
+        scheduler.interrupt();
+        try {
+            scheduler.join();
+            for (Thread runner : runners) {
+                runner.interrupt();
+            }
+            for (Thread runner : runners) {
+                runner.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ================== Scheduler ================== //
+
+    private void schedule() {
+        while (running || !intake.isEmpty()) {
+            long wait = releaseAged(System.nanoTime(), !running);
+            try {
+                Stop stop = intake.poll(wait, TimeUnit.NANOSECONDS);
+                while (stop != null) {
+                    add(stop);
+                    stop = intake.poll();
+                }
+            } catch (InterruptedException e) {
+                // close() wakes the scheduler up, the loop checks running again
+            }
+        }
+        releaseAged(System.nanoTime(), true);
+    }
+
+    // a full run leaves right away
+    private void add(Stop stop) {
+        List<Stop> pending = pendingByBuilding.computeIfAbsent(stop.building(), building -> new ArrayList<>(runSize));
+        pending.add(stop);
+        if (pending.size() >= runSize) {
+            pendingByBuilding.remove(stop.building());
+            release(stop.building(), pending, System.nanoTime());
+        }
+    }
+
+    /*
+     * releases runs whose oldest order waited maxAge, or every run when flushing
+     * @return nanos until the next pending run gets too old
+     */
+    private long releaseAged(long now, boolean flush) {
+        long wait = IDLE_WAIT_NANOS;
+        Iterator<Map.Entry<Integer, List<Stop>>> iterator = pendingByBuilding.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, List<Stop>> entry = iterator.next();
+            long waited = now - entry.getValue().get(0).readyAt();
+            if (flush || waited >= maxAgeNanos) {
+                iterator.remove();
+                release(entry.getKey(), entry.getValue(), now);
+            } else {
+                wait = Math.min(wait, maxAgeNanos - waited);
+            }
+        }
+        return wait;
+    }
+
+    private void release(int building, List<Stop> stops, long now) {
+        stops.sort(Comparator.comparingInt(Stop::room));
+        List<UUID> orderIds = new ArrayList<>(stops.size());
+        for (Stop stop : stops) {
+            orderIds.add(stop.orderId());
+            long waited = now - stop.readyAt();
+            waitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+        runsReleased.increment();
+        ordersReleased.add(stops.size());
+        waitingOrders.addAndGet(-stops.size());
+        maxRunSize.accumulateAndGet(stops.size(), Math::max);
+        released.add(new Run(building, orderIds));
+    }
+
+    // ================== Runners ================== //
+
+    private void runDeliveries(int runner) {
+        while (true) {
+            Run run;
+            try {
+                run = running || scheduler.isAlive() ? released.take() : released.poll();
+            } catch (InterruptedException e) {
+                if (running || scheduler.isAlive()) {
+                    continue;
+                }
+                run = released.poll();
+            }
+            if (run == null) {
+                return;
+            }
+            deliver(runner, run);
+        }
+    }
+
+    // orders that cannot be delivered any more, for example because they were cancelled, are left out of the trip
+    private void deliver(int runner, Run run) {
+        List<OrderDTO> delivered = new ArrayList<>(run.orderIds().size());
+        for (BatchResult<OrderDTO> result : service.deliverOrders(run.orderIds())) {
+            if (result.isSuccess()) {
+                delivered.add(result.value());
+            } else {
+                failedDeliveries.increment();
+            }
+        }
+        deliveredByRunner.addAndGet(runner, delivered.size());
+        if (delivered.isEmpty()) {
+            return;
+        }
+        try {
+            courier.carry(run.building(), delivered);
+        } catch (RuntimeException e) {
+            // the orders are delivered already, a failing trip must not stop the runner
+        }
+    }
+}
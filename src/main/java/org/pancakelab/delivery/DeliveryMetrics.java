@@ -0,0 +1,20 @@
+package org.pancakelab.delivery;
+
+import java.time.Duration;
+import java.util.List;
+
+//counters of a dispatcher since it was started, wait is how long an order waited between being ready and leaving in a run
+public record DeliveryMetrics(
+        long runsReleased,
+        long ordersDelivered,
+        long failedDeliveries,
+        long waitingOrders,
+        double averageRunSize,
+        int maxRunSize,
+        Duration averageWait,
+        Duration maxWait,
+        List<Double> ordersPerHourByRunner) {
+    public DeliveryMetrics {
+        ordersPerHourByRunner = List.copyOf(ordersPerHourByRunner);
+    }
+}
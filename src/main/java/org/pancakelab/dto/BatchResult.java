@@ -0,0 +1,19 @@
+package org.pancakelab.dto;
+
+import java.util.Objects;
+
+//result of one item of a batch, a failing item does not stop the rest of the batch
+public record BatchResult<T>(T value, RuntimeException error) {
+
+    public static <T> BatchResult<T> success(T value) {
+        return new BatchResult<>(value, null);
+    }
+
+    public static <T> BatchResult<T> failure(RuntimeException error) {
+        return new BatchResult<>(null, Objects.requireNonNull(error, "Error cannot be null"));
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,5 @@
+package org.pancakelab.dto;
+
+//one order of a batch, building and room are validated when the order is created
+public record OrderRequest(int building, int room) {
+}
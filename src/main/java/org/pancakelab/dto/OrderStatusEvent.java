@@ -0,0 +1,12 @@
+package org.pancakelab.dto;
+
+import java.util.Objects;
+import java.util.UUID;
+
+//status an order has just moved to, statuses of one order only move forward so a later status is always the newer one
+public record OrderStatusEvent(UUID orderId, int building, int room, String status) {
+    public OrderStatusEvent {
+        Objects.requireNonNull(orderId, "Order ID cannot be null");
+        Objects.requireNonNull(status, "Status cannot be null");
+    }
+}
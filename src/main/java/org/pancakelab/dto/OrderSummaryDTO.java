@@ -0,0 +1,25 @@
+package org.pancakelab.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+//pancakes of an order counted per description, in the order their recipes were first added
+//building and room are 0 for an order that does not exist
+public record OrderSummaryDTO(UUID orderId, int building, int room, Map<String, Integer> pancakeCounts, int totalPancakes) {
+    public OrderSummaryDTO {
+        Objects.requireNonNull(orderId, "Order ID cannot be null");
+        Objects.requireNonNull(pancakeCounts, "Pancake counts cannot be null");
+        pancakeCounts = Collections.unmodifiableMap(new LinkedHashMap<>(pancakeCounts));
+    }
+
+    public boolean orderExists() {
+        return building != 0;
+    }
+
+    public int distinctRecipes() {
+        return pancakeCounts.size();
+    }
+}
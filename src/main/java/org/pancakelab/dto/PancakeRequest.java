@@ -0,0 +1,12 @@
+package org.pancakelab.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+//pancakes of one recipe added as part of a batch, ingredients and quantity are validated when they are added
+public record PancakeRequest(List<String> ingredients, int quantity) {
+    public PancakeRequest {
+        Objects.requireNonNull(ingredients, "Ingredients cannot be null");
+        ingredients = List.copyOf(ingredients);
+    }
+}
@@ -0,0 +1,94 @@
+package org.pancakelab.http;
+
+import org.pancakelab.dto.BatchResult;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderSummaryDTO;
+import org.pancakelab.dto.PancakeDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+//json of every dto the service returns, field names are the record component names
+final class JsonEncoders {
+    private JsonEncoders() {}
+
+    static void order(JsonWriter json, OrderDTO order) {
+        json.beginObject()
+                .name("id").value(order.id())
+                .name("building").value(order.building())
+                .name("room").value(order.room())
+                .name("status").value(order.status())
+                .name("pancakes");
+        pancakes(json, order.pancakes());
+        json.endObject();
+    }
+
+    static void pancakes(JsonWriter json, List<PancakeDTO> pancakes) {
+        json.beginArray();
+        for (int i = 0; i < pancakes.size(); i++) {
+            pancake(json, pancakes.get(i));
+        }
+        json.endArray();
+    }
+
+    static void pancake(JsonWriter json, PancakeDTO pancake) {
+        json.beginObject()
+                .name("orderId").value(pancake.orderId())
+                .name("pancakeId").value(pancake.pancakeId())
+                .name("ingredients");
+        strings(json, pancake.ingredients());
+        json.name("description").value(pancake.description())
+                .endObject();
+    }
+
+    static void summary(JsonWriter json, OrderSummaryDTO summary) {
+        json.beginObject()
+                .name("orderId").value(summary.orderId())
+                .name("pancakeCounts").beginObject();
+        for (Map.Entry<String, Integer> count : summary.pancakeCounts().entrySet()) {
+            json.name(count.getKey()).value(count.getValue());
+        }
+        json.endObject()
+                .name("totalPancakes").value(summary.totalPancakes())
+                .endObject();
+    }
+
+    static void strings(JsonWriter json, List<String> strings) {
+        json.beginArray();
+        for (int i = 0; i < strings.size(); i++) {
+            json.value(strings.get(i));
+        }
+        json.endArray();
+    }
+
+    static void ids(JsonWriter json, Collection<UUID> ids) {
+        json.beginArray();
+        for (UUID id : ids) {
+            json.value(id);
+        }
+        json.endArray();
+    }
+
+    // an item is {"value": ...} or {"error": "message"}
+    static <T> void batch(JsonWriter json, List<BatchResult<T>> results, BiConsumer<JsonWriter, T> value) {
+        json.beginArray();
+        for (BatchResult<T> result : results) {
+            json.beginObject();
+            if (result.isSuccess()) {
+                json.name("value");
+                value.accept(json, result.value());
+            } else {
+                json.name("error").value(result.error().getMessage());
+            }
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    static void error(JsonWriter json, String message) {
+        json.beginObject().name("error").value(message).endObject();
+    }
+}
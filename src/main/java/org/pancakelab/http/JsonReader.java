@@ -0,0 +1,239 @@
+package org.pancakelab.http;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+//parses the small json bodies of requests into maps, lists, strings, longs, booleans and null
+//numbers are whole, nothing the service takes has a fraction
+//objects and arrays nest at most MAX_DEPTH deep, parsing recurses once per level
+final class JsonReader {
+    static final int MAX_DEPTH = 32;
+
+    private final String text;
+    private int at;
+    private int depth;
+
+    private JsonReader(String text) {
+        this.text = text;
+    }
+
+    /*
+     * the one value text holds
+     * @throws IllegalArgumentException if text is not json or holds more than one value
+     */
+    static Object parse(String text) {
+        JsonReader reader = new JsonReader(text);
+        Object value = reader.value();
+        reader.skipWhitespace();
+        if (reader.at != text.length()) {
+            throw reader.error("Unexpected content after the value");
+        }
+        return value;
+    }
+
+    private Object value() {
+        skipWhitespace();
+        if (at == text.length()) {
+            throw error("Unexpected end of json");
+        }
+        char c = text.charAt(at);
+        switch (c) {
+            case '{':
+                return nested(this::object);
+            case '[':
+                return nested(this::array);
+            case '"':
+                return string();
+            case 't':
+                return literal("true", Boolean.TRUE);
+            case 'f':
+                return literal("false", Boolean.FALSE);
+            case 'n':
+                return literal("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return number();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    /*
+     * @throws IllegalArgumentException if the value nests deeper than MAX_DEPTH
+     */
+    private Object nested(Supplier<Object> container) {
+        if (++depth > MAX_DEPTH) {
+            throw error("Nested deeper than " + MAX_DEPTH + " levels");
+        }
+        Object value = container.get();
+        depth--;
+        return value;
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        at++;
+        skipWhitespace();
+        if (peek() == '}') {
+            at++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a name");
+            }
+            String name = string();
+            skipWhitespace();
+            expect(':');
+            object.put(name, value());
+            skipWhitespace();
+            if (peek() == ',') {
+                at++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    private List<Object> array() {
+        List<Object> array = new ArrayList<>();
+        at++;
+        skipWhitespace();
+        if (peek() == ']') {
+            at++;
+            return array;
+        }
+        while (true) {
+            array.add(value());
+            skipWhitespace();
+            if (peek() == ',') {
+                at++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    private String string() {
+        at++;
+        StringBuilder string = null;
+        int start = at;
+        while (at < text.length()) {
+            char c = text.charAt(at);
+            if (c == '"') {
+                String value = string == null
+                        ? text.substring(start, at)
+                        : string.append(text, start, at).toString();
+                at++;
+                return value;
+            }
+            if (c == '\\') {
+                if (string == null) {
+                    string = new StringBuilder();
+                }
+                string.append(text, start, at);
+                string.append(escape());
+                start = at;
+            } else if (c < 0x20) {
+                throw error("Control character in string");
+            } else {
+                at++;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private char escape() {
+        if (at + 1 >= text.length()) {
+            throw error("Unterminated escape");
+        }
+        char c = text.charAt(at + 1);
+        at += 2;
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                if (at + 4 > text.length()) {
+                    throw error("Unterminated escape");
+                }
+                try {
+                    char unicode = (char) Integer.parseInt(text, at, at + 4, 16);
+                    at += 4;
+                    return unicode;
+                } catch (NumberFormatException e) {
+                    throw error("Invalid unicode escape");
+                }
+            default:
+                throw error("Invalid escape \\" + c);
+        }
+    }
+
+    private Long number() {
+        int start = at;
+        if (peek() == '-') {
+            at++;
+        }
+        while (at < text.length() && Character.isDigit(text.charAt(at))) {
+            at++;
+        }
+        if (at < text.length() && (text.charAt(at) == '.' || text.charAt(at) == 'e' || text.charAt(at) == 'E')) {
+            throw error("Numbers must be whole");
+        }
+        try {
+            return Long.parseLong(text, start, at, 10);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number");
+        }
+    }
+
+    private Object literal(String literal, Object value) {
+        if (!text.startsWith(literal, at)) {
+            throw error("Unexpected character '" + text.charAt(at) + "'");
+        }
+        at += literal.length();
+        return value;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        at++;
+    }
+
+    private char peek() {
+        return at < text.length() ? text.charAt(at) : 0;
+    }
+
+    private void skipWhitespace() {
+        while (at < text.length()) {
+            char c = text.charAt(at);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            at++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + at);
+    }
+}
@@ -0,0 +1,246 @@
+package org.pancakelab.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.UUID;
+
+//json encoded straight into utf-8 bytes of a buffer that is kept for the next response, no reflection and no strings built on the way
+//commas go in by themselves, a value written right after a name belongs to it
+//not thread safe, a writer serves one response at a time, see WriterPool
+final class JsonWriter {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final byte[] NULL = "null".getBytes();
+    private static final byte[] TRUE = "true".getBytes();
+    private static final byte[] FALSE = "false".getBytes();
+
+    private byte[] buffer;
+    private int size;
+    private boolean[] started = new boolean[8]; // per nesting level, whether it has a value already
+    private int depth;
+    private boolean afterName;
+
+    JsonWriter(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    void reset() {
+        size = 0;
+        depth = 0;
+        afterName = false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    // ================== Structure ================== //
+
+    JsonWriter beginObject() {
+        separate();
+        put('{');
+        open();
+        return this;
+    }
+
+    JsonWriter endObject() {
+        depth--;
+        put('}');
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        separate();
+        put('[');
+        open();
+        return this;
+    }
+
+    JsonWriter endArray() {
+        depth--;
+        put(']');
+        return this;
+    }
+
+    JsonWriter name(String name) {
+        separate();
+        string(name);
+        put(':');
+        afterName = true;
+        return this;
+    }
+
+    // ================== Values ================== //
+
+    JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            put(NULL);
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    JsonWriter value(long value) {
+        separate();
+        if (value == Long.MIN_VALUE) {
+            put(Long.toString(value).getBytes());
+            return this;
+        }
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        ensure(20);
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+        return this;
+    }
+
+    JsonWriter value(boolean value) {
+        separate();
+        put(value ? TRUE : FALSE);
+        return this;
+    }
+
+    // written from its bits, same text as UUID.toString()
+    JsonWriter value(UUID value) {
+        separate();
+        if (value == null) {
+            put(NULL);
+            return this;
+        }
+        ensure(38);
+        buffer[size++] = '"';
+        long most = value.getMostSignificantBits();
+        long least = value.getLeastSignificantBits();
+        hex(most >>> 32, 8);
+        buffer[size++] = '-';
+        hex(most >>> 16, 4);
+        buffer[size++] = '-';
+        hex(most, 4);
+        buffer[size++] = '-';
+        hex(least >>> 48, 4);
+        buffer[size++] = '-';
+        hex(least, 12);
+        buffer[size++] = '"';
+        return this;
+    }
+
+    JsonWriter nullValue() {
+        separate();
+        put(NULL);
+        return this;
+    }
+
+    // ================== Encoding ================== //
+
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (started[depth - 1]) {
+                put(',');
+            }
+            started[depth - 1] = true;
+        }
+    }
+
+    private void open() {
+        if (depth == started.length) {
+            started = Arrays.copyOf(started, depth * 2);
+        }
+        started[depth++] = false;
+    }
+
+    private void hex(long bits, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[size + i] = HEX[(int) (bits & 0xF)];
+            bits >>>= 4;
+        }
+        size += digits;
+    }
+
+    // quotes, backslashes and control characters are escaped, everything else is written as utf-8
+    // room for three bytes per char is made up front, only a control character needs more
+    private void string(String value) {
+        int length = value.length();
+        ensure(length * 3 + 2);
+        byte[] bytes = buffer;
+        int at = size;
+        bytes[at++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    bytes[at++] = '\\';
+                    bytes[at++] = (byte) c;
+                } else if (c < 0x20) {
+                    size = at;
+                    ensure(6 + (length - i) * 3 + 1);
+                    bytes = buffer;
+                    bytes[at++] = '\\';
+                    bytes[at++] = 'u';
+                    bytes[at++] = '0';
+                    bytes[at++] = '0';
+                    bytes[at++] = HEX[c >> 4];
+                    bytes[at++] = HEX[c & 0xF];
+                } else {
+                    bytes[at++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                bytes[at++] = (byte) (0xC0 | c >> 6);
+                bytes[at++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                bytes[at++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[at++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytes[at++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytes[at++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                bytes[at++] = '?'; // an unpaired surrogate has no utf-8 form
+            } else {
+                bytes[at++] = (byte) (0xE0 | c >> 12);
+                bytes[at++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[at++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        bytes[at++] = '"';
+        size = at;
+    }
+
+    private void put(char c) {
+        ensure(1);
+        buffer[size++] = (byte) c;
+    }
+
+    private void put(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void ensure(int more) {
+        if (size + more > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + more));
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package org.pancakelab.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderRequest;
+import org.pancakelab.dto.PancakeRequest;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+//every PancakeService operation under /orders, see PancakeHttpServer for the routes
+//IllegalArgumentException from a request or the service answers 400, IllegalStateException 409
+//a request body over MAX_BODY_BYTES answers 413 without being parsed or drained, and the connection is closed after it
+//every other response has its length set and the request body is drained before it, so the connection stays open for the next request
+final class OrderHandler implements HttpHandler {
+    private static final int OK = 200;
+    private static final int CREATED = 201;
+    private static final int NO_CONTENT = 204;
+    private static final int BAD_REQUEST = 400;
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int CONFLICT = 409;
+    private static final int PAYLOAD_TOO_LARGE = 413;
+    private static final int SERVER_ERROR = 500;
+
+    private static final String GET = "GET";
+    private static final String POST = "POST";
+    private static final String DELETE = "DELETE";
+
+    static final int MAX_BODY_BYTES = 1 << 20;
+
+    private final PancakeService service;
+    private final WriterPool writers;
+
+    OrderHandler(PancakeService service, WriterPool writers) {
+        this.service = service;
+        this.writers = writers;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        JsonWriter json = writers.acquire();
+        try {
+            int status;
+            try {
+                status = route(exchange, json);
+            } catch (BodyTooLargeException e) {
+                status = error(json, PAYLOAD_TOO_LARGE, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                status = error(json, BAD_REQUEST, e.getMessage());
+            } catch (IllegalStateException e) {
+                status = error(json, CONFLICT, e.getMessage());
+            } catch (RuntimeException e) {
+                status = error(json, SERVER_ERROR, e.toString());
+            }
+            respond(exchange, status, json);
+        } finally {
+            writers.release(json);
+            exchange.close();
+        }
+    }
+
+    // ================== Routes ================== //
+
+    /*
+     * calls the service for the request and writes its answer to json
+     * @return status of the response, NO_CONTENT leaves json empty
+     */
+    private int route(HttpExchange exchange, JsonWriter json) throws IOException {
+        String[] path = segments(exchange.getRequestURI().getRawPath());
+        String method = exchange.getRequestMethod();
+        if (path.length == 0 || !path[0].equals("orders")) {
+            return error(json, NOT_FOUND, "No route for " + exchange.getRequestURI().getPath());
+        }
+        switch (path.length) {
+            case 1:
+                if (method.equals(GET)) {
+                    return listOrders(json, query(exchange));
+                }
+                if (method.equals(POST)) {
+                    Map<String, Object> body = object(body(exchange));
+                    JsonEncoders.order(json, service.createOrder(intOf(body, "building"), intOf(body, "room")));
+                    return CREATED;
+                }
+                return notAllowed(json, method);
+            case 2:
+                return orders(exchange, json, path[1], method);
+            case 3:
+                return order(exchange, json, uuidOf(path[1]), path[2], method);
+            case 4:
+                if (path[2].equals("pancakes")) {
+                    return pancakes(exchange, json, uuidOf(path[1]), path[3], method);
+                }
+                break;
+            default:
+                break;
+        }
+        return error(json, NOT_FOUND, "No route for " + exchange.getRequestURI().getPath());
+    }
+
+    // GET /orders?status=S, ?building=B&status=S or ?building=B&room=R
+    private int listOrders(JsonWriter json, Map<String, String> query) {
+        String building = query.get("building");
+        if (building != null && query.containsKey("room")) {
+            JsonEncoders.ids(json, service.listOpenOrdersForRoom(parseInt(building, "building"),
+                    parseInt(query.get("room"), "room")));
+            return OK;
+        }
+        OrderStatus status = statusOf(query.get("status"));
+        if (building != null) {
+            JsonEncoders.ids(json, service.listOrdersInBuilding(parseInt(building, "building"), status));
+        } else {
+            JsonEncoders.ids(json, service.listOrdersWithStatus(status));
+        }
+        return OK;
+    }
+
+    // /orders/{name}, a name that is no collection is an order id
+    private int orders(HttpExchange exchange, JsonWriter json, String name, String method) throws IOException {
+        switch (name) {
+            case "batch":
+                if (!method.equals(POST)) {
+                    return notAllowed(json, method);
+                }
+                List<OrderRequest> requests = new ArrayList<>();
+                for (Object item : array(body(exchange))) {
+                    Map<String, Object> request = object(item);
+                    requests.add(new OrderRequest(intOf(request, "building"), intOf(request, "room")));
+                }
+                JsonEncoders.batch(json, service.createOrders(requests), JsonEncoders::order);
+                return OK;
+            case "count":
+                if (!method.equals(GET)) {
+                    return notAllowed(json, method);
+                }
+                int count = service.countOrdersWithStatus(statusOf(query(exchange).get("status")));
+                json.beginObject().name("count").value(count).endObject();
+                return OK;
+            case "finished":
+                if (!method.equals(DELETE)) {
+                    return notAllowed(json, method);
+                }
+                service.clearAllFinishedOrders();
+                return NO_CONTENT;
+            case "complete":
+                if (!method.equals(POST)) {
+                    return notAllowed(json, method);
+                }
+                JsonEncoders.batch(json, service.completeOrders(uuidsOf(body(exchange))), JsonWriter::value);
+                return OK;
+            case "prepare":
+                if (!method.equals(POST)) {
+                    return notAllowed(json, method);
+                }
+                JsonEncoders.batch(json, service.prepareOrders(uuidsOf(body(exchange))), JsonWriter::value);
+                return OK;
+            case "deliver":
+                if (!method.equals(POST)) {
+                    return notAllowed(json, method);
+                }
+                JsonEncoders.batch(json, service.deliverOrders(uuidsOf(body(exchange))), JsonEncoders::order);
+                return OK;
+            default:
+                if (!method.equals(GET)) {
+                    return notAllowed(json, method);
+                }
+                JsonEncoders.order(json, service.getOrderStatus(uuidOf(name)));
+                return OK;
+        }
+    }
+
+    // /orders/{id}/{action}
+    private int order(HttpExchange exchange, JsonWriter json, UUID orderId, String action, String method)
+            throws IOException {
+        if (action.equals("pancakes")) {
+            if (method.equals(GET)) {
+                JsonEncoders.pancakes(json, service.getPancakeDescriptions(orderId));
+                return OK;
+            }
+            if (!method.equals(POST)) {
+                return notAllowed(json, method);
+            }
+            Object body = body(exchange);
+            if (body instanceof List) {
+                List<PancakeRequest> requests = new ArrayList<>();
+                for (Object item : (List<?>) body) {
+                    Map<String, Object> request = object(item);
+                    requests.add(new PancakeRequest(stringsOf(request, "ingredients"), intOf(request, "quantity")));
+                }
+                JsonEncoders.batch(json, service.addPancakes(orderId, requests), JsonWriter::value);
+                return OK;
+            }
+            Map<String, Object> request = object(body);
+            service.addPancakes(orderId, stringsOf(request, "ingredients"), intOf(request, "quantity"));
+            return NO_CONTENT;
+        }
+        if (method.equals(GET)) {
+            switch (action) {
+                case "view":
+                    JsonEncoders.strings(json, service.viewOrder(orderId));
+                    return OK;
+                case "summary":
+                    JsonEncoders.summary(json, service.viewOrderSummary(orderId));
+                    return OK;
+                default:
+                    return error(json, NOT_FOUND, "No order action " + action);
+            }
+        }
+        if (!method.equals(POST)) {
+            return notAllowed(json, method);
+        }
+        switch (action) {
+            case "complete":
+                service.completeOrder(orderId);
+                return NO_CONTENT;
+            case "prepare":
+                service.prepareOrder(orderId);
+                return NO_CONTENT;
+            case "deliver":
+                OrderDTO delivered = service.deliverOrder(orderId);
+                JsonEncoders.order(json, delivered);
+                return OK;
+            case "cancel":
+                service.cancelOrder(orderId);
+                return NO_CONTENT;
+            default:
+                return error(json, NOT_FOUND, "No order action " + action);
+        }
+    }
+
+    // POST /orders/{id}/pancakes/remove and DELETE /orders/{id}/pancakes/{pancakeId}
+    private int pancakes(HttpExchange exchange, JsonWriter json, UUID orderId, String name, String method)
+            throws IOException {
+        if (name.equals("remove")) {
+            if (!method.equals(POST)) {
+                return notAllowed(json, method);
+            }
+            Map<String, Object> request = object(body(exchange));
+            if (request.containsKey("description")) {
+                service.removePancakes(stringOf(request, "description"), orderId, intOf(request, "quantity"));
+            } else {
+                service.removePancake(orderId, stringsOf(request, "ingredients"));
+            }
+            return NO_CONTENT;
+        }
+        if (!method.equals(DELETE)) {
+            return notAllowed(json, method);
+        }
+        service.removePancake(orderId, uuidOf(name));
+        return NO_CONTENT;
+    }
+
+    // ================== Requests ================== //
+
+    private static String[] segments(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.endsWith("/") && path.length() > start ? path.length() - 1 : path.length();
+        return start >= end ? new String[0] : path.substring(start, end).split("/");
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return query;
+        }
+        for (String parameter : raw.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    /*
+     * body of the request parsed as json, a declared length over the limit is refused before anything is read
+     * @throws BodyTooLargeException if the body is longer than MAX_BODY_BYTES
+     * @throws IllegalArgumentException if the body is not json
+     */
+    private static Object body(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null && Long.parseLong(length.trim()) > MAX_BODY_BYTES) {
+            throw new BodyTooLargeException();
+        }
+        byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            throw new BodyTooLargeException();
+        }
+        return JsonReader.parse(new String(body, StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> object(Object value) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a json object");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static List<?> array(Object value) {
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Expected a json array");
+        }
+        return (List<?>) value;
+    }
+
+    private static int intOf(Map<String, Object> object, String name) {
+        Object value = object.get(name);
+        if (!(value instanceof Long)) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+        long number = (Long) value;
+        if (number != (int) number) {
+            throw new IllegalArgumentException(name + " is out of range");
+        }
+        return (int) number;
+    }
+
+    private static String stringOf(Map<String, Object> object, String name) {
+        Object value = object.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException(name + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private static List<String> stringsOf(Map<String, Object> object, String name) {
+        List<String> strings = new ArrayList<>();
+        for (Object value : array(object.get(name))) {
+            if (!(value instanceof String)) {
+                throw new IllegalArgumentException(name + " must be strings");
+            }
+            strings.add((String) value);
+        }
+        return strings;
+    }
+
+    private static List<UUID> uuidsOf(Object body) {
+        List<UUID> ids = new ArrayList<>();
+        for (Object value : array(body)) {
+            if (!(value instanceof String)) {
+                throw new IllegalArgumentException("Order ids must be strings");
+            }
+            ids.add(uuidOf((String) value));
+        }
+        return ids;
+    }
+
+    // @throws IllegalArgumentException if value is not a uuid
+    private static UUID uuidOf(String value) {
+        return UUID.fromString(value);
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    private static OrderStatus statusOf(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("status is required");
+        }
+        return OrderStatus.valueOf(value.toUpperCase(Locale.ROOT));
+    }
+
+    // ================== Responses ================== //
+
+    private static int notAllowed(JsonWriter json, String method) {
+        return error(json, METHOD_NOT_ALLOWED, "Method " + method + " not allowed");
+    }
+
+    private static int error(JsonWriter json, int status, String message) {
+        json.reset();
+        JsonEncoders.error(json, message);
+        return status;
+    }
+
+    /*
+     * a length of -1 tells the server there is no body, 0 would make it chunked
+     * the server only keeps a connection whose request body was read to its end by the time the response is done,
+     * and a response without body is done once its headers are sent, so whatever the route left of the body goes first
+     * an oversized body is not worth reading, the connection is closed instead
+     */
+    private static void respond(HttpExchange exchange, int status, JsonWriter json) throws IOException {
+        if (status == PAYLOAD_TOO_LARGE) {
+            exchange.getResponseHeaders().set("Connection", "close");
+        } else {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+        if (status == NO_CONTENT) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            json.writeTo(out);
+        }
+    }
+
+    // a 400 for anything that only catches IllegalArgumentException
+    private static final class BodyTooLargeException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        private BodyTooLargeException() {
+            super("Request body is larger than " + MAX_BODY_BYTES + " bytes");
+        }
+    }
+}
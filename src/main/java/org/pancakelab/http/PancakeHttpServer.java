@@ -0,0 +1,154 @@
+package org.pancakelab.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.pancakelab.service.ServiceExecutors;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+
+//PancakeService over http/json on the JDK's own server, started when it is built and stopped by close
+//requests run on virtual threads when the runtime has them, otherwise on a work stealing pool, see ServiceExecutors
+//connections are kept alive between requests, the JDK closes idle ones after sun.net.httpserver.idleInterval seconds
+//the JDK writes headers and body of a response apart, with nagle on the body then waits for a delayed ack of the headers,
+//about 40ms a response on a kept connection, so sun.net.httpserver.nodelay is set to true unless it was given.
+//the JDK reads it once, when the first server of the process is made
+//
+//  POST   /orders                           {"building":1,"room":2}                      201 order
+//  GET    /orders?status=NEW                                                             order ids
+//  GET    /orders?building=1&status=NEW                                                  order ids
+//  GET    /orders?building=1&room=2          open orders of the room                     order ids
+//  GET    /orders/count?status=NEW                                                       {"count":n}
+//  DELETE /orders/finished                                                               204
+//  POST   /orders/batch                     [{"building":1,"room":2}, ...]               results of orders
+//  POST   /orders/complete|prepare          ["id", ...]                                  results of ids
+//  POST   /orders/deliver                   ["id", ...]                                  results of orders
+//  GET    /orders/{id}                                                                   order
+//  GET    /orders/{id}/pancakes                                                          pancakes
+//  GET    /orders/{id}/view                                                              descriptions
+//  GET    /orders/{id}/summary                                                           summary
+//  POST   /orders/{id}/pancakes             {"ingredients":["dark chocolate"],"quantity":2}  204
+//  POST   /orders/{id}/pancakes             [{"ingredients":[...],"quantity":2}, ...]    results of descriptions
+//  POST   /orders/{id}/pancakes/remove      {"ingredients":[...]}                        204
+//  POST   /orders/{id}/pancakes/remove      {"description":"...","quantity":2}           204
+//  DELETE /orders/{id}/pancakes/{pancakeId}                                              204
+//  POST   /orders/{id}/complete|prepare|cancel                                           204
+//  POST   /orders/{id}/deliver                                                           order
+//
+//a batch result is {"value":...} or {"error":"message"}, a failed request answers {"error":"message"}
+//with 400 for invalid input or unknown orders and 409 for an order in the wrong status
+public final class PancakeHttpServer implements AutoCloseable {
+    private static final String NO_DELAY = "sun.net.httpserver.nodelay";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    private PancakeHttpServer(Builder builder) {
+        PancakeService service = Objects.requireNonNull(builder.service, "Service cannot be null");
+        this.ownsExecutor = builder.executor == null;
+        this.executor = ownsExecutor ? ServiceExecutors.preferVirtualThreads() : builder.executor;
+        if (System.getProperty(NO_DELAY) == null) {
+            System.setProperty(NO_DELAY, "true");
+        }
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(builder.address, builder.port), builder.backlog);
+        } catch (IOException e) {
+            if (ownsExecutor) {
+                executor.shutdown();
+            }
+            throw new UncheckedIOException("Cannot bind " + builder.address + ":" + builder.port, e);
+        }
+        server.createContext("/orders", new OrderHandler(service, new WriterPool(builder.keptWriters)));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private PancakeService service;
+        private InetAddress address = InetAddress.getLoopbackAddress();
+        private int port = 8080;
+        private int backlog = 0;
+        private ExecutorService executor;
+        private int keptWriters = 64;
+
+        private Builder() {}
+
+        public Builder service(PancakeService service) {
+            this.service = service;
+            return this;
+        }
+
+        // loopback unless set, the server has no authentication of its own
+        public Builder address(InetAddress address) {
+            this.address = Objects.requireNonNull(address, "Address cannot be null");
+            return this;
+        }
+
+        // 0 takes any free port, see getPort
+        public Builder port(int port) {
+            if (port < 0 || port > 65535) {
+                throw new IllegalArgumentException("Port must be between 0 and 65535");
+            }
+            this.port = port;
+            return this;
+        }
+
+        // connections waiting to be accepted, 0 leaves it to the system
+        public Builder backlog(int backlog) {
+            if (backlog < 0) {
+                throw new IllegalArgumentException("Backlog cannot be negative");
+            }
+            this.backlog = backlog;
+            return this;
+        }
+
+        // not owned by the server, whoever created it shuts it down
+        public Builder executor(ExecutorService executor) {
+            this.executor = Objects.requireNonNull(executor, "Executor cannot be null");
+            return this;
+        }
+
+        // json buffers kept for reuse, about the number of requests expected at once
+        public Builder keptWriters(int keptWriters) {
+            if (keptWriters < 1) {
+                throw new IllegalArgumentException("Kept writers must be positive");
+            }
+            this.keptWriters = keptWriters;
+            return this;
+        }
+
+        /*
+         * binds and starts the server
+         * @throws UncheckedIOException if the address cannot be bound
+         */
+        public PancakeHttpServer build() {
+            return new PancakeHttpServer(this);
+        }
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // stops at once, requests still running may lose their connection, and shuts down the executor the server made itself
+    @Override
+    public void close() {
+        server.stop(0);
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.pancakelab.http;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+//json writers kept between responses, a response takes one and gives it back once it is sent
+//when more responses are written at once than writers are kept, the extra writers are made and dropped afterwards
+final class WriterPool {
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int MAX_KEPT_CAPACITY = 1 << 20; // a writer that grew for one huge response is not kept
+
+    private final ArrayBlockingQueue<JsonWriter> writers;
+
+    WriterPool(int size) {
+        this.writers = new ArrayBlockingQueue<>(size);
+    }
+
+    JsonWriter acquire() {
+        JsonWriter writer = writers.poll();
+        if (writer == null) {
+            return new JsonWriter(INITIAL_CAPACITY);
+        }
+        writer.reset();
+        return writer;
+    }
+
+    void release(JsonWriter writer) {
+        if (writer.capacity() <= MAX_KEPT_CAPACITY) {
+            writers.offer(writer);
+        }
+    }
+}
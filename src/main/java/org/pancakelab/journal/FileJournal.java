@@ -0,0 +1,547 @@
+package org.pancakelab.journal;
+
+import org.pancakelab.model.PancakeFactory;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Recipe;
+import org.pancakelab.service.interfaces.Journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+//append only journal kept in memory mapped segment files, one binary record per service change
+//record layout: payload length (int), type (byte), payload, crc32c of type and payload (int)
+//segments are zero filled so a zero type marks the end, a bad crc marks a torn write after a crash
+public final class FileJournal implements Journal, AutoCloseable {
+    private static final byte ORDER_CREATED = 1;
+    private static final byte PANCAKES_ADDED = 2;
+    private static final byte PANCAKES_REMOVED = 3;
+    private static final byte PANCAKE_REMOVED = 4;
+    private static final byte STATUS_CHANGED = 5;
+    private static final byte FINISHED_CLEARED = 6;
+    private static final byte FINISHED_EVICTED = 7;
+
+    private static final int HEADER = Integer.BYTES + Byte.BYTES;
+    private static final int TRAILER = Integer.BYTES;
+    private static final int ID = 2 * Long.BYTES;
+    private static final long NOT_FINISHED = Long.MIN_VALUE; // finish time of an order that is still active
+    private static final int SNAPSHOT_MAGIC = 0x50414E43;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long syncIntervalNanos;
+    private final Duration snapshotInterval;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final CRC32C crc = new CRC32C();
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private ByteBuffer checksumView;
+    private boolean dirty;
+    private boolean closed;
+
+    private final ScheduledExecutorService scheduler;
+
+    private FileJournal(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        this.syncIntervalNanos = builder.syncInterval.toNanos();
+        this.snapshotInterval = builder.snapshotInterval;
+        Files.createDirectories(directory);
+
+        List<Long> segments = listSegments();
+        this.segment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+        JournalSnapshot snapshot = latestSnapshot();
+        if (snapshot != null && snapshot.position().segment() > segment) {
+            segment = snapshot.position().segment();
+        }
+        openSegment(segment);
+        buffer.position(recoverEnd());
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (syncIntervalNanos > 0) {
+            scheduler.scheduleWithFixedDelay(this::sync, syncIntervalNanos, syncIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    public static final class Builder {
+        private final Path directory;
+        private int segmentSize = 64 * 1024 * 1024;
+        private Duration syncInterval = Duration.ofMillis(10);
+        private Duration snapshotInterval = Duration.ZERO;
+
+        private Builder(Path directory) {
+            this.directory = Objects.requireNonNull(directory, "Directory cannot be null");
+        }
+
+        public Builder segmentSize(int segmentSize) {
+            if (segmentSize < 1024) {
+                throw new IllegalArgumentException("Segment size must be at least 1024 bytes");
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        // group commit, segment is forced to disk at most this often; zero forces after every record
+        public Builder syncInterval(Duration syncInterval) {
+            if (syncInterval.isNegative()) {
+                throw new IllegalArgumentException("Sync interval cannot be negative");
+            }
+            this.syncInterval = syncInterval;
+            return this;
+        }
+
+        // how often the attached service takes a snapshot, zero turns periodic snapshots off
+        public Builder snapshotInterval(Duration snapshotInterval) {
+            if (snapshotInterval.isNegative()) {
+                throw new IllegalArgumentException("Snapshot interval cannot be negative");
+            }
+            this.snapshotInterval = snapshotInterval;
+            return this;
+        }
+
+        /**
+         * opens the journal, appending continues after the last complete record
+         * @throws UncheckedIOException if files cannot be read or created
+         */
+        public FileJournal build() {
+            try {
+                return new FileJournal(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open journal in " + directory, e);
+            }
+        }
+    }
+
+    // ================== Journal ================== //
+
+    @Override
+    public void orderCreated(UUID orderId, int building, int room) {
+        appendLock.lock();
+        try {
+            int start = begin(ORDER_CREATED, ID + 2 * Integer.BYTES);
+            putId(orderId);
+            buffer.putInt(building);
+            buffer.putInt(room);
+            end(start);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void pancakesAdded(UUID orderId, Recipe recipe, int quantity) {
+        appendRecipe(PANCAKES_ADDED, orderId, recipe, quantity);
+    }
+
+    @Override
+    public void pancakesRemoved(UUID orderId, Recipe recipe, int quantity) {
+        appendRecipe(PANCAKES_REMOVED, orderId, recipe, quantity);
+    }
+
+    @Override
+    public void pancakeRemoved(UUID orderId, UUID pancakeId) {
+        appendIds(PANCAKE_REMOVED, orderId, pancakeId);
+    }
+
+    // finish time is kept in millis
+    @Override
+    public void statusChanged(UUID orderId, OrderStatus status, Instant finishedAt) {
+        appendLock.lock();
+        try {
+            int start = begin(STATUS_CHANGED, ID + Byte.BYTES + Long.BYTES);
+            putId(orderId);
+            buffer.put((byte) status.ordinal());
+            buffer.putLong(finishedAt == null ? NOT_FINISHED : finishedAt.toEpochMilli());
+            end(start);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void finishedOrdersCleared() {
+        appendLock.lock();
+        try {
+            end(begin(FINISHED_CLEARED, 0));
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void finishedOrderEvicted(UUID orderId) {
+        appendLock.lock();
+        try {
+            int start = begin(FINISHED_EVICTED, ID);
+            putId(orderId);
+            end(start);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // ================== Replay and snapshots ================== //
+
+    /*
+     * feeds every record from position on to target, in the order they were appended
+     * @throws UncheckedIOException if a segment cannot be read
+     */
+    public void replay(JournalPosition from, Journal target) {
+        appendLock.lock();
+        try {
+            for (long index : listSegments()) {
+                if (index < from.segment()) {
+                    continue;
+                }
+                try (FileChannel readChannel = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+                    ByteBuffer records = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                    int offset = index == from.segment() ? from.offset() : 0;
+                    int end = scan(records, offset);
+                    records.limit(end).position(offset);
+                    while (records.hasRemaining()) {
+                        int start = records.position();
+                        int length = records.getInt();
+                        dispatch(records.get(), records, target);
+                        records.position(start + HEADER + length + TRAILER);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not replay journal in " + directory, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /*
+     * closes current segment and starts a new one
+     * @return position of the new segment, everything appended later comes after it
+     */
+    public JournalPosition rotate() {
+        appendLock.lock();
+        try {
+            buffer.force();
+            channel.close();
+            openSegment(segment + 1);
+            return new JournalPosition(segment, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rotate journal in " + directory, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /*
+     * stores snapshot durably, then removes older snapshots and segments the snapshot already covers
+     * @throws UncheckedIOException if snapshot cannot be written
+     */
+    public void writeSnapshot(JournalSnapshot snapshot) {
+        JournalPosition position = snapshot.position();
+        Path target = snapshotPath(position.segment());
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(snapshot.state().length + 32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(position.segment());
+            out.writeInt(position.offset());
+            out.writeInt(snapshot.state().length);
+            out.write(snapshot.state());
+            CRC32C checksum = new CRC32C();
+            checksum.update(bytes.toByteArray());
+            out.writeInt((int) checksum.getValue());
+            try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                file.write(ByteBuffer.wrap(bytes.toByteArray()));
+                file.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            compact(position.segment());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write snapshot in " + directory, e);
+        }
+    }
+
+    /*
+     * newest snapshot that is complete
+     * @return snapshot or null if there is none
+     */
+    public JournalSnapshot latestSnapshot() {
+        List<Long> snapshots = listFiles("snapshot-", ".snap");
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            JournalSnapshot snapshot = readSnapshot(snapshotPath(snapshots.get(i)));
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * runs task every snapshot interval on the journal thread, does nothing when periodic snapshots are off
+     */
+    public void scheduleSnapshots(Runnable task) {
+        if (!snapshotInterval.isZero()) {
+            long nanos = snapshotInterval.toNanos();
+            scheduler.scheduleWithFixedDelay(task, nanos, nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // forces appended records to disk
+    public void sync() {
+        appendLock.lock();
+        try {
+            if (dirty && !closed) {
+                buffer.force();
+                dirty = false;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        appendLock.lock();
+        try {
+            if (!closed) {
+                buffer.force();
+                channel.close();
+                closed = true;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close journal in " + directory, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // ================== Internal Methods ================== //
+
+    private void appendRecipe(byte type, UUID orderId, Recipe recipe, int quantity) {
+        appendLock.lock();
+        try {
+            int start = begin(type, ID + 2 * Integer.BYTES);
+            putId(orderId);
+            buffer.putInt(recipe.getCode());
+            buffer.putInt(quantity);
+            end(start);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void appendIds(byte type, UUID orderId, UUID pancakeId) {
+        appendLock.lock();
+        try {
+            int start = begin(type, 2 * ID);
+            putId(orderId);
+            putId(pancakeId);
+            end(start);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /*
+     * writes record header, rotates first if the record does not fit
+     * @return start of the record
+     */
+    private int begin(byte type, int payloadLength) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (buffer.remaining() < HEADER + payloadLength + TRAILER) {
+            rotate();
+        }
+        int start = buffer.position();
+        buffer.putInt(payloadLength);
+        buffer.put(type);
+        return start;
+    }
+
+    private void end(int start) {
+        int end = buffer.position();
+        checksumView.limit(end).position(start + Integer.BYTES);
+        crc.reset();
+        crc.update(checksumView);
+        buffer.putInt((int) crc.getValue());
+        if (syncIntervalNanos == 0) {
+            buffer.force();
+        } else {
+            dirty = true;
+        }
+    }
+
+    private void putId(UUID id) {
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID getId(ByteBuffer records) {
+        return new UUID(records.getLong(), records.getLong());
+    }
+
+    private static Instant getTime(ByteBuffer records) {
+        long millis = records.getLong();
+        return millis == NOT_FINISHED ? null : Instant.ofEpochMilli(millis);
+    }
+
+    private static void dispatch(byte type, ByteBuffer records, Journal target) {
+        switch (type) {
+            case ORDER_CREATED -> target.orderCreated(getId(records), records.getInt(), records.getInt());
+            case PANCAKES_ADDED -> target.pancakesAdded(getId(records),
+                    PancakeFactory.getRecipe(records.getInt()), records.getInt());
+            case PANCAKES_REMOVED -> target.pancakesRemoved(getId(records),
+                    PancakeFactory.getRecipe(records.getInt()), records.getInt());
+            case PANCAKE_REMOVED -> target.pancakeRemoved(getId(records), getId(records));
+            case STATUS_CHANGED -> target.statusChanged(getId(records), STATUSES[records.get()], getTime(records));
+            case FINISHED_CLEARED -> target.finishedOrdersCleared();
+            case FINISHED_EVICTED -> target.finishedOrderEvicted(getId(records));
+            default -> throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    /*
+     * walks records from offset while they are complete and their checksum matches
+     * @return offset right after the last good record
+     */
+    private static int scan(ByteBuffer records, int offset) {
+        CRC32C checksum = new CRC32C();
+        int position = offset;
+        while (position + HEADER + TRAILER <= records.capacity()) {
+            int length = records.getInt(position);
+            byte type = records.get(position + Integer.BYTES);
+            // length is compared before it is added, a torn header may hold any int
+            if (type == 0 || length < 0 || length > records.capacity() - position - HEADER - TRAILER) {
+                break; // zero filled rest of the segment or a torn record
+            }
+            int end = position + HEADER + length;
+            ByteBuffer body = records.duplicate();
+            body.limit(end).position(position + Integer.BYTES);
+            checksum.reset();
+            checksum.update(body);
+            if ((int) checksum.getValue() != records.getInt(end)) {
+                break;
+            }
+            position = end + TRAILER;
+        }
+        return position;
+    }
+
+    // finds where appending continues and wipes whatever a torn write left behind
+    private int recoverEnd() {
+        int end = scan(buffer, 0);
+        if (end + HEADER <= buffer.capacity() && (buffer.getInt(end) != 0 || buffer.get(end + Integer.BYTES) != 0)) {
+            byte[] zeros = new byte[4096];
+            for (int position = end; position < buffer.capacity(); position += zeros.length) {
+                buffer.put(position, zeros, 0, Math.min(zeros.length, buffer.capacity() - position));
+            }
+            buffer.force();
+        }
+        return end;
+    }
+
+    private void openSegment(long index) throws IOException {
+        channel = FileChannel.open(segmentPath(index), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        checksumView = buffer.duplicate();
+        segment = index;
+        dirty = false;
+    }
+
+    private void compact(long firstNeededSegment) throws IOException {
+        for (long index : listSegments()) {
+            if (index < firstNeededSegment) {
+                Files.deleteIfExists(segmentPath(index));
+            }
+        }
+        for (long index : listFiles("snapshot-", ".snap")) {
+            if (index < firstNeededSegment) {
+                Files.deleteIfExists(snapshotPath(index));
+            }
+        }
+    }
+
+    private JournalSnapshot readSnapshot(Path path) {
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            if (bytes.length < Integer.BYTES) {
+                return null;
+            }
+            CRC32C checksum = new CRC32C();
+            checksum.update(bytes, 0, bytes.length - Integer.BYTES);
+            if ((int) checksum.getValue() != ByteBuffer.wrap(bytes).getInt(bytes.length - Integer.BYTES)) {
+                return null;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                return null;
+            }
+            JournalPosition position = new JournalPosition(in.readLong(), in.readInt());
+            byte[] state = new byte[in.readInt()];
+            in.readFully(state);
+            return new JournalSnapshot(position, state);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private List<Long> listSegments() {
+        return listFiles("segment-", ".log");
+    }
+
+    private List<Long> listFiles(String prefix, String suffix) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list journal files in " + directory, e);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve("segment-%020d.log".formatted(index));
+    }
+
+    private Path snapshotPath(long segment) {
+        return directory.resolve("snapshot-%020d.snap".formatted(segment));
+    }
+}
@@ -0,0 +1,10 @@
+package org.pancakelab.journal;
+
+//place in the journal, offset is in bytes from the start of the segment
+public record JournalPosition(long segment, int offset) {
+    public JournalPosition {
+        if (segment < 0 || offset < 0) {
+            throw new IllegalArgumentException("Journal position cannot be negative");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.pancakelab.journal;
+
+import java.util.Objects;
+
+//state of the whole service as of position, the journal only has to be replayed from there
+public record JournalSnapshot(JournalPosition position, byte[] state) {
+    public JournalSnapshot {
+        Objects.requireNonNull(position, "Position cannot be null");
+        Objects.requireNonNull(state, "State cannot be null");
+    }
+}
@@ -0,0 +1,8 @@
+package org.pancakelab.kitchen;
+
+//where a batch is actually cooked, called by a cook for one batch at a time
+//all pancakes of a batch share a recipe, so the griddle never switches recipe within a batch
+@FunctionalInterface
+public interface Griddle {
+    void cook(String description, int quantity);
+}
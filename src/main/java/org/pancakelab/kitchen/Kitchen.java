@@ -0,0 +1,400 @@
+package org.pancakelab.kitchen;
+
+import org.pancakelab.dto.OrderSummaryDTO;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+//kitchen on top of PancakeService: COMPLETED orders are moved to PREPARING and their pancakes wait in one lane per recipe
+//a single scheduler thread cuts lanes into griddle batches of one recipe, a batch leaves once it is full or its oldest pancake waited long enough
+//batches are cooked by a work stealing pool of cooks, an order is ready once the last batch holding its pancakes is done
+//a batch the griddle throws on is cooked again up to maxAttempts times, an order with pancakes in a batch that failed every
+//attempt never gets ready and is handed to the failure listener once instead
+public final class Kitchen implements AutoCloseable {
+    private final PancakeService service;
+    private final Griddle griddle;
+    private final Consumer<UUID> readyListener;
+    private final Consumer<UUID> failedListener;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long maxWaitNanos;
+    private final ForkJoinPool cooks;
+    private final BlockingQueue<Ticket> intake = new LinkedBlockingQueue<>();
+    private final Thread scheduler;
+    private volatile boolean running = true;
+
+    // lanes are only touched by the scheduler thread
+    private final Map<String, Lane> lanes = new HashMap<>();
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder ordersReceived = new LongAdder();
+    private final LongAdder ordersReady = new LongAdder();
+    private final LongAdder ordersFailed = new LongAdder();
+    private final LongAdder batchesCooked = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder pancakesCooked = new LongAdder();
+    private final AtomicLong queuedPancakes = new AtomicLong();
+    private final LongAdder pancakesDispatched = new LongAdder();
+    private final LongAdder queueLatencyNanos = new LongAdder(); // summed per dispatched pancake
+    private final AtomicLong maxQueueLatencyNanos = new AtomicLong();
+
+    private static final long IDLE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // one order in the kitchen, pancakes counts down as its batches are cooked
+    private static final class Ticket {
+        private final UUID orderId;
+        private final Map<String, Integer> pancakes; // per description in the order they were added
+        private final AtomicInteger remaining;
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private final long submittedAt;
+
+        private Ticket(UUID orderId, Map<String, Integer> pancakes, int total, long submittedAt) {
+            this.orderId = orderId;
+            this.pancakes = pancakes;
+            this.remaining = new AtomicInteger(total);
+            this.submittedAt = submittedAt;
+        }
+    }
+
+    // pancakes of one order that still wait in a lane or were put into one batch
+    private static final class Portion {
+        private final Ticket ticket;
+        private int quantity;
+
+        private Portion(Ticket ticket, int quantity) {
+            this.ticket = ticket;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final class Lane {
+        private final Deque<Portion> portions = new ArrayDeque<>();
+        private int pancakes;
+    }
+
+    private Kitchen(Builder builder) {
+        this.service = Objects.requireNonNull(builder.service, "Service cannot be null");
+        this.griddle = builder.griddle;
+        this.readyListener = builder.readyListener;
+        this.failedListener = builder.failedListener;
+        this.batchSize = builder.batchSize;
+        this.maxAttempts = builder.maxAttempts;
+        this.maxWaitNanos = builder.maxWait.toNanos();
+        this.cooks = new ForkJoinPool(builder.cooks, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.scheduler = new Thread(this::schedule, "kitchen-scheduler");
+        this.scheduler.setDaemon(true);
+        this.scheduler.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private PancakeService service;
+        private Griddle griddle = (description, quantity) -> {};
+        private Consumer<UUID> readyListener = orderId -> {};
+        private Consumer<UUID> failedListener = orderId -> {};
+        private int batchSize = 8;
+        private int maxAttempts = 3;
+        private Duration maxWait = Duration.ofMillis(50);
+        private int cooks = Runtime.getRuntime().availableProcessors();
+
+        private Builder() {}
+
+        public Builder service(PancakeService service) {
+            this.service = service;
+            return this;
+        }
+
+        public Builder griddle(Griddle griddle) {
+            this.griddle = Objects.requireNonNull(griddle, "Griddle cannot be null");
+            return this;
+        }
+
+        // called by the cook that finished the last batch of the order
+        public Builder onReady(Consumer<UUID> readyListener) {
+            this.readyListener = Objects.requireNonNull(readyListener, "Ready listener cannot be null");
+            return this;
+        }
+
+        // called by the cook whose batch failed first for the order, the order stays PREPARING since nothing cooks it again
+        public Builder onFailed(Consumer<UUID> failedListener) {
+            this.failedListener = Objects.requireNonNull(failedListener, "Failed listener cannot be null");
+            return this;
+        }
+
+        // pancakes that fit on the griddle at once
+        public Builder batchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("Batch size must be positive");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        // longest a pancake waits for its batch to fill up
+        public Builder maxWait(Duration maxWait) {
+            if (maxWait.isNegative()) {
+                throw new IllegalArgumentException("Max wait cannot be negative");
+            }
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        // times a batch goes on the griddle before its orders fail, 1 does not retry
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("Max attempts must be positive");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder cooks(int cooks) {
+            if (cooks < 1) {
+                throw new IllegalArgumentException("There must be at least one cook");
+            }
+            this.cooks = cooks;
+            return this;
+        }
+
+        public Kitchen build() {
+            return new Kitchen(this);
+        }
+    }
+
+    // ================== Orders ================== //
+
+    /*
+     * moves a COMPLETED order to PREPARING and queues its pancakes
+     * @throws IllegalArgumentException if an order does not exist
+     * @throws IllegalStateException if an order is not COMPLETED or the kitchen is closed
+     */
+    public void submit(UUID orderId) {
+        if (!running) {
+            throw new IllegalStateException("Kitchen is closed");
+        }
+        service.prepareOrder(orderId);
+        // nothing changes pancakes of an order that left NEW
+        OrderSummaryDTO summary = service.viewOrderSummary(orderId);
+        Map<String, Integer> pancakes = summary.pancakeCounts();
+        int total = summary.totalPancakes();
+        if (total == 0 && !isPreparing(orderId)) {
+            // delivered or cancelled by somebody else in the meantime, it is not ours to hand out
+            return;
+        }
+        ordersReceived.increment();
+        if (total == 0) {
+            ready(orderId);
+            return;
+        }
+        queuedPancakes.addAndGet(total);
+        intake.add(new Ticket(orderId, pancakes, total, System.nanoTime()));
+    }
+
+    /*
+     * submits every order that is COMPLETED right now, orders somebody else moves meanwhile are skipped
+     * @return number of submitted orders
+     */
+    public int submitCompleted() {
+        int submitted = 0;
+        for (UUID orderId : service.listOrdersWithStatus(OrderStatus.COMPLETED)) {
+            try {
+                submit(orderId);
+                submitted++;
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                if (!running) {
+                    throw e;
+                }
+            }
+        }
+        return submitted;
+    }
+
+    // ================== Metrics ================== //
+
+    public KitchenMetrics getMetrics() {
+        long batches = batchesCooked.sum();
+        long pancakes = pancakesCooked.sum();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long dispatched = pancakesDispatched.sum();
+        return new KitchenMetrics(
+                ordersReceived.sum(),
+                ordersReady.sum(),
+                ordersFailed.sum(),
+                batches,
+                failedBatches.sum(),
+                pancakes,
+                queuedPancakes.get(),
+                seconds == 0 ? 0 : pancakes / seconds,
+                batches == 0 ? 0 : (double) pancakes / batches,
+                Duration.ofNanos(dispatched == 0 ? 0 : queueLatencyNanos.sum() / dispatched),
+                Duration.ofNanos(maxQueueLatencyNanos.get()));
+    }
+
+    /*
+     * stops taking orders, everything already submitted is still batched and cooked before this returns
+     * an order submitted while the kitchen is closing may be left PREPARING
+     */
+    @Override
+    public void close() {
+        running = false;
+        scheduler.interrupt();
+        try {
+            scheduler.join();
+            cooks.shutdown();
+            cooks.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ================== Scheduler ================== //
+
+    private void schedule() {
+        while (running || !intake.isEmpty()) {
+            long now = System.nanoTime();
+            long wait = dispatchBatches(now, !running);
+            try {
+                Ticket ticket = intake.poll(wait, TimeUnit.NANOSECONDS);
+                if (ticket != null) {
+                    enqueue(ticket);
+                    while ((ticket = intake.poll()) != null) {
+                        enqueue(ticket);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // close() wakes the scheduler up, the loop checks running again
+            }
+        }
+        dispatchBatches(System.nanoTime(), true);
+    }
+
+    private void enqueue(Ticket ticket) {
+        for (Map.Entry<String, Integer> entry : ticket.pancakes.entrySet()) {
+            Lane lane = lanes.computeIfAbsent(entry.getKey(), description -> new Lane());
+            lane.portions.add(new Portion(ticket, entry.getValue()));
+            lane.pancakes += entry.getValue();
+        }
+    }
+
+    /*
+     * sends every full batch to the cooks, and partial ones whose oldest pancake waited too long or all of them when flushing
+     * @return nanos until the next lane runs out of waiting time
+     */
+    private long dispatchBatches(long now, boolean flush) {
+        long wait = IDLE_WAIT_NANOS;
+        Iterator<Map.Entry<String, Lane>> iterator = lanes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Lane> entry = iterator.next();
+            Lane lane = entry.getValue();
+            while (lane.pancakes >= batchSize) {
+                dispatch(entry.getKey(), lane, now);
+            }
+            if (lane.pancakes > 0) {
+                long waited = now - lane.portions.peekFirst().ticket.submittedAt;
+                if (flush || waited >= maxWaitNanos) {
+                    dispatch(entry.getKey(), lane, now);
+                } else {
+                    wait = Math.min(wait, maxWaitNanos - waited);
+                }
+            }
+            if (lane.pancakes == 0) {
+                iterator.remove();
+            }
+        }
+        return wait;
+    }
+
+    // takes up to batchSize pancakes from the head of the lane, the last portion may be split
+    private void dispatch(String description, Lane lane, long now) {
+        List<Portion> batch = new ArrayList<>();
+        int quantity = 0;
+        while (quantity < batchSize && !lane.portions.isEmpty()) {
+            Portion head = lane.portions.peekFirst();
+            int taken = Math.min(head.quantity, batchSize - quantity);
+            if (taken == head.quantity) {
+                lane.portions.pollFirst();
+                batch.add(head);
+            } else {
+                head.quantity -= taken;
+                batch.add(new Portion(head.ticket, taken));
+            }
+            quantity += taken;
+            recordQueueLatency(now - head.ticket.submittedAt, taken);
+        }
+        lane.pancakes -= quantity;
+        queuedPancakes.addAndGet(-quantity);
+        pancakesDispatched.add(quantity);
+        int batchQuantity = quantity;
+        cooks.execute(() -> cook(description, batchQuantity, batch));
+    }
+
+    private void recordQueueLatency(long latencyNanos, int pancakes) {
+        queueLatencyNanos.add(latencyNanos * pancakes);
+        maxQueueLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    // ================== Cooks ================== //
+
+    // a batch the griddle threw on every attempt is counted as failed, its orders do not become ready
+    private void cook(String description, int quantity, List<Portion> batch) {
+        if (!cookAttempts(description, quantity)) {
+            failedBatches.increment();
+            for (Portion portion : batch) {
+                if (portion.ticket.failed.compareAndSet(false, true)) {
+                    ordersFailed.increment();
+                    failedListener.accept(portion.ticket.orderId);
+                }
+            }
+            return;
+        }
+        batchesCooked.increment();
+        pancakesCooked.add(quantity);
+        for (Portion portion : batch) {
+            if (portion.ticket.remaining.addAndGet(-portion.quantity) == 0) {
+                ready(portion.ticket.orderId);
+            }
+        }
+    }
+
+    // true once an attempt went through
+    private boolean cookAttempts(String description, int quantity) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                griddle.cook(description, quantity);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt == maxAttempts) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    // false as well for an order that was cleared since
+    private boolean isPreparing(UUID orderId) {
+        try {
+            return OrderStatus.PREPARING.name().equals(service.getOrderStatus(orderId).status());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void ready(UUID orderId) {
+        ordersReady.increment();
+        readyListener.accept(orderId);
+    }
+}
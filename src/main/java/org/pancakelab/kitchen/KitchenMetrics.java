@@ -0,0 +1,18 @@
+package org.pancakelab.kitchen;
+
+import java.time.Duration;
+
+//counters of a kitchen since it was started, queue latency is how long a pancake waited between submission and its batch
+public record KitchenMetrics(
+        long ordersReceived,
+        long ordersReady,
+        long ordersFailed,
+        long batchesCooked,
+        long failedBatches,
+        long pancakesCooked,
+        long queuedPancakes,
+        double pancakesPerSecond,
+        double averageBatchSize,
+        Duration averageQueueLatency,
+        Duration maxQueueLatency) {
+}
@@ -0,0 +1,210 @@
+package org.pancakelab.load;
+
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+//drives the whole order lifecycle against a service at a target rate and times every call
+//every worker starts its orders on a fixed schedule, an order that is due while the worker is still busy starts late
+//steps of an order are due one think time apart and the worker runs whatever is due first, so thinking orders
+//do not hold back new ones
+//creating an order is timed from when it was due rather than when it started, so falling behind shows up as latency
+//instead of quietly lowering the rate, like HdrHistogram's coordinated omission correction
+public final class LoadGenerator {
+    private static final List<List<String>> RECIPES = List.of(
+            List.of("dark chocolate"),
+            List.of("milk chocolate"),
+            List.of("dark chocolate", "whipped cream"),
+            List.of("milk chocolate", "hazelnuts"),
+            List.of("dark chocolate", "whipped cream", "hazelnuts"));
+    private static final int ROOMS = 999;
+
+    private final PancakeService service;
+
+    public LoadGenerator(PancakeService service) {
+        this.service = Objects.requireNonNull(service, "Service cannot be null");
+    }
+
+    /*
+     * runs workload until its duration is over and every started order is done
+     * @throws IllegalStateException if the calling thread is interrupted meanwhile
+     */
+    public LoadReport run(Workload workload) {
+        long intervalNanos = (long) (1e9 * workload.getWorkers() / workload.getOrdersPerSecond());
+        long start = System.nanoTime();
+        long end = start + workload.getDuration().toNanos();
+        List<Worker> workers = new ArrayList<>(workload.getWorkers());
+        List<Thread> threads = new ArrayList<>(workload.getWorkers());
+        for (int i = 0; i < workload.getWorkers(); i++) {
+            // workers are spread over one interval so they do not all start their orders at once
+            Worker worker = new Worker(workload, start + intervalNanos * i / workload.getWorkers(), intervalNanos, end);
+            Thread thread = new Thread(worker, "load-worker-" + i);
+            workers.add(worker);
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            threads.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load run was interrupted", e);
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        long orders = 0;
+        Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        long[] errors = new long[Operation.values().length];
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+        for (Worker worker : workers) {
+            orders += worker.orders;
+            for (Operation operation : Operation.values()) {
+                latencies.get(operation).add(worker.latencies.get(operation));
+                errors[operation.ordinal()] += worker.errors[operation.ordinal()];
+            }
+        }
+        Map<Operation, LoadReport.Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, LoadReport.Stats.of(latencies.get(operation), errors[operation.ordinal()]));
+        }
+        return new LoadReport(workload.getOrdersPerSecond(), elapsed, orders, stats);
+    }
+
+    // everything a worker records is its own until the run is over
+    private final class Worker implements Runnable {
+        private final Workload workload;
+        private final long firstDue;
+        private final long intervalNanos;
+        private final long end;
+        private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        private final long[] errors = new long[Operation.values().length];
+        private long orders;
+
+        private Worker(Workload workload, long firstDue, long intervalNanos, long end) {
+            this.workload = workload;
+            this.firstDue = firstDue;
+            this.intervalNanos = intervalNanos;
+            this.end = end;
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+            }
+        }
+
+        @Override
+        public void run() {
+            PriorityQueue<OrderRun> waiting = new PriorityQueue<>((a, b) -> Long.compare(a.due, b.due));
+            long nextArrival = firstDue;
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean arriving = nextArrival < end;
+                OrderRun order;
+                if (arriving && (waiting.isEmpty() || nextArrival <= waiting.peek().due)) {
+                    order = new OrderRun(nextArrival);
+                    nextArrival += intervalNanos;
+                    orders++;
+                } else if (!waiting.isEmpty()) {
+                    order = waiting.poll();
+                } else {
+                    return;
+                }
+                long wait;
+                while ((wait = order.due - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (runStep(order)) {
+                    order.due = System.nanoTime() + workload.getThinkTime().toNanos();
+                    waiting.add(order);
+                }
+            }
+        }
+
+        /*
+         * an order stops at its first failing step
+         * @return true if the order has steps left
+         */
+        private boolean runStep(OrderRun order) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            UUID orderId = order.orderId;
+            switch (order.step++) {
+                case 0 -> {
+                    try {
+                        order.orderId = service.createOrder(
+                                1 + random.nextInt(workload.getBuildings()), 1 + random.nextInt(ROOMS)).id();
+                        latencies.get(Operation.CREATE).record(System.nanoTime() - order.due);
+                        return true;
+                    } catch (RuntimeException e) {
+                        errors[Operation.CREATE.ordinal()]++;
+                        return false;
+                    }
+                }
+                case 1 -> {
+                    int pancakes = 1 + random.nextInt(workload.getMaxPancakes());
+                    List<String> recipe = null;
+                    for (int i = 0; i < pancakes; i++) {
+                        recipe = RECIPES.get(random.nextInt(RECIPES.size()));
+                        List<String> ingredients = recipe;
+                        if (!call(Operation.ADD_PANCAKES, () -> service.addPancakes(orderId, ingredients, 1))) {
+                            return false;
+                        }
+                    }
+                    // the last pancake may only go if the order keeps one to complete
+                    if (pancakes > 1 && random.nextDouble() < workload.getRemoveRate()) {
+                        List<String> ingredients = recipe;
+                        return call(Operation.REMOVE_PANCAKES, () -> service.removePancake(orderId, ingredients));
+                    }
+                    return true;
+                }
+                case 2 -> {
+                    if (random.nextDouble() < workload.getCancelRate()) {
+                        call(Operation.CANCEL, () -> service.cancelOrder(orderId));
+                        return false;
+                    }
+                    return call(Operation.COMPLETE, () -> service.completeOrder(orderId));
+                }
+                case 3 -> {
+                    return call(Operation.PREPARE, () -> service.prepareOrder(orderId));
+                }
+                default -> {
+                    call(Operation.DELIVER, () -> service.deliverOrder(orderId));
+                    return false;
+                }
+            }
+        }
+
+        // failed calls are counted but not timed
+        private boolean call(Operation operation, Runnable call) {
+            long started = System.nanoTime();
+            try {
+                call.run();
+            } catch (RuntimeException e) {
+                errors[operation.ordinal()]++;
+                return false;
+            }
+            latencies.get(operation).record(System.nanoTime() - started);
+            return true;
+        }
+    }
+
+    // an order between two of its steps, created when it is due to arrive
+    private static final class OrderRun {
+        private UUID orderId;
+        private int step;
+        private long due;
+
+        private OrderRun(long due) {
+            this.due = due;
+        }
+    }
+}
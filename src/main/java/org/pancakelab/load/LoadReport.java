@@ -0,0 +1,62 @@
+package org.pancakelab.load;
+
+import java.time.Duration;
+import java.util.Map;
+
+//outcome of one load run, latencies are in nanos
+public record LoadReport(double targetOrdersPerSecond, Duration elapsed, long orders, Map<Operation, Stats> operations) {
+
+    public record Stats(long count, long errors, long p50, long p99, long p999, long max, double mean) {
+        static Stats of(LatencyHistogram histogram, long errors) {
+            return new Stats(
+                    histogram.getCount(),
+                    errors,
+                    histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(99),
+                    histogram.getValueAtPercentile(99.9),
+                    histogram.getMax(),
+                    histogram.getMean());
+        }
+    }
+
+    public LoadReport {
+        operations = Map.copyOf(operations);
+    }
+
+    public double ordersPerSecond() {
+        return elapsed.isZero() ? 0 : orders / (elapsed.toNanos() / 1e9);
+    }
+
+    public double callsPerSecond() {
+        long calls = 0;
+        for (Stats stats : operations.values()) {
+            calls += stats.count();
+        }
+        return elapsed.isZero() ? 0 : calls / (elapsed.toNanos() / 1e9);
+    }
+
+    // the service fell behind when it ran less than 95% of the target rate
+    public boolean isSaturated() {
+        return ordersPerSecond() < targetOrdersPerSecond * 0.95;
+    }
+
+    // one line per operation, latencies in microseconds
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("target %.0f orders/s, achieved %.0f orders/s and %.0f calls/s in %d ms%s%n",
+                targetOrdersPerSecond, ordersPerSecond(), callsPerSecond(), elapsed.toMillis(),
+                isSaturated() ? " (saturated)" : ""));
+        report.append(String.format("%-16s %10s %8s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (Operation operation : Operation.values()) {
+            Stats stats = operations.get(operation);
+            if (stats == null || stats.count() == 0) {
+                continue;
+            }
+            report.append(String.format("%-16s %10d %8d %10.1f %10.1f %10.1f %10.1f%n",
+                    operation, stats.count(), stats.errors(),
+                    stats.p50() / 1e3, stats.p99() / 1e3, stats.p999() / 1e3, stats.max() / 1e3));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,6 @@
+package org.pancakelab.load;
+
+//service calls the load generator times, one latency histogram each
+public enum Operation {
+    CREATE, ADD_PANCAKES, REMOVE_PANCAKES, COMPLETE, PREPARE, DELIVER, CANCEL
+}
@@ -0,0 +1,152 @@
+package org.pancakelab.load;
+
+import java.time.Duration;
+
+//what the load generator asks of the service: how many orders per second, for how long and what every order goes through
+//every order is created, gets pancakes, may lose one of them and is then either cancelled or completed, prepared and delivered
+public final class Workload {
+    private final int workers;
+    private final double ordersPerSecond;
+    private final Duration duration;
+    private final int buildings;
+    private final int maxPancakes;
+    private final double removeRate;
+    private final double cancelRate;
+    private final Duration thinkTime;
+
+    private Workload(Builder builder) {
+        this.workers = builder.workers;
+        this.ordersPerSecond = builder.ordersPerSecond;
+        this.duration = builder.duration;
+        this.buildings = builder.buildings;
+        this.maxPancakes = builder.maxPancakes;
+        this.removeRate = builder.removeRate;
+        this.cancelRate = builder.cancelRate;
+        this.thinkTime = builder.thinkTime;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private double ordersPerSecond = 1000;
+        private Duration duration = Duration.ofSeconds(10);
+        private int buildings = 10;
+        private int maxPancakes = 5;
+        private double removeRate = 0.1;
+        private double cancelRate = 0.1;
+        private Duration thinkTime = Duration.ZERO;
+
+        private Builder() {}
+
+        // threads driving orders, each of them runs one order at a time
+        public Builder workers(int workers) {
+            if (workers < 1) {
+                throw new IllegalArgumentException("There must be at least one worker");
+            }
+            this.workers = workers;
+            return this;
+        }
+
+        // target rate of new orders over all workers
+        public Builder ordersPerSecond(double ordersPerSecond) {
+            if (!(ordersPerSecond > 0)) {
+                throw new IllegalArgumentException("Order rate must be positive");
+            }
+            this.ordersPerSecond = ordersPerSecond;
+            return this;
+        }
+
+        public Builder duration(Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Duration must be positive");
+            }
+            this.duration = duration;
+            return this;
+        }
+
+        // orders go to buildings 1 to buildings
+        public Builder buildings(int buildings) {
+            if (buildings < 1 || buildings > 10) {
+                throw new IllegalArgumentException("Buildings must be between 1 and 10");
+            }
+            this.buildings = buildings;
+            return this;
+        }
+
+        // every order gets between 1 and maxPancakes pancakes
+        public Builder maxPancakes(int maxPancakes) {
+            if (maxPancakes < 1) {
+                throw new IllegalArgumentException("Max pancakes must be positive");
+            }
+            this.maxPancakes = maxPancakes;
+            return this;
+        }
+
+        // share of orders that have one pancake removed again
+        public Builder removeRate(double removeRate) {
+            this.removeRate = validateRate(removeRate, "Remove rate");
+            return this;
+        }
+
+        // share of orders that are cancelled instead of delivered
+        public Builder cancelRate(double cancelRate) {
+            this.cancelRate = validateRate(cancelRate, "Cancel rate");
+            return this;
+        }
+
+        // pause of a worker between two steps of one order, like a customer making up their mind
+        public Builder thinkTime(Duration thinkTime) {
+            if (thinkTime.isNegative()) {
+                throw new IllegalArgumentException("Think time cannot be negative");
+            }
+            this.thinkTime = thinkTime;
+            return this;
+        }
+
+        public Workload build() {
+            return new Workload(this);
+        }
+
+        private static double validateRate(double rate, String name) {
+            if (!(rate >= 0 && rate <= 1)) {
+                throw new IllegalArgumentException(name + " must be between 0 and 1");
+            }
+            return rate;
+        }
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public double getOrdersPerSecond() {
+        return ordersPerSecond;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getBuildings() {
+        return buildings;
+    }
+
+    public int getMaxPancakes() {
+        return maxPancakes;
+    }
+
+    public double getRemoveRate() {
+        return removeRate;
+    }
+
+    public double getCancelRate() {
+        return cancelRate;
+    }
+
+    public Duration getThinkTime() {
+        return thinkTime;
+    }
+}
@@ -0,0 +1,46 @@
+package org.pancakelab.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+//calls of one method, every field is striped so threads recording at once do not fight over a single counter
+//every call is counted but only timed calls add to mean and max, that is every call unless timing is sampled
+final class MethodTimer {
+    static final long UNTIMED = -1;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timedCalls = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    // failed calls are timed as well, a slow failure costs the caller as much as a slow success
+    void record(long nanos, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        if (nanos != UNTIMED) {
+            timedCalls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+    }
+
+    long calls() {
+        return calls.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long meanNanos() {
+        long count = timedCalls.sum();
+        return count == 0 ? 0 : totalNanos.sum() / count;
+    }
+
+    long maxNanos() {
+        return maxNanos.get();
+    }
+}
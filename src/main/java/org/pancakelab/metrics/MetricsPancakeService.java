@@ -0,0 +1,418 @@
+package org.pancakelab.metrics;
+
+import org.pancakelab.dto.BatchResult;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderRequest;
+import org.pancakelab.dto.OrderSummaryDTO;
+import org.pancakelab.dto.PancakeDTO;
+import org.pancakelab.dto.PancakeRequest;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+//counts and times calls of the wrapped service and counts what it refused, see PancakeServiceMetrics for what is kept
+//pancakes in flight only see orders created through this class, they are tallied per order from its creation and a
+//delivery or cancel takes the tally out, an add recorded after the order finished is not counted
+//every call is counted and by default timed, so max latency sees every spike
+//timing one call in timedEvery saves the clock reads, MetricsOverheadBenchmark shows what they cost, max then misses spikes
+public final class MetricsPancakeService implements PancakeService {
+    private static final int DEFAULT_TIMED_EVERY = 1;
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private final PancakeService service;
+    private final PancakeServiceMetrics metrics;
+    private final int timedEvery;
+
+    public MetricsPancakeService(PancakeService service) {
+        this(service, DEFAULT_TIMED_EVERY);
+    }
+
+    /**
+     * constructor, timedEvery 1 times every call, anything above makes mean and max latency those of sampled calls
+     * @throws NullPointerException if service is null
+     * @throws IllegalArgumentException if timedEvery is not positive
+     */
+    public MetricsPancakeService(PancakeService service, int timedEvery) {
+        if (timedEvery <= 0) {
+            throw new IllegalArgumentException("Timed every must be positive");
+        }
+        this.service = Objects.requireNonNull(service, "Service cannot be null");
+        this.metrics = new PancakeServiceMetrics(service);
+        this.timedEvery = timedEvery;
+    }
+
+    public PancakeServiceMetrics getMetrics() {
+        return metrics;
+    }
+
+    // ================== Order Lifecycle ================== //
+
+    @Override
+    public OrderDTO createOrder(int building, int room) {
+        long start = start();
+        OrderDTO order;
+        try {
+            order = service.createOrder(building, room);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.CREATE_ORDER, start, e);
+        }
+        metrics.orderCreated(order.id());
+        end(ServiceMethod.CREATE_ORDER, start);
+        return order;
+    }
+
+    @Override
+    public void addPancakes(UUID orderId, List<String> ingredientNames, int quantity) {
+        long start = start();
+        try {
+            service.addPancakes(orderId, ingredientNames, quantity);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.ADD_PANCAKES, start, e);
+        }
+        metrics.pancakesEntered(orderId, quantity);
+        end(ServiceMethod.ADD_PANCAKES, start);
+    }
+
+    @Override
+    public void removePancake(UUID orderId, List<String> ingredientNames) {
+        long start = start();
+        try {
+            service.removePancake(orderId, ingredientNames);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.REMOVE_PANCAKE, start, e);
+        }
+        metrics.pancakesLeft(orderId, 1);
+        end(ServiceMethod.REMOVE_PANCAKE, start);
+    }
+
+    @Override
+    public void removePancake(UUID orderId, UUID pancakeId) {
+        long start = start();
+        try {
+            service.removePancake(orderId, pancakeId);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.REMOVE_PANCAKE, start, e);
+        }
+        metrics.pancakesLeft(orderId, 1);
+        end(ServiceMethod.REMOVE_PANCAKE, start);
+    }
+
+    @Override
+    public void removePancakes(String description, UUID orderId, int quantity) {
+        long start = start();
+        try {
+            service.removePancakes(description, orderId, quantity);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.REMOVE_PANCAKES, start, e);
+        }
+        metrics.pancakesLeft(orderId, quantity);
+        end(ServiceMethod.REMOVE_PANCAKES, start);
+    }
+
+    @Override
+    public void completeOrder(UUID orderId) {
+        long start = start();
+        try {
+            service.completeOrder(orderId);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.COMPLETE_ORDER, start, e);
+        }
+        end(ServiceMethod.COMPLETE_ORDER, start);
+    }
+
+    @Override
+    public void prepareOrder(UUID orderId) {
+        long start = start();
+        try {
+            service.prepareOrder(orderId);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.PREPARE_ORDER, start, e);
+        }
+        end(ServiceMethod.PREPARE_ORDER, start);
+    }
+
+    @Override
+    public OrderDTO deliverOrder(UUID orderId) {
+        long start = start();
+        OrderDTO order;
+        try {
+            order = service.deliverOrder(orderId);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.DELIVER_ORDER, start, e);
+        }
+        metrics.orderFinished(orderId);
+        end(ServiceMethod.DELIVER_ORDER, start);
+        return order;
+    }
+
+    @Override
+    public void cancelOrder(UUID orderId) {
+        long start = start();
+        try {
+            service.cancelOrder(orderId);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.CANCEL_ORDER, start, e);
+        }
+        metrics.orderFinished(orderId);
+        end(ServiceMethod.CANCEL_ORDER, start);
+    }
+
+    @Override
+    public void clearAllFinishedOrders() {
+        long start = start();
+        try {
+            service.clearAllFinishedOrders();
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.CLEAR_FINISHED_ORDERS, start, e);
+        }
+        end(ServiceMethod.CLEAR_FINISHED_ORDERS, start);
+    }
+
+    // ================== Reads ================== //
+
+    @Override
+    public OrderDTO getOrderStatus(UUID orderId) {
+        long start = start();
+        OrderDTO order;
+        try {
+            order = service.getOrderStatus(orderId);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.GET_ORDER_STATUS, start, e);
+        }
+        end(ServiceMethod.GET_ORDER_STATUS, start);
+        return order;
+    }
+
+    @Override
+    public List<PancakeDTO> getPancakeDescriptions(UUID orderId) {
+        long start = start();
+        List<PancakeDTO> pancakes;
+        try {
+            pancakes = service.getPancakeDescriptions(orderId);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.GET_PANCAKE_DESCRIPTIONS, start, e);
+        }
+        end(ServiceMethod.GET_PANCAKE_DESCRIPTIONS, start);
+        return pancakes;
+    }
+
+    @Override
+    public List<String> viewOrder(UUID orderId) {
+        long start = start();
+        List<String> descriptions;
+        try {
+            descriptions = service.viewOrder(orderId);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.VIEW_ORDER, start, e);
+        }
+        end(ServiceMethod.VIEW_ORDER, start);
+        return descriptions;
+    }
+
+    @Override
+    public OrderSummaryDTO viewOrderSummary(UUID orderId) {
+        long start = start();
+        OrderSummaryDTO summary;
+        try {
+            summary = service.viewOrderSummary(orderId);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.VIEW_ORDER_SUMMARY, start, e);
+        }
+        end(ServiceMethod.VIEW_ORDER_SUMMARY, start);
+        return summary;
+    }
+
+    @Override
+    public Set<UUID> listOrdersWithStatus(OrderStatus orderStatus) {
+        long start = start();
+        Set<UUID> orderIds;
+        try {
+            orderIds = service.listOrdersWithStatus(orderStatus);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.LIST_ORDERS_WITH_STATUS, start, e);
+        }
+        end(ServiceMethod.LIST_ORDERS_WITH_STATUS, start);
+        return orderIds;
+    }
+
+    @Override
+    public int countOrdersWithStatus(OrderStatus orderStatus) {
+        long start = start();
+        int count;
+        try {
+            count = service.countOrdersWithStatus(orderStatus);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.COUNT_ORDERS_WITH_STATUS, start, e);
+        }
+        end(ServiceMethod.COUNT_ORDERS_WITH_STATUS, start);
+        return count;
+    }
+
+    @Override
+    public Set<UUID> listOrdersInBuilding(int building, OrderStatus orderStatus) {
+        long start = start();
+        Set<UUID> orderIds;
+        try {
+            orderIds = service.listOrdersInBuilding(building, orderStatus);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.LIST_ORDERS_IN_BUILDING, start, e);
+        }
+        end(ServiceMethod.LIST_ORDERS_IN_BUILDING, start);
+        return orderIds;
+    }
+
+    @Override
+    public Set<UUID> listOpenOrdersForRoom(int building, int room) {
+        long start = start();
+        Set<UUID> orderIds;
+        try {
+            orderIds = service.listOpenOrdersForRoom(building, room);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.LIST_OPEN_ORDERS_FOR_ROOM, start, e);
+        }
+        end(ServiceMethod.LIST_OPEN_ORDERS_FOR_ROOM, start);
+        return orderIds;
+    }
+
+    // ================== Batches ================== //
+
+    // failed items count as invalid transitions or rejected validations like failed single calls do,
+    // errors of a batch method only count batches that threw
+    @Override
+    public List<BatchResult<OrderDTO>> createOrders(List<OrderRequest> requests) {
+        long start = start();
+        List<BatchResult<OrderDTO>> results;
+        try {
+            results = service.createOrders(requests);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.CREATE_ORDERS, start, e);
+        }
+        for (BatchResult<OrderDTO> result : results) {
+            if (result.isSuccess()) {
+                metrics.orderCreated(result.value().id());
+            }
+        }
+        countFailures(ServiceMethod.CREATE_ORDERS, results);
+        end(ServiceMethod.CREATE_ORDERS, start);
+        return results;
+    }
+
+    @Override
+    public List<BatchResult<String>> addPancakes(UUID orderId, List<PancakeRequest> requests) {
+        long start = start();
+        List<BatchResult<String>> results;
+        try {
+            results = service.addPancakes(orderId, requests);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.ADD_PANCAKES_BATCH, start, e);
+        }
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).isSuccess()) {
+                metrics.pancakesEntered(orderId, requests.get(i).quantity());
+            }
+        }
+        countFailures(ServiceMethod.ADD_PANCAKES_BATCH, results);
+        end(ServiceMethod.ADD_PANCAKES_BATCH, start);
+        return results;
+    }
+
+    @Override
+    public List<BatchResult<UUID>> completeOrders(List<UUID> orderIds) {
+        long start = start();
+        List<BatchResult<UUID>> results;
+        try {
+            results = service.completeOrders(orderIds);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.COMPLETE_ORDERS, start, e);
+        }
+        countFailures(ServiceMethod.COMPLETE_ORDERS, results);
+        end(ServiceMethod.COMPLETE_ORDERS, start);
+        return results;
+    }
+
+    @Override
+    public List<BatchResult<UUID>> prepareOrders(List<UUID> orderIds) {
+        long start = start();
+        List<BatchResult<UUID>> results;
+        try {
+            results = service.prepareOrders(orderIds);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.PREPARE_ORDERS, start, e);
+        }
+        countFailures(ServiceMethod.PREPARE_ORDERS, results);
+        end(ServiceMethod.PREPARE_ORDERS, start);
+        return results;
+    }
+
+    @Override
+    public List<BatchResult<OrderDTO>> deliverOrders(List<UUID> orderIds) {
+        long start = start();
+        List<BatchResult<OrderDTO>> results;
+        try {
+            results = service.deliverOrders(orderIds);
+        } catch (RuntimeException e) {
+            throw failed(ServiceMethod.DELIVER_ORDERS, start, e);
+        }
+        for (BatchResult<OrderDTO> result : results) {
+            if (result.isSuccess()) {
+                metrics.orderFinished(result.value().id());
+            }
+        }
+        countFailures(ServiceMethod.DELIVER_ORDERS, results);
+        end(ServiceMethod.DELIVER_ORDERS, start);
+        return results;
+    }
+
+    // ================== Helpers ================== //
+
+    private long start() {
+        if (timedEvery > 1 && ThreadLocalRandom.current().nextInt(timedEvery) != 0) {
+            return NOT_TIMED;
+        }
+        return System.nanoTime();
+    }
+
+    private static long elapsed(long start) {
+        return start == NOT_TIMED ? MethodTimer.UNTIMED : System.nanoTime() - start;
+    }
+
+    private void end(ServiceMethod method, long start) {
+        metrics.record(method, elapsed(start), false);
+    }
+
+    private RuntimeException failed(ServiceMethod method, long start, RuntimeException e) {
+        metrics.record(method, elapsed(start), true);
+        classify(method, e);
+        return e;
+    }
+
+    private void countFailures(ServiceMethod method, List<? extends BatchResult<?>> results) {
+        for (BatchResult<?> result : results) {
+            if (!result.isSuccess()) {
+                classify(method, result.error());
+            }
+        }
+    }
+
+    // the service refuses a status change with IllegalStateException, anything else it refuses is a validation
+    private void classify(ServiceMethod method, RuntimeException e) {
+        if (e instanceof IllegalStateException && isTransition(method)) {
+            metrics.invalidTransition();
+        } else if (e instanceof IllegalArgumentException || e instanceof IllegalStateException) {
+            metrics.rejectedValidation();
+        }
+    }
+
+    private static boolean isTransition(ServiceMethod method) {
+        return switch (method) {
+            case COMPLETE_ORDER, PREPARE_ORDER, DELIVER_ORDER, CANCEL_ORDER,
+                 COMPLETE_ORDERS, PREPARE_ORDERS, DELIVER_ORDERS -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,207 @@
+package org.pancakelab.metrics;
+
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+//metrics recorded by MetricsPancakeService: a timer per method, rejected calls and gauges of what the service holds
+//order gauges are counted by the service when they are read, nothing is counted on the way for them
+public final class PancakeServiceMetrics implements PancakeServiceMetricsMXBean {
+    private static final ServiceMethod[] METHODS = ServiceMethod.values();
+
+    private final PancakeService service;
+    private final MethodTimer[] timers = new MethodTimer[METHODS.length];
+    private final LongAdder invalidTransitions = new LongAdder();
+    private final LongAdder rejectedValidations = new LongAdder();
+    private final LongAdder pancakesInFlight = new LongAdder();
+    // pancakes added minus removed per order created here that is neither delivered nor cancelled
+    // changes of a tally and of pancakesInFlight happen together while the map holds the entry
+    private final Map<UUID, Long> pancakesByOrder = new ConcurrentHashMap<>();
+
+    PancakeServiceMetrics(PancakeService service) {
+        this.service = service;
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new MethodTimer();
+        }
+    }
+
+    // ================== Recording ================== //
+
+    void record(ServiceMethod method, long nanos, boolean failed) {
+        timers[method.ordinal()].record(nanos, failed);
+    }
+
+    void invalidTransition() {
+        invalidTransitions.increment();
+    }
+
+    void rejectedValidation() {
+        rejectedValidations.increment();
+    }
+
+    void orderCreated(UUID orderId) {
+        pancakesByOrder.put(orderId, 0L);
+    }
+
+    // pancakes of an order created elsewhere or already finished are not counted
+    void pancakesEntered(UUID orderId, long pancakes) {
+        pancakesByOrder.computeIfPresent(orderId, (id, tally) -> {
+            pancakesInFlight.add(pancakes);
+            return tally + pancakes;
+        });
+    }
+
+    void pancakesLeft(UUID orderId, long pancakes) {
+        pancakesEntered(orderId, -pancakes);
+    }
+
+    // delivered or cancelled, whatever is still counted for the order leaves with it and nothing is counted for it again
+    void orderFinished(UUID orderId) {
+        Long tally = pancakesByOrder.remove(orderId);
+        if (tally != null) {
+            pancakesInFlight.add(-tally);
+        }
+    }
+
+    // ================== Reading ================== //
+
+    @Override
+    public Map<String, Long> getCalls() {
+        return byMethod(MethodTimer::calls);
+    }
+
+    @Override
+    public Map<String, Long> getErrors() {
+        return byMethod(MethodTimer::errors);
+    }
+
+    @Override
+    public Map<String, Long> getMeanLatencyNanos() {
+        return byMethod(MethodTimer::meanNanos);
+    }
+
+    @Override
+    public Map<String, Long> getMaxLatencyNanos() {
+        return byMethod(MethodTimer::maxNanos);
+    }
+
+    public long getCalls(ServiceMethod method) {
+        return timers[method.ordinal()].calls();
+    }
+
+    public long getErrors(ServiceMethod method) {
+        return timers[method.ordinal()].errors();
+    }
+
+    // transitions the order was not in a state for, like delivering a NEW order
+    @Override
+    public long getInvalidTransitions() {
+        return invalidTransitions.sum();
+    }
+
+    // calls refused for bad arguments, unknown orders or changes to pancakes of an order that is not NEW
+    @Override
+    public long getRejectedValidations() {
+        return rejectedValidations.sum();
+    }
+
+    @Override
+    public int getActiveOrders() {
+        return service.countOrdersWithStatus(OrderStatus.NEW)
+                + service.countOrdersWithStatus(OrderStatus.COMPLETED)
+                + service.countOrdersWithStatus(OrderStatus.PREPARING);
+    }
+
+    // finished orders the service still keeps
+    @Override
+    public int getFinishedOrders() {
+        return service.countOrdersWithStatus(OrderStatus.DELIVERED)
+                + service.countOrdersWithStatus(OrderStatus.CANCELLED);
+    }
+
+    // pancakes of orders that are neither delivered nor cancelled
+    @Override
+    public long getPancakesInFlight() {
+        return pancakesInFlight.sum();
+    }
+
+    /*
+     * every metric on its own line as name{labels} value, readable as it is and by anything that scrapes such text
+     */
+    @Override
+    public String snapshot() {
+        StringBuilder snapshot = new StringBuilder();
+        for (ServiceMethod method : METHODS) {
+            MethodTimer timer = timers[method.ordinal()];
+            String labels = "{method=\"" + method.getMethodName() + "\"} ";
+            snapshot.append("pancakelab_calls_total").append(labels).append(timer.calls()).append('\n');
+            snapshot.append("pancakelab_call_errors_total").append(labels).append(timer.errors()).append('\n');
+            snapshot.append("pancakelab_call_latency_mean_nanos").append(labels).append(timer.meanNanos()).append('\n');
+            snapshot.append("pancakelab_call_latency_max_nanos").append(labels).append(timer.maxNanos()).append('\n');
+        }
+        snapshot.append("pancakelab_invalid_transitions_total ").append(getInvalidTransitions()).append('\n');
+        snapshot.append("pancakelab_rejected_validations_total ").append(getRejectedValidations()).append('\n');
+        snapshot.append("pancakelab_active_orders ").append(getActiveOrders()).append('\n');
+        snapshot.append("pancakelab_finished_orders ").append(getFinishedOrders()).append('\n');
+        snapshot.append("pancakelab_pancakes_in_flight ").append(getPancakesInFlight()).append('\n');
+        return snapshot.toString();
+    }
+
+    // ================== JMX ================== //
+
+    /*
+     * registers these metrics with the platform MBean server as org.pancakelab:type=PancakeServiceMetrics,name=name
+     * @return name they were registered under
+     * @throws IllegalArgumentException if name is not valid in an object name
+     * @throws IllegalStateException if metrics are registered under this name already
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            Hashtable<String, String> properties = new Hashtable<>();
+            properties.put("type", "PancakeServiceMetrics");
+            properties.put("name", name);
+            ObjectName objectName = new ObjectName("org.pancakelab", properties);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid MBean name " + name, e);
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("Metrics " + name + " are registered already", e);
+        } catch (MBeanRegistrationException | NotCompliantMBeanException e) {
+            throw new IllegalStateException("Metrics " + name + " could not be registered", e);
+        }
+    }
+
+    // does nothing if nothing is registered under objectName
+    public void unregisterMBean(ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (InstanceNotFoundException e) {
+            // already gone
+        } catch (MBeanRegistrationException e) {
+            throw new IllegalStateException("Metrics " + objectName + " could not be unregistered", e);
+        }
+    }
+
+    private Map<String, Long> byMethod(ToLongFunction<MethodTimer> value) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (ServiceMethod method : METHODS) {
+            values.put(method.getMethodName(), value.applyAsLong(timers[method.ordinal()]));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,17 @@
+package org.pancakelab.metrics;
+
+import java.util.Map;
+
+//what PancakeServiceMetrics shows over JMX, maps are keyed by method name
+public interface PancakeServiceMetricsMXBean {
+    Map<String, Long> getCalls();
+    Map<String, Long> getErrors();
+    Map<String, Long> getMeanLatencyNanos();
+    Map<String, Long> getMaxLatencyNanos();
+    long getInvalidTransitions();
+    long getRejectedValidations();
+    int getActiveOrders();
+    int getFinishedOrders();
+    long getPancakesInFlight();
+    String snapshot();
+}
@@ -0,0 +1,37 @@
+package org.pancakelab.metrics;
+
+//PancakeService methods that are timed, overloads share one entry
+public enum ServiceMethod {
+    CREATE_ORDER("createOrder"),
+    ADD_PANCAKES("addPancakes"),
+    REMOVE_PANCAKE("removePancake"),
+    REMOVE_PANCAKES("removePancakes"),
+    COMPLETE_ORDER("completeOrder"),
+    PREPARE_ORDER("prepareOrder"),
+    DELIVER_ORDER("deliverOrder"),
+    CANCEL_ORDER("cancelOrder"),
+    CLEAR_FINISHED_ORDERS("clearAllFinishedOrders"),
+    GET_ORDER_STATUS("getOrderStatus"),
+    GET_PANCAKE_DESCRIPTIONS("getPancakeDescriptions"),
+    VIEW_ORDER("viewOrder"),
+    VIEW_ORDER_SUMMARY("viewOrderSummary"),
+    LIST_ORDERS_WITH_STATUS("listOrdersWithStatus"),
+    COUNT_ORDERS_WITH_STATUS("countOrdersWithStatus"),
+    LIST_ORDERS_IN_BUILDING("listOrdersInBuilding"),
+    LIST_OPEN_ORDERS_FOR_ROOM("listOpenOrdersForRoom"),
+    CREATE_ORDERS("createOrders"),
+    ADD_PANCAKES_BATCH("addPancakesBatch"),
+    COMPLETE_ORDERS("completeOrders"),
+    PREPARE_ORDERS("prepareOrders"),
+    DELIVER_ORDERS("deliverOrders");
+
+    private final String methodName;
+
+    ServiceMethod(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+}
@@ -0,0 +1,24 @@
+package org.pancakelab.model;
+
+import org.pancakelab.model.interfaces.IdGenerator;
+
+public final class IdGenerators {
+    private static final IdGenerator RANDOM = new RandomIdGenerator();
+
+    private IdGenerators() {}
+
+    // UUID.randomUUID(), backed by the shared SecureRandom
+    public static IdGenerator random() {
+        return RANDOM;
+    }
+
+    // UUIDv7 style ids, they grow with time so they cluster well in indexes and journals
+    public static IdGenerator timeOrdered() {
+        return new TimeOrderedIdGenerator();
+    }
+
+    // counted ids under a random prefix, cheapest option when ids only have to be unique
+    public static IdGenerator sequence() {
+        return new SequenceIdGenerator();
+    }
+}
@@ -1,11 +1,24 @@
 package org.pancakelab.model;
 
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.IdGenerator;
 import org.pancakelab.model.interfaces.Order;
 
+import java.util.UUID;
+
 public final class OrderFactory {
     private OrderFactory() {}
 
     public static Order createOrder(int building, int room) {
-        return new OrderImpl(building, room);
+        return createOrder(building, room, IdGenerators.random());
+    }
+
+    public static Order createOrder(int building, int room, IdGenerator idGenerator) {
+        return new OrderImpl(idGenerator.nextId(), building, room);
+    }
+
+    // brings back an order that existed before, used when recovering service state
+    public static Order restoreOrder(UUID id, int building, int room, OrderStatus status) {
+        return new OrderImpl(id, building, room, status);
     }
 }
@@ -3,6 +3,9 @@ package org.pancakelab.model;
 import org.pancakelab.model.enums.OrderStatus;
 import org.pancakelab.model.interfaces.Order;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
 import java.util.UUID;
 
 final class OrderImpl implements Order {
@@ -10,39 +13,65 @@ final class OrderImpl implements Order {
     private final UUID id;
     private final int building;
     private final int room;
-    private volatile OrderStatus status;
+    private volatile OrderStatus status; // only changed by compare and set through STATUS
 
-    OrderImpl(int building, int room) {
-        this.id = UUID.randomUUID();
+    private static final VarHandle STATUS;
+
+    static {
+        try {
+            STATUS = MethodHandles.lookup().findVarHandle(OrderImpl.class, "status", OrderStatus.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    OrderImpl(UUID id, int building, int room) {
+        this(id, building, room, OrderStatus.NEW);
+    }
+
+    OrderImpl(UUID id, int building, int room, OrderStatus status) {
+        this.id = Objects.requireNonNull(id, "Order ID cannot be null");
         this.building = validateBuilding(building);
         this.room = validateRoom(room);
-        this.status = OrderStatus.NEW;
+        this.status = Objects.requireNonNull(status, "Status cannot be null");
+    }
+
+    @Override
+    public void complete() {
+        transition(OrderStatus.COMPLETED);
     }
 
     @Override
-    public synchronized void complete() {
-        validateStatus(OrderStatus.NEW);
-        status = OrderStatus.COMPLETED;
+    public void prepare() {
+        transition(OrderStatus.PREPARING);
     }
 
     @Override
-    public synchronized void prepare() {
-        validateStatus(OrderStatus.COMPLETED);
-        status = OrderStatus.PREPARING;
+    public void deliver() {
+        transition(OrderStatus.DELIVERED);
     }
 
     @Override
-    public synchronized void deliver() {
-        validateStatus(OrderStatus.PREPARING);
-        status = OrderStatus.DELIVERED;
+    public void cancel() {
+        transition(OrderStatus.CANCELLED);
     }
 
     @Override
-    public synchronized void cancel() {
-        if (status != OrderStatus.NEW && status != OrderStatus.COMPLETED) {
-            throw new IllegalStateException("Can only cancel either NEW or COMPLETED orders");
+    public OrderStatus transition(OrderStatus next) {
+        while (true) {
+            OrderStatus current = status;
+            if (!current.canTransitionTo(next)) {
+                throw invalidTransition(current, next);
+            }
+            if (STATUS.compareAndSet(this, current, next)) {
+                return current;
+            }
         }
-        status = OrderStatus.CANCELLED;
+    }
+
+    @Override
+    public boolean tryTransition(OrderStatus from, OrderStatus next) {
+        return from.canTransitionTo(next) && STATUS.compareAndSet(this, from, next);
     }
 
     @Override public UUID getId() { return id; }
@@ -51,11 +80,20 @@ final class OrderImpl implements Order {
     @Override public int getRoom() { return room; }
 
 
-    private void validateStatus(OrderStatus required) {
-        if (status != required) {
-            throw new IllegalStateException(
-                    String.format("Order must be %s (current: %s)", required, status));
+    private static IllegalStateException invalidTransition(OrderStatus current, OrderStatus next) {
+        if (next == OrderStatus.CANCELLED) {
+            return new IllegalStateException("Can only cancel either NEW or COMPLETED orders");
+        }
+        OrderStatus required = null;
+        for (OrderStatus candidate : OrderStatus.values()) {
+            if (candidate.canTransitionTo(next)) {
+                required = candidate;
+            }
+        }
+        if (required == null) {
+            return new IllegalStateException(String.format("Order cannot move from %s to %s", current, next));
         }
+        return new IllegalStateException(String.format("Order must be %s (current: %s)", required, current));
     }
 
     private static int validateBuilding(int value) {
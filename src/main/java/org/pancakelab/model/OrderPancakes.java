@@ -0,0 +1,499 @@
+package org.pancakelab.model;
+
+import org.pancakelab.model.interfaces.IdGenerator;
+import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+//pancakes of a single order kept in the order they were added as a linked list of nodes
+//a node is either one pancake that already has its id or a run of pancakes of one recipe that have none yet
+//a run only gets pancake ids once somebody asks for the pancakes themselves, then it is split into single pancakes
+//nodes of one recipe are also linked into a bucket and pancakes with ids are found by id, so no removal scans the order
+//every pancake has an ordinal, the number of pancakes added to the order before it. with derived ids the id follows
+//from the order id and the ordinal, so the same pancake gets the same id whenever it is asked for, also after a replay
+//guarded by an explicit lock instead of a monitor, a virtual thread waiting for it does not hold on to its carrier thread
+public final class OrderPancakes {
+    private static final IdGenerator DERIVED = () -> {
+        throw new IllegalStateException("Derived ids are not generated");
+    };
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final UUID orderId;
+    private final IdGenerator idGenerator; // DERIVED when ids follow from the ordinals
+    private final Map<Recipe, Bucket> buckets = new LinkedHashMap<>(); // recipes are interned, kept in the order they were first added
+    private final Map<UUID, Node> byId = new HashMap<>();
+    private Node head;
+    private Node tail;
+    private long nextSequence;
+    private long nextOrdinal;
+    private int size;
+    private volatile long version; // changes with every pancake added or removed, written under the lock
+
+    private static final class Node {
+        private final Recipe recipe;
+        private final long sequence; // position in the order, pancakes split from one run share it
+        private final UUID id; // null for a run without ids
+        private long ordinal; // of the pancake, of the first one for a run without ids, -1 if restored with its id
+        private int count;
+        private boolean linked = true;
+        private Node previous;
+        private Node next;
+        private Node previousInBucket;
+        private Node nextInBucket;
+
+        private Node(Recipe recipe, long sequence, UUID id, long ordinal, int count) {
+            this.recipe = recipe;
+            this.sequence = sequence;
+            this.id = id;
+            this.ordinal = ordinal;
+            this.count = count;
+        }
+    }
+
+    private static final class Bucket {
+        private Node first;
+        private Node last;
+        private int count;
+    }
+
+    // receives runs in the order they were added, ids holds ids of the first pancakes of the run
+    // ordinal is the one of the first pancake without id, it means nothing when every pancake of the run has one
+    public interface RunVisitor {
+        void visit(Recipe recipe, int count, List<UUID> ids, long ordinal);
+    }
+
+    public OrderPancakes(UUID orderId) {
+        this(orderId, IdGenerators.random());
+    }
+
+    public OrderPancakes(UUID orderId, IdGenerator idGenerator) {
+        this.orderId = Objects.requireNonNull(orderId, "Order ID cannot be null");
+        this.idGenerator = Objects.requireNonNull(idGenerator, "Id generator cannot be null");
+    }
+
+    // pancake ids follow from the order id and their ordinals, nothing has to be recorded to give them out again
+    public static OrderPancakes withDerivedIds(UUID orderId) {
+        return new OrderPancakes(orderId, DERIVED);
+    }
+
+    /*
+     * id of the pancake with given ordinal in the order, see withDerivedIds
+     * ordinal + 1 goes into the 48 bits above the version, so ids differ within the order and from the order id itself,
+     * ids of other orders differ in the bits left as they are
+     */
+    public static UUID derivedId(UUID orderId, long ordinal) {
+        return new UUID(orderId.getMostSignificantBits() ^ ((ordinal + 1) << 16), orderId.getLeastSignificantBits());
+    }
+
+    // allocates at most one node, pancakes added right after the same recipe only grow the last run
+    public void add(Recipe recipe, int quantity) {
+        lock.lock();
+        try {
+            Objects.requireNonNull(recipe, "Recipe cannot be null");
+            // joining the run keeps ordinals in line only when nothing added after it was removed
+            if (tail != null && tail.id == null && tail.recipe == recipe && tail.ordinal + tail.count == nextOrdinal) {
+                tail.count += quantity;
+                bucket(recipe).count += quantity;
+            } else {
+                linkBefore(new Node(recipe, nextSequence++, null, nextOrdinal, quantity), null);
+            }
+            nextOrdinal += quantity;
+            size += quantity;
+            version++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * removes pancake with given id
+     * @return removed pancake or null if there is no such pancake
+     */
+    public Pancake remove(UUID pancakeId) {
+        lock.lock();
+        try {
+            Node node = byId.remove(pancakeId);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            version++;
+            return new PancakeImpl(orderId, pancakeId, node.recipe);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * removes first pancake having exactly the ingredients in mask, regardless of their order
+     * @return recipe of removed pancake or null if nothing matches
+     */
+    public Recipe removeFirst(int ingredientMask) {
+        lock.lock();
+        try {
+            // recipes of one order are few, only the first pancake of each is compared
+            Bucket first = null;
+            for (Map.Entry<Recipe, Bucket> entry : buckets.entrySet()) {
+                Bucket bucket = entry.getValue();
+                if (entry.getKey().getMask() == ingredientMask
+                        && (first == null || bucket.first.sequence < first.first.sequence)) {
+                    first = bucket;
+                }
+            }
+            if (first == null) {
+                return null;
+            }
+            Recipe recipe = first.first.recipe;
+            take(first.first, 1);
+            version++;
+            return recipe;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * removes first quantity pancakes made from recipe, nothing is removed if there are not enough of them
+     * @return number of such pancakes, quantity is removed only if this is not smaller than quantity
+     */
+    public int remove(Recipe recipe, int quantity) {
+        lock.lock();
+        try {
+            Bucket bucket = buckets.get(recipe);
+            int available = bucket == null ? 0 : bucket.count;
+            if (available < quantity) {
+                return available;
+            }
+            int remaining = quantity;
+            while (remaining > 0) {
+                Node node = bucket.first;
+                int taken = Math.min(node.count, remaining);
+                take(node, taken);
+                remaining -= taken;
+            }
+            version++;
+            return available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * every pancake of the order in the order they were added, ids are created on first request and kept
+     */
+    public List<Pancake> getPancakes() {
+        lock.lock();
+        try {
+            List<Pancake> pancakes = new ArrayList<>(size);
+            for (Node node = head; node != null; node = node.next) {
+                if (node.id == null) {
+                    node = identify(node);
+                }
+                pancakes.add(new PancakeImpl(orderId, node.id, node.recipe));
+            }
+            return pancakes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * description of every pancake in the order they were added
+     * consecutive pancakes of one recipe share a run, so no description is repeated until the list is read
+     */
+    public List<String> getDescriptions() {
+        lock.lock();
+        try {
+            Object[] descriptions = new Object[Math.min(size, buckets.size() * 4)];
+            int[] ends = new int[descriptions.length];
+            int runs = 0;
+            int end = 0;
+            Recipe previous = null;
+            for (Node node = head; node != null; node = node.next) {
+                end += node.count;
+                if (node.recipe == previous) {
+                    ends[runs - 1] = end;
+                    continue;
+                }
+                if (runs == descriptions.length) {
+                    descriptions = Arrays.copyOf(descriptions, runs * 2);
+                    ends = Arrays.copyOf(ends, runs * 2);
+                }
+                descriptions[runs] = node.recipe.getDescription();
+                ends[runs++] = end;
+                previous = node.recipe;
+            }
+            return new RunLengthList<>(descriptions, ends, runs);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * pancakes per description in the order recipes were first added, buckets keep the counts so this costs one step per recipe
+     */
+    public Map<String, Integer> getCountsByDescription() {
+        lock.lock();
+        try {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (Map.Entry<Recipe, Bucket> entry : buckets.entrySet()) {
+                counts.put(entry.getKey().getDescription(), entry.getValue().count);
+            }
+            return counts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * read without the lock, pancakes and their ids are the same for as long as it does not change
+     * giving out ids in getPancakes() does not change it, later calls return the same ids anyway
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return size == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ================== Recovery ================== //
+
+    /*
+     * gives ids to every pancake without one, as getPancakes() does
+     * a replay calls it before removing a pancake by id, the pancake may not have been split from its run yet
+     */
+    public void identifyAll() {
+        lock.lock();
+        try {
+            for (Node node = head; node != null; node = node.next) {
+                if (node.id == null) {
+                    node = identify(node);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ordinal the next pancake added gets, pancakes that were removed keep theirs taken
+    public long getNextOrdinal() {
+        lock.lock();
+        try {
+            return nextOrdinal;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void restoreNextOrdinal(long nextOrdinal) {
+        lock.lock();
+        try {
+            this.nextOrdinal = Math.max(this.nextOrdinal, nextOrdinal);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // consecutive pancakes of one recipe are visited as one run, the ones with ids first
+    public void forEachRun(RunVisitor visitor) {
+        lock.lock();
+        try {
+            Node node = head;
+            while (node != null) {
+                Recipe recipe = node.recipe;
+                List<UUID> ids = new ArrayList<>();
+                int count = 0;
+                long ordinal = -1;
+                while (node != null && node.recipe == recipe && node.id != null) {
+                    ids.add(node.id);
+                    count++;
+                    node = node.next;
+                }
+                if (node != null && node.recipe == recipe && node.id == null) {
+                    count += node.count;
+                    ordinal = node.ordinal;
+                    node = node.next;
+                }
+                visitor.visit(recipe, count, List.copyOf(ids), ordinal);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // appends run exactly as it was visited, runs are not merged
+    public void restoreRun(Recipe recipe, int count, List<UUID> ids, long ordinal) {
+        lock.lock();
+        try {
+            Objects.requireNonNull(recipe, "Recipe cannot be null");
+            if (ids.size() > count) {
+                throw new IllegalArgumentException("Run of " + count + " pancakes cannot have " + ids.size() + " ids");
+            }
+            long sequence = nextSequence++;
+            for (UUID id : ids) {
+                Node node = new Node(recipe, sequence, id, -1, 1);
+                linkBefore(node, null);
+                byId.put(id, node);
+            }
+            if (count > ids.size()) {
+                int withoutIds = count - ids.size();
+                linkBefore(new Node(recipe, sequence, null, ordinal, withoutIds), null);
+                nextOrdinal = Math.max(nextOrdinal, ordinal + withoutIds);
+            }
+            size += count;
+            version++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ================== Internal Methods ================== //
+
+    private Bucket bucket(Recipe recipe) {
+        return buckets.computeIfAbsent(recipe, r -> new Bucket());
+    }
+
+    /*
+     * splits run into single pancakes with new ids
+     * @return first of the new nodes
+     */
+    private Node identify(Node run) {
+        Node first = splitFirst(run, nextId(run));
+        while (run.linked) {
+            splitFirst(run, nextId(run));
+        }
+        return first;
+    }
+
+    private UUID nextId(Node run) {
+        return idGenerator == DERIVED ? derivedId(orderId, run.ordinal) : idGenerator.nextId();
+    }
+
+    /*
+     * moves first pancake of a run into its own node with id, the run is dropped once it is empty
+     * @return the new node
+     */
+    private Node splitFirst(Node run, UUID pancakeId) {
+        Node node = new Node(run.recipe, run.sequence, pancakeId, run.ordinal, 1);
+        linkBefore(node, run);
+        byId.put(pancakeId, node);
+        run.ordinal++;
+        run.count--;
+        Bucket bucket = buckets.get(run.recipe);
+        bucket.count--; // the new node already counted the pancake
+        if (run.count == 0) {
+            unlinkNode(run, bucket);
+        }
+        return node;
+    }
+
+    // takes count pancakes from the front of node, nodes with ids hold a single pancake
+    private void take(Node node, int count) {
+        if (node.id != null) {
+            byId.remove(node.id);
+            unlink(node);
+            return;
+        }
+        node.count -= count;
+        node.ordinal += count;
+        size -= count;
+        Bucket bucket = buckets.get(node.recipe);
+        bucket.count -= count;
+        if (node.count == 0) {
+            unlinkNode(node, bucket);
+        }
+    }
+
+    // links node before successor or at the end when successor is null, the node joins its bucket at the same place
+    private void linkBefore(Node node, Node successor) {
+        Node predecessor = successor == null ? tail : successor.previous;
+        node.previous = predecessor;
+        node.next = successor;
+        if (predecessor == null) {
+            head = node;
+        } else {
+            predecessor.next = node;
+        }
+        if (successor == null) {
+            tail = node;
+        } else {
+            successor.previous = node;
+        }
+
+        Bucket bucket = bucket(node.recipe);
+        Node bucketSuccessor = successor != null && successor.recipe == node.recipe ? successor : null;
+        Node bucketPredecessor = bucketSuccessor == null ? bucket.last : bucketSuccessor.previousInBucket;
+        node.previousInBucket = bucketPredecessor;
+        node.nextInBucket = bucketSuccessor;
+        if (bucketPredecessor == null) {
+            bucket.first = node;
+        } else {
+            bucketPredecessor.nextInBucket = node;
+        }
+        if (bucketSuccessor == null) {
+            bucket.last = node;
+        } else {
+            bucketSuccessor.previousInBucket = node;
+        }
+        bucket.count += node.count;
+    }
+
+    // removes a whole node and its pancakes
+    private void unlink(Node node) {
+        Bucket bucket = buckets.get(node.recipe);
+        bucket.count -= node.count;
+        size -= node.count;
+        unlinkNode(node, bucket);
+    }
+
+    private void unlinkNode(Node node, Bucket bucket) {
+        if (node.previous == null) {
+            head = node.next;
+        } else {
+            node.previous.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.previous;
+        } else {
+            node.next.previous = node.previous;
+        }
+        if (node.previousInBucket == null) {
+            bucket.first = node.nextInBucket;
+        } else {
+            node.previousInBucket.nextInBucket = node.nextInBucket;
+        }
+        if (node.nextInBucket == null) {
+            bucket.last = node.previousInBucket;
+        } else {
+            node.nextInBucket.previousInBucket = node.previousInBucket;
+        }
+        node.linked = false;
+        if (bucket.first == null) {
+            buckets.remove(node.recipe);
+        }
+    }
+}
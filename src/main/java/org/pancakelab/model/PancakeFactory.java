@@ -1,38 +1,110 @@
 package org.pancakelab.model;
 
 import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.model.interfaces.IdGenerator;
 import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
 
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public final class PancakeFactory {
-    // Single shared Builder instance
-    //we could have went with approach to create a single builder on each create Pancake call but i decided for this scenario
-    private static final PancakeImpl.Builder BUILDER = new PancakeImpl.Builder();
+    // interned recipes indexed by their code, there are only a handful of ingredients so the table stays small
+    private static final AtomicReferenceArray<Recipe> RECIPES =
+            new AtomicReferenceArray<>(1 << (RecipeImpl.BITS * Ingredient.count()));
+    private static final ConcurrentMap<String, Recipe> RECIPES_BY_DESCRIPTION = new ConcurrentHashMap<>();
     private PancakeFactory() {}
 
+    //every call gets its own builder, nothing is shared between threads so concurrent callers never wait for each other
     public static Pancake createPancake(UUID orderId, List<Ingredient> ingredients)  {
-        // Reset the Builder state
-        BUILDER.reset();
-        BUILDER.setOrderId(orderId);
+        return createPancake(orderId, ingredients, IdGenerators.random());
+    }
+
+    public static Pancake createPancake(UUID orderId, List<Ingredient> ingredients, IdGenerator idGenerator)  {
+        PancakeImpl.Builder builder = new PancakeImpl.Builder();
+        builder.setOrderId(orderId);
+        builder.setIdGenerator(idGenerator);
+        for (Ingredient ingredient : ingredients) {
+            builder.addIngredient(ingredient);
+        }
+        return builder.build();
+    }
+
+    /**
+     * creates n pancakes with the same ingredients, ingredients are validated only once
+     * @throws IllegalArgumentException if n is not positive
+     * @throws IllegalStateException if there are no ingredients
+     */
+    public static List<Pancake> createPancakes(UUID orderId, List<Ingredient> ingredients, int n) {
+        return createPancakes(orderId, ingredients, n, IdGenerators.random());
+    }
+
+    public static List<Pancake> createPancakes(UUID orderId, List<Ingredient> ingredients, int n, IdGenerator idGenerator) {
+        Objects.requireNonNull(orderId, "Order ID cannot be null");
+        if (n < 1) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Recipe recipe = getRecipe(ingredients);
+        Pancake[] pancakes = new Pancake[n];
+        for (int i = 0; i < n; i++) {
+            pancakes[i] = new PancakeImpl(orderId, idGenerator.nextId(), recipe);
+        }
+        return Collections.unmodifiableList(Arrays.asList(pancakes));
+    }
+
+    /**
+     * returns the shared recipe for given ingredients, duplicates are ignored and the order is kept
+     * @throws IllegalStateException if there are no ingredients
+     */
+    public static Recipe getRecipe(Collection<Ingredient> ingredients) {
+        int code = 0;
+        int mask = 0;
         for (Ingredient ingredient : ingredients) {
-            BUILDER.addIngredient(ingredient);
+            code = RecipeImpl.append(code, mask, ingredient);
+            mask |= ingredient.mask();
         }
-        return BUILDER.build();
+        if (code == 0) {
+            throw new IllegalStateException("Pancake must have at least one ingredient");
+        }
+        return getRecipe(code);
     }
 
+    /*
+     * returns the shared recipe with given code, see Recipe.getCode()
+     */
+    public static Recipe getRecipe(int code) {
+        Recipe recipe = RECIPES.get(code);
+        if (recipe == null) {
+            // the description table picks the shared recipe before the code table sees it,
+            // so findRecipe knows every recipe getRecipe ever returned
+            Recipe created = new RecipeImpl(code);
+            recipe = RECIPES_BY_DESCRIPTION.computeIfAbsent(created.getDescription(), description -> created);
+            RECIPES.compareAndSet(code, null, recipe);
+        }
+        return recipe;
+    }
 
+    /*
+     * finds recipe by its description
+     * @return recipe or null if no pancake was ever made with such description
+     */
+    public static Recipe findRecipe(String description) {
+        return RECIPES_BY_DESCRIPTION.get(description);
+    }
 
     public static boolean isValidPancake(Pancake pancake, List<String> ingredientNames) {
-        Set<Ingredient> pancakeIngredients = pancake.getIngredients();
-        Set<String> pancakeIngredientNames = pancakeIngredients.stream()
-                .map(Ingredient::displayName)
-                .collect(Collectors.toSet());
-        Set<String> inputIngredientNames = new HashSet<>(ingredientNames);
-        return pancakeIngredientNames.equals(inputIngredientNames);
+        return isValidRecipe(pancake.getRecipe(), ingredientNames);
+    }
+
+    // same ingredients regardless of their order, compares masks only
+    public static boolean isValidRecipe(Recipe recipe, List<String> ingredientNames) {
+        return recipe.getMask() == Ingredient.maskOf(ingredientNames);
     }
 }
@@ -1,21 +1,27 @@
 package org.pancakelab.model;
 
 import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.model.interfaces.IdGenerator;
 import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 
+//flyweight: the ingredients and description live in the shared Recipe, a pancake only adds its identity
 final class PancakeImpl implements Pancake {
     private final UUID orderId;
     private final UUID pancakeId;
-    private final Set<Ingredient> ingredients;
+    private final Recipe recipe;
 
 
+    //not thread safe, every builder is meant to be used by a single thread only
     static final class Builder {
         private UUID orderId;
-        //thread safety
-        private final Set<Ingredient> ingredients = Collections.synchronizedSet(new LinkedHashSet<>());
+        private int code; // see Recipe.getCode()
+        private int mask;
+        private IdGenerator idGenerator = IdGenerators.random();
 
         Builder() {
             // Default constructor
@@ -28,42 +34,35 @@ final class PancakeImpl implements Pancake {
             this.orderId = Objects.requireNonNull(orderId, "Order ID cannot be null");
         }
 
+        void setIdGenerator(IdGenerator idGenerator) {
+            this.idGenerator = Objects.requireNonNull(idGenerator, "Id generator cannot be null");
+        }
+
         //to keep following builder pattern we return Builder
         Builder addIngredient(Ingredient ingredient) {
             Objects.requireNonNull(ingredient, "Ingredient cannot be null");
-            ingredients.add(ingredient);
+            code = RecipeImpl.append(code, mask, ingredient);
+            mask |= ingredient.mask();
             return this;
         }
 
-        void reset() {
-            orderId = null; // Reset orderId
-            ingredients.clear();
-        }
-
-
         Pancake build() {
-            if (ingredients.isEmpty()) {
+            if (code == 0) {
                 throw new IllegalStateException("Pancake must have at least one ingredient");
             }
-            return new PancakeImpl(this);
+            return new PancakeImpl(orderId, idGenerator.nextId(), PancakeFactory.getRecipe(code));
         }
     }
 
-    private PancakeImpl(Builder builder) {
-        this.orderId = builder.orderId;
-        this.pancakeId = UUID.randomUUID();
-        this.ingredients = Collections.unmodifiableSet(new LinkedHashSet<>(builder.ingredients));
+    PancakeImpl(UUID orderId, UUID pancakeId, Recipe recipe) {
+        this.orderId = orderId;
+        this.pancakeId = pancakeId;
+        this.recipe = recipe;
     }
 
     @Override public UUID getOrderId() { return orderId; }
     @Override public UUID getPancakeId() { return pancakeId; }
-    @Override public String getDescription() {
-        return ingredients.isEmpty()
-                ? "Plain pancake"
-                : "Delicious pancake with " + ingredients.stream()
-                .map(Ingredient::displayName)
-                .collect(Collectors.joining(", "))
-                + "!";
-    }
-    @Override public Set<Ingredient> getIngredients() { return ingredients; }
-}
\ No newline at end of file
+    @Override public Recipe getRecipe() { return recipe; }
+    @Override public String getDescription() { return recipe.getDescription(); }
+    @Override public Set<Ingredient> getIngredients() { return recipe.getIngredients(); }
+}
@@ -0,0 +1,12 @@
+package org.pancakelab.model;
+
+import org.pancakelab.model.interfaces.IdGenerator;
+
+import java.util.UUID;
+
+final class RandomIdGenerator implements IdGenerator {
+    @Override
+    public UUID nextId() {
+        return UUID.randomUUID();
+    }
+}
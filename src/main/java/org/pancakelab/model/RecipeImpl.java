@@ -0,0 +1,65 @@
+package org.pancakelab.model;
+
+import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.model.interfaces.Recipe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+final class RecipeImpl implements Recipe {
+    // every ingredient takes BITS bits of the code, holding its ordinal + 1 so 0 marks the end
+    static final int BITS = 3;
+    static final int SLOT = (1 << BITS) - 1;
+
+    private final int code;
+    private final int mask;
+    private final Set<Ingredient> ingredients;
+    private final List<String> ingredientNames;
+    private final String description;
+
+    // only created through PancakeFactory so that every combination exists exactly once
+    RecipeImpl(int code) {
+        this.code = code;
+        List<Ingredient> ordered = decode(code);
+        int bits = 0;
+        List<String> names = new ArrayList<>(ordered.size());
+        for (Ingredient ingredient : ordered) {
+            bits |= ingredient.mask();
+            names.add(ingredient.displayName());
+        }
+        this.mask = bits;
+        this.ingredients = Collections.unmodifiableSet(new LinkedHashSet<>(ordered));
+        this.ingredientNames = List.copyOf(names);
+        this.description = "Delicious pancake with " + String.join(", ", names) + "!";
+    }
+
+    // appends ingredient to code unless it is already part of it
+    static int append(int code, int mask, Ingredient ingredient) {
+        if ((mask & ingredient.mask()) != 0) {
+            return code;
+        }
+        return code | ((ingredient.ordinal() + 1) << (BITS * Integer.bitCount(mask)));
+    }
+
+    private static List<Ingredient> decode(int code) {
+        List<Ingredient> ordered = new ArrayList<>();
+        for (int rest = code; rest != 0; rest >>>= BITS) {
+            ordered.add(Ingredient.fromOrdinal((rest & SLOT) - 1));
+        }
+        return ordered;
+    }
+
+    @Override public String getDescription() { return description; }
+    @Override public Set<Ingredient> getIngredients() { return ingredients; }
+    @Override public List<String> getIngredientNames() { return ingredientNames; }
+    @Override public int getMask() { return mask; }
+    @Override public int getCode() { return code; }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
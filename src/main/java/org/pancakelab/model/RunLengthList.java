@@ -0,0 +1,33 @@
+package org.pancakelab.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+//immutable list stored as runs of one repeated element, an element is only looked up when it is read
+final class RunLengthList<E> extends AbstractList<E> implements RandomAccess {
+    private final Object[] elements; // element of each run
+    private final int[] ends; // index right after each run, ascending
+    private final int runs;
+
+    RunLengthList(Object[] elements, int[] ends, int runs) {
+        this.elements = elements;
+        this.ends = ends;
+        this.runs = runs;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        int run = Arrays.binarySearch(ends, 0, runs, index + 1);
+        return (E) elements[run >= 0 ? run : -run - 1];
+    }
+
+    @Override
+    public int size() {
+        return runs == 0 ? 0 : ends[runs - 1];
+    }
+}
@@ -0,0 +1,52 @@
+package org.pancakelab.model;
+
+import org.pancakelab.model.interfaces.IdGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//ids are counted in blocks taken from one shared counter, a few stripes count through a block each
+//so concurrent callers rarely meet on the same counter. nothing is kept per thread, any number of threads can use it
+//layout: 60 bits random prefix of this generator with version 8 in between, variant and 62 bits counter
+final class SequenceIdGenerator implements IdGenerator {
+    private static final int BLOCK_BITS = 12;
+    private static final long IN_BLOCK = (1L << BLOCK_BITS) - 1;
+    private static final int PAD = 8; // longs between two stripes, keeps them on their own cache lines
+
+    private final long prefix;
+    private final AtomicLong blocks = new AtomicLong();
+    private final AtomicLongArray stripes; // next id of the stripe's block, 0 within the block means it is used up
+    private final int stripeMask;
+
+    SequenceIdGenerator() {
+        long random = new SecureRandom().nextLong();
+        this.prefix = (random & 0xFFFFFFFFFFFF0FFFL) | 0x8000L;
+        int count = Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) << 1;
+        this.stripes = new AtomicLongArray(count * PAD);
+        this.stripeMask = count - 1;
+    }
+
+    @Override
+    public UUID nextId() {
+        int at = (ThreadLocalRandom.current().nextInt() & stripeMask) * PAD;
+        while (true) {
+            long next = stripes.get(at);
+            if ((next & IN_BLOCK) == 0) {
+                // the block belongs to this call either way, when another caller refilled the stripe first its rest is dropped
+                long start = blocks.getAndIncrement() << BLOCK_BITS;
+                stripes.compareAndSet(at, next, start + 1);
+                return id(start);
+            }
+            if (stripes.compareAndSet(at, next, next + 1)) {
+                return id(next);
+            }
+        }
+    }
+
+    private UUID id(long count) {
+        return new UUID(prefix, (count & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L);
+    }
+}
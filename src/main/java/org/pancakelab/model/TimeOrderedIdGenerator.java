@@ -0,0 +1,33 @@
+package org.pancakelab.model;
+
+import org.pancakelab.model.interfaces.IdGenerator;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+//layout follows UUIDv7: 48 bits of unix millis, version, 12 bits counter, variant and 62 random bits
+//the counter keeps ids created within the same millisecond ordered, when it overflows we borrow the next millisecond
+final class TimeOrderedIdGenerator implements IdGenerator {
+    private static final int COUNTER_BITS = 12;
+
+    // unix millis shifted left by COUNTER_BITS plus the counter of the last id
+    private final AtomicLong last = new AtomicLong();
+
+    @Override
+    public UUID nextId() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        long stamp;
+        long previous;
+        do {
+            previous = last.get();
+            stamp = Math.max(now, previous + 1);
+        } while (!last.compareAndSet(previous, stamp));
+
+        long millis = stamp >>> COUNTER_BITS;
+        long counter = stamp & ((1L << COUNTER_BITS) - 1);
+        long msb = (millis << 16) | 0x7000L | counter;
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
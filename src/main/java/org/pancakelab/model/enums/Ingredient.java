@@ -1,6 +1,7 @@
 package org.pancakelab.model.enums;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 // Enum for valid ingredients (package-private)
@@ -22,6 +23,12 @@ public enum Ingredient {
         return displayName;
     }
 
+    // bit of this ingredient in ingredient masks
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    private static final Ingredient[] VALUES = values();
     private static final Map<String, Ingredient> BY_NAME = new HashMap<>();
 
     static {
@@ -37,4 +44,37 @@ public enum Ingredient {
         }
         return ingredient;
     }
+
+    public static Ingredient fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    /*
+     * mask of all ingredients with given names, does not allocate
+     * @return mask or 0 if any of the names is not a known ingredient
+     */
+    public static int maskOf(List<String> names) {
+        int mask = 0;
+        for (int i = 0; i < names.size(); i++) {
+            Ingredient ingredient = findByName(names.get(i));
+            if (ingredient == null) {
+                return 0;
+            }
+            mask |= ingredient.mask();
+        }
+        return mask;
+    }
+
+    private static Ingredient findByName(String name) {
+        for (Ingredient ingredient : VALUES) {
+            if (ingredient.displayName.equalsIgnoreCase(name)) {
+                return ingredient;
+            }
+        }
+        return null;
+    }
 }
@@ -1,4 +1,29 @@
 package org.pancakelab.model.enums;
 
-public enum OrderStatus { NEW, COMPLETED, PREPARING, DELIVERED, CANCELLED }
+public enum OrderStatus {
+    NEW, COMPLETED, PREPARING, DELIVERED, CANCELLED;
 
+    //allowed transitions, row is the current status and column the next one
+    private static final boolean[][] TRANSITIONS = new boolean[values().length][values().length];
+
+    static {
+        allow(NEW, COMPLETED);
+        allow(COMPLETED, PREPARING);
+        allow(PREPARING, DELIVERED);
+        allow(NEW, CANCELLED);
+        allow(COMPLETED, CANCELLED);
+    }
+
+    private static void allow(OrderStatus from, OrderStatus to) {
+        TRANSITIONS[from.ordinal()][to.ordinal()] = true;
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return TRANSITIONS[ordinal()][next.ordinal()];
+    }
+
+    // delivered and cancelled orders never change again
+    public boolean isFinal() {
+        return this == DELIVERED || this == CANCELLED;
+    }
+}
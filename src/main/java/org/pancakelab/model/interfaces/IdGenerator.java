@@ -0,0 +1,8 @@
+package org.pancakelab.model.interfaces;
+
+import java.util.UUID;
+
+//source of order and pancake ids, implementations have to be thread safe
+public interface IdGenerator {
+    UUID nextId();
+}
@@ -13,4 +13,17 @@ public interface Order {
     void prepare();
     void deliver();
     void cancel();
+
+    /*
+     * moves order to next status from whatever status it is in now
+     * @return status the order was in right before
+     * @throws IllegalStateException if current status cannot move to next
+     */
+    OrderStatus transition(OrderStatus next);
+
+    /*
+     * moves order from one status to next, fails instead of throwing
+     * @return false if the order is not in status from or from cannot move to next
+     */
+    boolean tryTransition(OrderStatus from, OrderStatus next);
 }
@@ -8,6 +8,7 @@ import java.util.UUID;
 public interface Pancake {
     UUID getOrderId();
     UUID getPancakeId();
+    Recipe getRecipe();
     String getDescription();
     Set<Ingredient> getIngredients();
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package org.pancakelab.model.interfaces;
+
+import org.pancakelab.model.enums.Ingredient;
+
+import java.util.List;
+import java.util.Set;
+
+//immutable and interned, one instance per distinct ingredient combination shared by every pancake made from it
+public interface Recipe {
+    String getDescription();
+    Set<Ingredient> getIngredients();
+    List<String> getIngredientNames(); // display names in the order ingredients were added
+    int getMask(); // one bit per ingredient, see Ingredient.mask()
+    int getCode(); // ingredients in the order they were added, unique per recipe
+}
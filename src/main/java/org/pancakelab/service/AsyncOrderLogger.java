@@ -0,0 +1,507 @@
+package org.pancakelab.service;
+
+import org.pancakelab.model.PancakeFactory;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Order;
+import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
+import org.pancakelab.service.interfaces.Logger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+//callers only copy a few fields into a preallocated slot of a bounded ring buffer
+//a single background thread formats the events and writes them to the sink in batches
+//the ring follows the bounded multi producer queue by Dmitry Vyukov, every slot carries its own sequence
+public final class AsyncOrderLogger implements Logger, AutoCloseable {
+
+    public enum OverflowPolicy {
+        BLOCK,  // caller waits until the consumer frees a slot
+        DROP,   // event is dropped when the ring is full
+        SAMPLE  // once the ring is three quarters full only every n-th event is kept, the rest is dropped
+    }
+
+    private static final int CREATED = 0;
+    private static final int ADDED = 1;
+    private static final int REMOVED = 2;
+    private static final int STATUS = 3;
+    private static final int DELIVERED = 4;
+    private static final int INVALID = 5;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final class Event {
+        private volatile long sequence;
+        private int type;
+        private long orderMsb;
+        private long orderLsb;
+        private long ticks;
+        private int recipeCode;
+        private int quantity;
+        private int building;
+        private int room;
+        private OrderStatus status;
+        private String action;
+
+        private Event(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private final Event[] ring;
+    private final int mask;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final int highWatermark;
+    private final int batchSize;
+    private final Writer sink;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    private final AtomicLong sampled = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    // timestamps are taken as nano ticks and turned into wall clock time by the consumer
+    private final long baseEpochNanos;
+    private final long baseTicks;
+
+    private final Thread consumer;
+    private volatile boolean running = true;
+    private volatile String lastLog;
+
+    private AsyncOrderLogger(Builder builder) {
+        this.ring = new Event[builder.capacity];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Event(i);
+        }
+        this.mask = builder.capacity - 1;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.sampleRate = builder.sampleRate;
+        this.highWatermark = builder.capacity - builder.capacity / 4;
+        this.batchSize = builder.batchSize;
+        this.sink = builder.sink;
+        Instant now = Instant.now();
+        this.baseTicks = System.nanoTime();
+        this.baseEpochNanos = TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+        this.consumer = new Thread(this::drainLoop, "order-logger");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int capacity = 8192;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+        private int sampleRate = 8;
+        private int batchSize = 256;
+        private Writer sink;
+
+        private Builder() {}
+
+        // rounded up to the next power of two
+        public Builder capacity(int capacity) {
+            if (capacity < 2) {
+                throw new IllegalArgumentException("Capacity must be at least 2");
+            }
+            this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+            return this;
+        }
+
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "Overflow policy cannot be null");
+            return this;
+        }
+
+        // used by SAMPLE, keeps one of every sampleRate events while the ring is under pressure
+        public Builder sampleRate(int sampleRate) {
+            if (sampleRate < 1) {
+                throw new IllegalArgumentException("Sample rate must be positive");
+            }
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("Batch size must be positive");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        // formatted lines are written here, without a sink only the last line is kept
+        public Builder sink(Writer sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        public AsyncOrderLogger build() {
+            return new AsyncOrderLogger(this);
+        }
+    }
+
+    // ================== Logger ================== //
+
+    @Override
+    public void logOrderCreated(Order order) {
+        logOrder(CREATED, order, null);
+    }
+
+    @Override
+    public void logPancakesAdded(UUID orderId, Recipe recipe, int quantity) {
+        Event event = claim(ADDED, orderId);
+        if (event != null) {
+            event.recipeCode = recipe.getCode();
+            event.quantity = quantity;
+            publish(event);
+        }
+    }
+
+    @Override
+    public void logPancakeRemoved(UUID orderId, Pancake pancake) {
+        logPancakesRemoved(orderId, pancake.getRecipe(), 1);
+    }
+
+    @Override
+    public void logPancakesRemoved(UUID orderId, Recipe recipe, int quantity) {
+        Event event = claim(REMOVED, orderId);
+        if (event != null) {
+            event.recipeCode = recipe.getCode();
+            event.quantity = quantity;
+            publish(event);
+        }
+    }
+
+    @Override
+    public void logOrderStatusChange(Order order, String action) {
+        logOrder(STATUS, order, action);
+    }
+
+    @Override
+    public void logOrderDelivered(Order order) {
+        logOrder(DELIVERED, order, null);
+    }
+
+    @Override
+    public void logInvalidTransition(Order order, String action) {
+        logOrder(INVALID, order, action);
+    }
+
+    // reserves slots for the whole batch at once like logOrders
+    @Override
+    public void logPancakesAdded(UUID orderId, Recipe[] recipes, int[] quantities) {
+        long ticks = System.nanoTime();
+        int from = 0;
+        while (from < recipes.length) {
+            int count = Math.min(recipes.length - from, ring.length);
+            long position = running && tail.get() - head < highWatermark ? tryReserve(count) : -1;
+            if (position < 0) {
+                for (int i = from; i < recipes.length; i++) {
+                    logPancakesAdded(orderId, recipes[i], quantities[i]);
+                }
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                Event event = ring[(int) (position + i) & mask];
+                fill(event, ADDED, orderId, ticks);
+                event.recipeCode = recipes[from + i].getCode();
+                event.quantity = quantities[from + i];
+                publish(event);
+            }
+            from += count;
+        }
+    }
+
+    @Override
+    public void logOrdersCreated(List<Order> orders) {
+        logOrders(CREATED, orders, null);
+    }
+
+    @Override
+    public void logOrderStatusChanges(List<Order> orders, String action) {
+        logOrders(STATUS, orders, action);
+    }
+
+    @Override
+    public void logOrdersDelivered(List<Order> orders) {
+        logOrders(DELIVERED, orders, null);
+    }
+
+    @Override
+    public String getLastLog() {
+        return lastLog;
+    }
+
+    @Override
+    public void clearLogs() {
+        lastLog = null;
+    }
+
+    // ================== Metrics ================== //
+
+    // dropped by overflow policy, after close or because the sink failed
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public int getQueueDepth() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /*
+     * waits until everything logged so far has been written
+     * @return false if that did not happen within timeout
+     */
+    public boolean flush(long timeout, TimeUnit unit) {
+        long target = tail.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (head < target) {
+            if (System.nanoTime() - deadline > 0 || !consumer.isAlive()) {
+                return false;
+            }
+            LockSupport.unpark(consumer);
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+
+    /*
+     * stops the consumer after it has written everything already logged, later events are dropped
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ================== Producer side ================== //
+
+    /*
+     * claims a slot and fills the common fields
+     * @return claimed slot or null if the event was dropped
+     */
+    private Event claim(int type, UUID orderId) {
+        long ticks = System.nanoTime();
+        long position = reserve();
+        if (position < 0) {
+            dropped.increment();
+            return null;
+        }
+        Event event = ring[(int) position & mask];
+        fill(event, type, orderId, ticks);
+        return event;
+    }
+
+    private void fill(Event event, int type, UUID orderId, long ticks) {
+        event.type = type;
+        event.orderMsb = orderId.getMostSignificantBits();
+        event.orderLsb = orderId.getLeastSignificantBits();
+        event.ticks = ticks;
+    }
+
+    // events about an order as a whole, action is null for events that have none
+    private void logOrder(int type, Order order, String action) {
+        Event event = claim(type, order.getId());
+        if (event != null) {
+            fillOrder(event, type, order, action);
+            publish(event);
+        }
+    }
+
+    private static void fillOrder(Event event, int type, Order order, String action) {
+        if (type == CREATED) {
+            event.building = order.getBuilding();
+            event.room = order.getRoom();
+        } else if (type != DELIVERED) {
+            event.status = order.getStatus();
+            event.action = action;
+        }
+    }
+
+    /*
+     * reserves slots for the whole batch with one compare and set, they share one timestamp
+     * when the ring has no room for them or is under pressure every event goes through the overflow policy on its own
+     */
+    private void logOrders(int type, List<Order> orders, String action) {
+        long ticks = System.nanoTime();
+        int from = 0;
+        while (from < orders.size()) {
+            int count = Math.min(orders.size() - from, ring.length);
+            long position = running && tail.get() - head < highWatermark ? tryReserve(count) : -1;
+            if (position < 0) {
+                for (int i = from; i < orders.size(); i++) {
+                    logOrder(type, orders.get(i), action);
+                }
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                Order order = orders.get(from + i);
+                Event event = ring[(int) (position + i) & mask];
+                fill(event, type, order.getId(), ticks);
+                fillOrder(event, type, order, action);
+                publish(event);
+            }
+            from += count;
+        }
+    }
+
+    // sequence of the slot tells the consumer that it can be read, the slot holds position as sequence until then
+    private void publish(Event event) {
+        event.sequence = event.sequence + 1;
+    }
+
+    /*
+     * reserves next position in the ring according to overflow policy
+     * @return position or -1 if the event has to be dropped
+     */
+    private long reserve() {
+        if (!running) {
+            return -1;
+        }
+        if (overflowPolicy == OverflowPolicy.SAMPLE
+                && tail.get() - head >= highWatermark
+                && sampled.getAndIncrement() % sampleRate != 0) {
+            return -1;
+        }
+        int spins = 0;
+        while (true) {
+            long position = tryReserve(1);
+            if (position >= 0 || overflowPolicy != OverflowPolicy.BLOCK || !running) {
+                return position;
+            }
+            if (++spins < 64) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.unpark(consumer);
+                LockSupport.parkNanos(1_000);
+            }
+        }
+    }
+
+    /*
+     * reserves count consecutive positions, the consumer frees slots in order
+     * so once the last of them is free all of them are
+     * @return first position or -1 if the ring has no room for all of them
+     */
+    private long tryReserve(int count) {
+        long position = tail.get();
+        while (true) {
+            long last = position + count - 1;
+            long sequence = ring[(int) last & mask].sequence;
+            long difference = sequence - last;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + count)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return -1; // full
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    // ================== Consumer side ================== //
+
+    private void drainLoop() {
+        StringBuilder batch = new StringBuilder(batchSize * 96);
+        long position = head;
+        while (running || position < tail.get()) {
+            int count = 0;
+            int lastStart = 0;
+            while (count < batchSize) {
+                Event event = ring[(int) position & mask];
+                if (event.sequence != position + 1) {
+                    break;
+                }
+                lastStart = batch.length();
+                format(event, batch);
+                batch.append(System.lineSeparator());
+                event.status = null;
+                event.action = null;
+                event.sequence = position + ring.length; // slot can be reused one lap later
+                position++;
+                count++;
+            }
+            if (count == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            lastLog = batch.substring(lastStart, batch.length() - System.lineSeparator().length());
+            if (write(batch)) {
+                written.add(count);
+            } else {
+                dropped.add(count);
+            }
+            batch.setLength(0);
+            head = position;
+        }
+    }
+
+    // a failing sink must not stop the consumer, otherwise blocked producers would wait forever
+    private boolean write(StringBuilder batch) {
+        if (sink == null) {
+            return true;
+        }
+        try {
+            sink.append(batch);
+            sink.flush();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // same lines as OrderLogger
+    private void format(Event event, StringBuilder out) {
+        long epochNanos = baseEpochNanos + (event.ticks - baseTicks);
+        Instant timestamp = Instant.ofEpochSecond(
+                Math.floorDiv(epochNanos, 1_000_000_000L), Math.floorMod(epochNanos, 1_000_000_000L));
+        UUID orderId = new UUID(event.orderMsb, event.orderLsb);
+        out.append('[').append(timestamp).append("] ");
+        switch (event.type) {
+            case CREATED -> out.append("[CREATE] Order ").append(orderId)
+                    .append(" for building ").append(event.building)
+                    .append(" room ").append(event.room);
+            case ADDED -> out.append("[ADD] ").append(event.quantity).append(" x ")
+                    .append(PancakeFactory.getRecipe(event.recipeCode).getDescription())
+                    .append(" to order ").append(orderId);
+            case REMOVED -> out.append("[REMOVE] ").append(event.quantity).append(" x ")
+                    .append(PancakeFactory.getRecipe(event.recipeCode).getDescription())
+                    .append(" from order ").append(orderId);
+            case STATUS -> out.append("[STATUS] Order ").append(orderId)
+                    .append(' ').append(event.action).append(" → ").append(event.status);
+            case DELIVERED -> out.append("[DELIVER] Order ").append(orderId);
+            case INVALID -> out.append("[ERROR] Invalid ").append(event.action)
+                    .append(" for order ").append(orderId)
+                    .append(" (current: ").append(event.status).append(')');
+            default -> throw new IllegalStateException("Unknown event type " + event.type);
+        }
+    }
+}
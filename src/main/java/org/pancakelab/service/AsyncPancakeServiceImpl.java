@@ -0,0 +1,149 @@
+package org.pancakelab.service;
+
+import org.pancakelab.dto.BatchResult;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderRequest;
+import org.pancakelab.dto.OrderSummaryDTO;
+import org.pancakelab.dto.PancakeDTO;
+import org.pancakelab.dto.PancakeRequest;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.interfaces.AsyncPancakeService;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+//runs every call of the wrapped service on executor, see ServiceExecutors for executors that suit it
+//the executor is not owned by this class, whoever created it shuts it down
+public final class AsyncPancakeServiceImpl implements AsyncPancakeService {
+    private final PancakeService service;
+    private final Executor executor;
+
+    /**
+     * constructor
+     * @throws NullPointerException if service or executor is null
+     */
+    public AsyncPancakeServiceImpl(PancakeService service, Executor executor) {
+        this.service = Objects.requireNonNull(service, "Service cannot be null");
+        this.executor = Objects.requireNonNull(executor, "Executor cannot be null");
+    }
+
+    @Override
+    public CompletableFuture<OrderDTO> createOrder(int building, int room) {
+        return CompletableFuture.supplyAsync(() -> service.createOrder(building, room), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> addPancakes(UUID orderId, List<String> ingredientNames, int quantity) {
+        return CompletableFuture.runAsync(() -> service.addPancakes(orderId, ingredientNames, quantity), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> removePancake(UUID orderId, List<String> ingredientNames) {
+        return CompletableFuture.runAsync(() -> service.removePancake(orderId, ingredientNames), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> removePancake(UUID orderId, UUID pancakeId) {
+        return CompletableFuture.runAsync(() -> service.removePancake(orderId, pancakeId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> removePancakes(String description, UUID orderId, int quantity) {
+        return CompletableFuture.runAsync(() -> service.removePancakes(description, orderId, quantity), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> completeOrder(UUID orderId) {
+        return CompletableFuture.runAsync(() -> service.completeOrder(orderId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> prepareOrder(UUID orderId) {
+        return CompletableFuture.runAsync(() -> service.prepareOrder(orderId), executor);
+    }
+
+    @Override
+    public CompletableFuture<OrderDTO> deliverOrder(UUID orderId) {
+        return CompletableFuture.supplyAsync(() -> service.deliverOrder(orderId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> cancelOrder(UUID orderId) {
+        return CompletableFuture.runAsync(() -> service.cancelOrder(orderId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> clearAllFinishedOrders() {
+        return CompletableFuture.runAsync(service::clearAllFinishedOrders, executor);
+    }
+
+    @Override
+    public CompletableFuture<OrderDTO> getOrderStatus(UUID orderId) {
+        return CompletableFuture.supplyAsync(() -> service.getOrderStatus(orderId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<PancakeDTO>> getPancakeDescriptions(UUID orderId) {
+        return CompletableFuture.supplyAsync(() -> service.getPancakeDescriptions(orderId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> viewOrder(UUID orderId) {
+        return CompletableFuture.supplyAsync(() -> service.viewOrder(orderId), executor);
+    }
+
+    @Override
+    public CompletableFuture<OrderSummaryDTO> viewOrderSummary(UUID orderId) {
+        return CompletableFuture.supplyAsync(() -> service.viewOrderSummary(orderId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Set<UUID>> listOrdersWithStatus(OrderStatus orderStatus) {
+        return CompletableFuture.supplyAsync(() -> service.listOrdersWithStatus(orderStatus), executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> countOrdersWithStatus(OrderStatus orderStatus) {
+        return CompletableFuture.supplyAsync(() -> service.countOrdersWithStatus(orderStatus), executor);
+    }
+
+    @Override
+    public CompletableFuture<Set<UUID>> listOrdersInBuilding(int building, OrderStatus orderStatus) {
+        return CompletableFuture.supplyAsync(() -> service.listOrdersInBuilding(building, orderStatus), executor);
+    }
+
+    @Override
+    public CompletableFuture<Set<UUID>> listOpenOrdersForRoom(int building, int room) {
+        return CompletableFuture.supplyAsync(() -> service.listOpenOrdersForRoom(building, room), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<BatchResult<OrderDTO>>> createOrders(List<OrderRequest> requests) {
+        return CompletableFuture.supplyAsync(() -> service.createOrders(requests), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<BatchResult<String>>> addPancakes(UUID orderId, List<PancakeRequest> requests) {
+        return CompletableFuture.supplyAsync(() -> service.addPancakes(orderId, requests), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<BatchResult<UUID>>> completeOrders(List<UUID> orderIds) {
+        return CompletableFuture.supplyAsync(() -> service.completeOrders(orderIds), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<BatchResult<UUID>>> prepareOrders(List<UUID> orderIds) {
+        return CompletableFuture.supplyAsync(() -> service.prepareOrders(orderIds), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<BatchResult<OrderDTO>>> deliverOrders(List<UUID> orderIds) {
+        return CompletableFuture.supplyAsync(() -> service.deliverOrders(orderIds), executor);
+    }
+}
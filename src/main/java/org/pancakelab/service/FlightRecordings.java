@@ -0,0 +1,55 @@
+package org.pancakelab.service;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+//flight recordings of a running service, with the bundled pancakelab.jfc applied on top of the JDK's default settings
+//the caller sets where the recording goes, starts and stops it, see pancakelab.jfc for what is recorded
+public final class FlightRecordings {
+    static final String SETTINGS = "/pancakelab.jfc";
+
+    private FlightRecordings() {}
+
+    /*
+     * recording that is not started yet
+     * @throws IllegalStateException if the settings are missing or cannot be parsed
+     * @throws UncheckedIOException if the settings cannot be read
+     */
+    public static Recording newRecording() {
+        Recording recording = new Recording(settings());
+        recording.setName("PancakeLab");
+        return recording;
+    }
+
+    /*
+     * default settings with every setting of pancakelab.jfc replacing the default one
+     * @throws IllegalStateException if the settings are missing or cannot be parsed
+     * @throws UncheckedIOException if the settings cannot be read
+     */
+    public static Map<String, String> settings() {
+        try (InputStream in = FlightRecordings.class.getResourceAsStream(SETTINGS)) {
+            if (in == null) {
+                throw new IllegalStateException(SETTINGS + " not found on the classpath");
+            }
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                settings.putAll(Configuration.create(reader).getSettings());
+            }
+            return settings;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + SETTINGS, e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Cannot parse " + SETTINGS, e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.pancakelab.service;
+
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Order;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//ids of active orders by where they go, building and room are packed into one int that is used as array index
+//orders leave the index once they are delivered or cancelled
+final class LocationIndex {
+    private static final int BUILDINGS = 10;
+    private static final int ROOMS = 999;
+    private static final int ROOMS_PER_BUILDING = ROOMS + 1;
+
+    // per packed location, created on first order for that room
+    private final AtomicReferenceArray<Set<UUID>> byRoom =
+            new AtomicReferenceArray<>((BUILDINGS + 1) * ROOMS_PER_BUILDING);
+    // per building and status, active statuses only
+    private final Set<UUID>[][] byBuildingAndStatus;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    LocationIndex() {
+        byBuildingAndStatus = new Set[BUILDINGS + 1][OrderStatus.values().length];
+        for (int building = 1; building <= BUILDINGS; building++) {
+            for (OrderStatus status : OrderStatus.values()) {
+                if (isActive(status)) {
+                    byBuildingAndStatus[building][status.ordinal()] = ConcurrentHashMap.newKeySet();
+                }
+            }
+        }
+    }
+
+    void add(Order order) {
+        if (!isActive(order.getStatus())) {
+            return;
+        }
+        roomSet(pack(order.getBuilding(), order.getRoom())).add(order.getId());
+        byBuildingAndStatus[order.getBuilding()][order.getStatus().ordinal()].add(order.getId());
+    }
+
+    // called after the order changed status, the same way PancakeServiceImpl.reindex moves it between status sets
+    void moved(Order order, OrderStatus from, OrderStatus to) {
+        if (!isActive(from)) {
+            return;
+        }
+        Set<UUID>[] byStatus = byBuildingAndStatus[order.getBuilding()];
+        if (isActive(to)) {
+            byStatus[to.ordinal()].add(order.getId());
+            if (order.getStatus() != to) {
+                byStatus[to.ordinal()].remove(order.getId());
+            }
+        } else {
+            roomSet(pack(order.getBuilding(), order.getRoom())).remove(order.getId());
+        }
+        byStatus[from.ordinal()].remove(order.getId());
+    }
+
+    /*
+     * active orders in building with given status, empty for delivered or cancelled
+     * @throws IllegalArgumentException if building is invalid
+     */
+    Set<UUID> inBuilding(int building, OrderStatus status) {
+        validateBuilding(building);
+        if (!isActive(status)) {
+            return Set.of();
+        }
+        return Set.copyOf(byBuildingAndStatus[building][status.ordinal()]);
+    }
+
+    /*
+     * active orders for the room
+     * @throws IllegalArgumentException if building or room is invalid
+     */
+    Set<UUID> inRoom(int building, int room) {
+        validateBuilding(building);
+        if (room < 1 || room > ROOMS) {
+            throw new IllegalArgumentException("Room must be between 1 and " + ROOMS);
+        }
+        Set<UUID> orders = byRoom.get(pack(building, room));
+        return orders == null ? Set.of() : Set.copyOf(orders);
+    }
+
+    static boolean isActive(OrderStatus status) {
+        return !status.isFinal();
+    }
+
+    private static int pack(int building, int room) {
+        return building * ROOMS_PER_BUILDING + room;
+    }
+
+    private Set<UUID> roomSet(int location) {
+        Set<UUID> orders = byRoom.get(location);
+        if (orders == null) {
+            byRoom.compareAndSet(location, null, ConcurrentHashMap.newKeySet());
+            orders = byRoom.get(location);
+        }
+        return orders;
+    }
+
+    static void validateBuilding(int building) {
+        if (building < 1 || building > BUILDINGS) {
+            throw new IllegalArgumentException("Building must be between 1 and " + BUILDINGS);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.pancakelab.service;
+
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Recipe;
+import org.pancakelab.service.interfaces.Journal;
+
+import java.time.Instant;
+import java.util.UUID;
+
+//used when the service keeps its state in memory only
+enum NoOpJournal implements Journal {
+    INSTANCE;
+
+    @Override public void orderCreated(UUID orderId, int building, int room) {}
+    @Override public void pancakesAdded(UUID orderId, Recipe recipe, int quantity) {}
+    @Override public void pancakesRemoved(UUID orderId, Recipe recipe, int quantity) {}
+    @Override public void pancakeRemoved(UUID orderId, UUID pancakeId) {}
+    @Override public void statusChanged(UUID orderId, OrderStatus status, Instant finishedAt) {}
+    @Override public void finishedOrdersCleared() {}
+    @Override public void finishedOrderEvicted(UUID orderId) {}
+}
@@ -0,0 +1,182 @@
+package org.pancakelab.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Order;
+import org.pancakelab.model.interfaces.Recipe;
+
+//flight recorder events of the order lifecycle, pancakelab.jfc on the classpath records them, see FlightRecordings
+//an event is begun where its work starts and filled in only if a recording wants it, with no recording they cost nothing
+//events that change an order under its lock last exactly as long as the lock is held, so slow ones show who kept others waiting
+final class OrderEvents {
+    static final String CATEGORY = "PancakeLab";
+
+    private OrderEvents() {}
+
+    @Name("org.pancakelab.OrderCreated")
+    @Label("Order Created")
+    @Description("Order registered with the service, lasts as long as the registration")
+    @Category({CATEGORY, "Orders"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class OrderCreated extends Event {
+        @Label("Order Id")
+        String orderId;
+        @Label("Building")
+        int building;
+        @Label("Room")
+        int room;
+
+        void commit(Order order) {
+            end();
+            if (shouldCommit()) {
+                orderId = order.getId().toString();
+                building = order.getBuilding();
+                room = order.getRoom();
+                commit();
+            }
+        }
+    }
+
+    @Name("org.pancakelab.PancakesAdded")
+    @Label("Pancakes Added")
+    @Description("Pancakes of one recipe added to an order, lasts as long as the order lock is held")
+    @Category({CATEGORY, "Pancakes"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class PancakesAdded extends Event {
+        @Label("Order Id")
+        String orderId;
+        @Label("Recipe")
+        String recipe;
+        @Label("Quantity")
+        int quantity;
+
+        void commit(Order order, Recipe added, int count) {
+            end();
+            if (shouldCommit()) {
+                orderId = order.getId().toString();
+                recipe = added.getDescription();
+                quantity = count;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.pancakelab.PancakesRemoved")
+    @Label("Pancakes Removed")
+    @Description("Pancakes of one recipe removed from an order, lasts as long as the order lock is held")
+    @Category({CATEGORY, "Pancakes"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class PancakesRemoved extends Event {
+        @Label("Order Id")
+        String orderId;
+        @Label("Recipe")
+        String recipe;
+        @Label("Quantity")
+        int quantity;
+
+        // removed is null when no pancakes of an unknown recipe were removed
+        void commit(Order order, Recipe removed, int count) {
+            end();
+            if (shouldCommit()) {
+                orderId = order.getId().toString();
+                recipe = removed == null ? null : removed.getDescription();
+                quantity = count;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.pancakelab.OrderTransition")
+    @Label("Order Transition")
+    @Description("Order moved to another status, lasts as long as the order lock is held or, without the lock, as the transition")
+    @Category({CATEGORY, "Orders"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class OrderTransition extends Event {
+        @Label("Order Id")
+        String orderId;
+        @Label("From")
+        String from;
+        @Label("To")
+        String to;
+        @Label("Order Locked")
+        @Description("Whether the order lock was held for the whole event")
+        boolean orderLocked;
+
+        void commit(Order order, OrderStatus previous, OrderStatus next, boolean locked) {
+            end();
+            if (shouldCommit()) {
+                orderId = order.getId().toString();
+                from = previous.name();
+                to = next.name();
+                orderLocked = locked;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.pancakelab.OrderDelivered")
+    @Label("Order Delivered")
+    @Description("Order delivered and its pancakes dropped, lasts as long as the delivery")
+    @Category({CATEGORY, "Orders"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class OrderDelivered extends Event {
+        @Label("Order Id")
+        String orderId;
+        @Label("Building")
+        int building;
+        @Label("Room")
+        int room;
+        @Label("Pancakes")
+        int pancakes;
+
+        void commit(Order order, int count) {
+            end();
+            if (shouldCommit()) {
+                orderId = order.getId().toString();
+                building = order.getBuilding();
+                room = order.getRoom();
+                pancakes = count;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.pancakelab.OrderCancelled")
+    @Label("Order Cancelled")
+    @Description("Order cancelled and its pancakes dropped, lasts as long as the order lock is held")
+    @Category({CATEGORY, "Orders"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class OrderCancelled extends Event {
+        @Label("Order Id")
+        String orderId;
+        @Label("Building")
+        int building;
+        @Label("Room")
+        int room;
+        @Label("Pancakes")
+        int pancakes;
+
+        void commit(Order order, int count) {
+            end();
+            if (shouldCommit()) {
+                orderId = order.getId().toString();
+                building = order.getBuilding();
+                room = order.getRoom();
+                pancakes = count;
+                commit();
+            }
+        }
+    }
+}
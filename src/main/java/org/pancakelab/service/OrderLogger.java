@@ -4,9 +4,12 @@ package org.pancakelab.service;
 
 import org.pancakelab.model.interfaces.Order;
 import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
 import org.pancakelab.service.interfaces.Logger;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -34,9 +37,9 @@ public final class OrderLogger implements Logger {
     }
 
     @Override
-    public void logPancakeAdded(UUID orderId, Pancake pancake) {
-        log("[ADD] %s to order %s".formatted(
-                pancake.getDescription(), orderId));
+    public void logPancakesAdded(UUID orderId, Recipe recipe, int quantity) {
+        log("[ADD] %d x %s to order %s".formatted(
+                quantity, recipe.getDescription(), orderId));
     }
 
     @Override
@@ -45,6 +48,12 @@ public final class OrderLogger implements Logger {
                 pancake.getDescription(), orderId));
     }
 
+    @Override
+    public void logPancakesRemoved(UUID orderId, Recipe recipe, int quantity) {
+        log("[REMOVE] %d x %s from order %s".formatted(
+                quantity, recipe.getDescription(), orderId));
+    }
+
     @Override
     public void logOrderStatusChange(Order order, String action) {
         log("[STATUS] Order %s %s → %s".formatted(
@@ -62,8 +71,57 @@ public final class OrderLogger implements Logger {
                 action, order.getId(), order.getStatus()));
     }
 
+    // batches share one timestamp and reach the queue together
+
+    @Override
+    public void logPancakesAdded(UUID orderId, Recipe[] recipes, int[] quantities) {
+        Instant now = Instant.now();
+        List<String> lines = new ArrayList<>(recipes.length);
+        for (int i = 0; i < recipes.length; i++) {
+            lines.add(line(now, "[ADD] %d x %s to order %s".formatted(
+                    quantities[i], recipes[i].getDescription(), orderId)));
+        }
+        logQueue.addAll(lines);
+    }
+
+    @Override
+    public void logOrdersCreated(List<Order> orders) {
+        Instant now = Instant.now();
+        List<String> lines = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            lines.add(line(now, "[CREATE] Order %s for building %d room %d".formatted(
+                    order.getId(), order.getBuilding(), order.getRoom())));
+        }
+        logQueue.addAll(lines);
+    }
+
+    @Override
+    public void logOrderStatusChanges(List<Order> orders, String action) {
+        Instant now = Instant.now();
+        List<String> lines = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            lines.add(line(now, "[STATUS] Order %s %s → %s".formatted(
+                    order.getId(), action, order.getStatus())));
+        }
+        logQueue.addAll(lines);
+    }
+
+    @Override
+    public void logOrdersDelivered(List<Order> orders) {
+        Instant now = Instant.now();
+        List<String> lines = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            lines.add(line(now, "[DELIVER] Order %s".formatted(order.getId())));
+        }
+        logQueue.addAll(lines);
+    }
+
     private void log(String message) {
-        logQueue.add("[%s] %s".formatted(Instant.now(), message));
+        logQueue.add(line(Instant.now(), message));
+    }
+
+    private static String line(Instant timestamp, String message) {
+        return "[%s] %s".formatted(timestamp, message);
     }
 
     @Override
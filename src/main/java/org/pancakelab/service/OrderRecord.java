@@ -0,0 +1,100 @@
+package org.pancakelab.service;
+
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.PancakeDTO;
+import org.pancakelab.model.OrderPancakes;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Order;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+//everything the service keeps about one order under a single map entry, finishing an order only changes the record
+//its lock guards changing the pancakes and leaving status NEW, so pancakes only change while the order is NEW
+//an explicit lock instead of a monitor, a virtual thread waiting for it does not hold on to its carrier thread
+//dtos last built for the order are kept with the pancakes version they were built from and reused until it changes
+final class OrderRecord {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Order order;
+    private volatile OrderPancakes pancakes; // null once the order is finished
+    private volatile Instant finishedAt;
+    private volatile CachedView view;
+
+    static final long FINISHED_VERSION = -1; // stands for the pancakes version of a finished order, nothing changes it
+
+    // immutable, so every reader can share it, order is null when only the pancakes were asked for
+    private record CachedView(long version, List<PancakeDTO> pancakes, OrderStatus status, OrderDTO order) {
+    }
+
+    OrderRecord(Order order, OrderPancakes pancakes) {
+        this.order = order;
+        this.pancakes = pancakes;
+    }
+
+    Order order() {
+        return order;
+    }
+
+    // always taken after the change gate
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    /*
+     * pancakes of an active order, read this before the status to get a view that matches it:
+     * pancakes are only dropped after the order finished
+     * @return pancakes or null if the order is finished
+     */
+    OrderPancakes pancakes() {
+        return pancakes;
+    }
+
+    // ================== Cached DTOs ================== //
+
+    static long versionOf(OrderPancakes pancakes) {
+        return pancakes == null ? FINISHED_VERSION : pancakes.getVersion();
+    }
+
+    // null unless pancakes were built at this version
+    List<PancakeDTO> cachedPancakes(long version) {
+        CachedView cached = view;
+        return cached != null && cached.version() == version ? cached.pancakes() : null;
+    }
+
+    // null unless the order was built at this version and status
+    OrderDTO cachedOrder(long version, OrderStatus status) {
+        CachedView cached = view;
+        return cached != null && cached.version() == version && cached.status() == status ? cached.order() : null;
+    }
+
+    // version is read before the pancakes, racing writers may replace each other since a stale view never matches
+    void cachePancakes(long version, List<PancakeDTO> pancakes) {
+        view = new CachedView(version, pancakes, null, null);
+    }
+
+    // a finished order shows no pancakes, which says nothing about the pancakes it had at this version
+    void cacheOrder(long version, OrderStatus status, OrderDTO order) {
+        view = new CachedView(version, status.isFinal() ? null : order.pancakes(), status, order);
+    }
+
+    // null while the order is active
+    Instant finishedAt() {
+        return finishedAt;
+    }
+
+    /*
+     * called once the order moved to a final status
+     * @return pancakes the order had
+     */
+    OrderPancakes finish(Instant finishedAt) {
+        OrderPancakes finished = pancakes;
+        this.finishedAt = finishedAt;
+        pancakes = null;
+        return finished;
+    }
+}
@@ -0,0 +1,499 @@
+package org.pancakelab.service;
+
+import org.pancakelab.dto.BatchResult;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderRequest;
+import org.pancakelab.dto.OrderSummaryDTO;
+import org.pancakelab.dto.PancakeDTO;
+import org.pancakelab.dto.PancakeRequest;
+import org.pancakelab.model.OrderFactory;
+import org.pancakelab.model.OrderPancakes;
+import org.pancakelab.model.PancakeFactory;
+import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.IdGenerator;
+import org.pancakelab.model.interfaces.Order;
+import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
+import org.pancakelab.service.interfaces.Logger;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+//part of the orders of ShardedPancakeService, owned by a single thread that applies commands one after another
+//every field below the queue is only touched by that thread, so nothing here is locked
+//commands come from any thread through a lock free queue, callers park until their command is done
+final class OrderShard {
+    private final Logger logger;
+    private final IdGenerator idGenerator;
+    private final int maxFinishedOrders;
+    private final Consumer<UUID> evictedListener;
+    private final Queue<Command<?>> commands = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean sleeping; // set by the loop before it parks, producers only unpark a sleeping loop
+
+    private final Map<UUID, OrderRecord> orders = new HashMap<>();
+    private final Map<OrderStatus, Set<UUID>> ordersByStatus = new EnumMap<>(OrderStatus.class);
+    private final LocationIndex locations = new LocationIndex();
+    private final Deque<UUID> finishedOrders = new ArrayDeque<>(); // oldest first, only kept when finished orders are limited
+
+    // a command and its outcome, result and error are written before done and read after it
+    static final class Command<T> {
+        private final Function<OrderShard, T> action;
+        private final Thread caller = Thread.currentThread();
+        private volatile boolean done;
+        private T result;
+        private Throwable error;
+
+        private Command(Function<OrderShard, T> action) {
+            this.action = action;
+        }
+
+        private void run(OrderShard shard) {
+            try {
+                result = action.apply(shard);
+            } catch (RuntimeException | Error e) {
+                error = e;
+            }
+            complete();
+        }
+
+        private void fail(RuntimeException e) {
+            error = e;
+            complete();
+        }
+
+        private void complete() {
+            done = true;
+            LockSupport.unpark(caller);
+        }
+
+        /*
+         * waits for the shard, an interrupt does not stop the wait since the command is applied anyway
+         * @return result of the command
+         * @throws RuntimeException whatever the command threw
+         */
+        T await() {
+            boolean interrupted = false;
+            while (!done) {
+                LockSupport.park(this);
+                interrupted |= Thread.interrupted();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (error instanceof RuntimeException e) {
+                throw e;
+            }
+            if (error instanceof Error e) {
+                throw e;
+            }
+            return result;
+        }
+    }
+
+    // maxFinishedOrders is Integer.MAX_VALUE when finished orders are kept until cleared
+    OrderShard(int index, Logger logger, IdGenerator idGenerator, int maxFinishedOrders, Consumer<UUID> evictedListener) {
+        this.logger = logger;
+        this.idGenerator = idGenerator;
+        this.maxFinishedOrders = maxFinishedOrders;
+        this.evictedListener = evictedListener;
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status, new HashSet<>());
+        }
+        this.thread = new Thread(this::loop, "order-shard-" + index);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // ================== Commands ================== //
+
+    /*
+     * queues action without waiting for it, await the command for its result
+     * @throws IllegalStateException through the command if the shard is closed
+     */
+    <T> Command<T> submit(Function<OrderShard, T> action) {
+        Command<T> command = new Command<>(action);
+        commands.add(command);
+        if (!running) {
+            // the loop drains the queue once it stops, whoever takes the command out fails it
+            if (commands.remove(command)) {
+                command.fail(new IllegalStateException("Service is closed"));
+            }
+            return command;
+        }
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+        return command;
+    }
+
+    <T> T call(Function<OrderShard, T> action) {
+        return submit(action).await();
+    }
+
+    // commands queued before are still applied
+    void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop() {
+        while (running) {
+            Command<?> command = commands.poll();
+            if (command != null) {
+                command.run(this);
+                continue;
+            }
+            sleeping = true;
+            // a producer that added a command before seeing sleeping is found by this check
+            if (commands.isEmpty() && running) {
+                LockSupport.park(this);
+            }
+            sleeping = false;
+        }
+        Command<?> command;
+        while ((command = commands.poll()) != null) {
+            command.run(this);
+        }
+    }
+
+    // ================== Orders ================== //
+    // everything below runs on the shard thread
+
+    /*
+     * @throws IllegalArgumentException if building/room numbers are invalid
+     */
+    OrderDTO createOrder(int building, int room, UUID orderId) {
+        Order order = newOrder(building, room, orderId);
+        registerOrder(order);
+        logger.logOrderCreated(order);
+        return PancakeServiceImpl.newOrderDTO(order);
+    }
+
+    List<BatchResult<OrderDTO>> createOrders(List<OrderRequest> requests, List<UUID> orderIds) {
+        List<BatchResult<OrderDTO>> results = new ArrayList<>(requests.size());
+        List<Order> created = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                Order order = newOrder(requests.get(i).building(), requests.get(i).room(), orderIds.get(i));
+                registerOrder(order);
+                created.add(order);
+                results.add(BatchResult.success(PancakeServiceImpl.newOrderDTO(order)));
+            } catch (IllegalArgumentException e) {
+                results.add(BatchResult.failure(e));
+            }
+        }
+        logger.logOrdersCreated(created);
+        return results;
+    }
+
+    void addPancakes(UUID orderId, Recipe recipe, int quantity) {
+        OrderRecord record = activeOrder(orderId, OrderStatus.NEW);
+        record.pancakes().add(recipe, quantity);
+        logger.logPancakesAdded(orderId, recipe, quantity);
+    }
+
+    // same rules as PancakeServiceImpl.addPancakes(UUID, List)
+    List<BatchResult<String>> addPancakes(UUID orderId, List<PancakeRequest> requests) {
+        List<BatchResult<String>> results = new ArrayList<>(requests.size());
+        Recipe[] recipes = new Recipe[requests.size()];
+        for (int i = 0; i < recipes.length; i++) {
+            PancakeRequest request = requests.get(i);
+            try {
+                if (request.quantity() < 1) {
+                    throw new IllegalArgumentException("Quantity must be positive");
+                }
+                recipes[i] = PancakeFactory.getRecipe(PancakeServiceImpl.ingredientsOf(request.ingredients()));
+                results.add(BatchResult.success(recipes[i].getDescription()));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results.add(BatchResult.failure(e));
+            }
+        }
+        OrderRecord record;
+        try {
+            record = activeOrder(orderId, OrderStatus.NEW);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            for (int i = 0; i < recipes.length; i++) {
+                if (recipes[i] != null) {
+                    results.set(i, BatchResult.failure(e));
+                }
+            }
+            return results;
+        }
+        for (int i = 0; i < recipes.length; i++) {
+            if (recipes[i] != null) {
+                record.pancakes().add(recipes[i], requests.get(i).quantity());
+            }
+        }
+        PancakeServiceImpl.logPancakesAdded(logger, orderId, recipes, requests);
+        return results;
+    }
+
+    void removePancake(UUID orderId, List<String> ingredientNames) {
+        OrderRecord record = activeOrder(orderId, OrderStatus.NEW);
+        Recipe removed = record.pancakes().removeFirst(Ingredient.maskOf(ingredientNames));
+        if (removed == null) {
+            throw new IllegalArgumentException(
+                    "Pancake with ingredients " + ingredientNames + " not found in order " + orderId);
+        }
+        logger.logPancakesRemoved(orderId, removed, 1);
+    }
+
+    void removePancake(UUID orderId, UUID pancakeId) {
+        OrderRecord record = activeOrder(orderId, OrderStatus.NEW);
+        Pancake removed = record.pancakes().remove(pancakeId);
+        if (removed == null) {
+            throw new IllegalArgumentException(
+                    "Pancake with ID " + pancakeId + " not found in order " + orderId);
+        }
+        logger.logPancakeRemoved(orderId, removed);
+    }
+
+    void removePancakes(String description, UUID orderId, int quantity) {
+        OrderRecord record = activeOrder(orderId, OrderStatus.NEW);
+        Recipe recipe = PancakeFactory.findRecipe(description);
+        int available = recipe == null ? 0 : record.pancakes().remove(recipe, quantity);
+        if (available < quantity) {
+            throw new IllegalArgumentException(
+                    String.format("Cannot remove %d pancakes of type %s; only %d available",
+                            quantity, description, available));
+        }
+        logger.logPancakesRemoved(orderId, recipe, quantity);
+    }
+
+    // ================== Status ================== //
+
+    void completeOrder(UUID orderId) {
+        OrderRecord record = existingOrder(orderId);
+        completeOrderInternal(record);
+        logger.logOrderStatusChange(record.order(), "Completed");
+    }
+
+    void prepareOrder(UUID orderId) {
+        OrderRecord record = existingOrder(orderId);
+        transitionOrder(record, OrderStatus.PREPARING, "Preparing");
+        logger.logOrderStatusChange(record.order(), "Preparing");
+    }
+
+    OrderDTO deliverOrder(UUID orderId) {
+        OrderRecord record = existingOrder(orderId);
+        OrderDTO delivered = deliverOrderInternal(record);
+        logger.logOrderDelivered(record.order());
+        return delivered;
+    }
+
+    void cancelOrder(UUID orderId) {
+        OrderRecord record = existingOrder(orderId);
+        transitionOrder(record, OrderStatus.CANCELLED, "Cancelled");
+        record.finish(null); // shards evict by count only, so finished orders need no finish time
+        finished(record.order().getId());
+        logger.logOrderStatusChange(record.order(), "Cancelled");
+    }
+
+    List<BatchResult<UUID>> completeOrders(List<UUID> orderIds) {
+        List<Order> changed = new ArrayList<>(orderIds.size());
+        List<BatchResult<UUID>> results = transitionOrders(orderIds, changed, record -> {
+            completeOrderInternal(record);
+            return record.order().getId();
+        });
+        logger.logOrderStatusChanges(changed, "Completed");
+        return results;
+    }
+
+    List<BatchResult<UUID>> prepareOrders(List<UUID> orderIds) {
+        List<Order> changed = new ArrayList<>(orderIds.size());
+        List<BatchResult<UUID>> results = transitionOrders(orderIds, changed, record -> {
+            transitionOrder(record, OrderStatus.PREPARING, "Preparing");
+            return record.order().getId();
+        });
+        logger.logOrderStatusChanges(changed, "Preparing");
+        return results;
+    }
+
+    List<BatchResult<OrderDTO>> deliverOrders(List<UUID> orderIds) {
+        List<Order> changed = new ArrayList<>(orderIds.size());
+        List<BatchResult<OrderDTO>> results = transitionOrders(orderIds, changed, this::deliverOrderInternal);
+        logger.logOrdersDelivered(changed);
+        return results;
+    }
+
+    // @return ids of the cleared orders
+    Set<UUID> clearFinishedOrders() {
+        Set<UUID> cleared = new HashSet<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            if (status.isFinal()) {
+                Set<UUID> finished = ordersByStatus.get(status);
+                orders.keySet().removeAll(finished);
+                cleared.addAll(finished);
+                finished.clear();
+            }
+        }
+        finishedOrders.clear();
+        return cleared;
+    }
+
+    // ================== Queries ================== //
+
+    /*
+     * @throws IllegalArgumentException if an order does not exist
+     */
+    OrderDTO getOrderStatus(UUID orderId) {
+        OrderRecord record = existingOrder(orderId);
+        Order order = record.order();
+        long version = OrderRecord.versionOf(record.pancakes());
+        OrderDTO cached = record.cachedOrder(version, order.getStatus());
+        if (cached != null) {
+            return cached;
+        }
+        OrderDTO orderDTO = new OrderDTO(
+                order.getId(),
+                order.getBuilding(),
+                order.getRoom(),
+                order.getStatus().name(),
+                order.getStatus().isFinal() ? List.of() : getPancakeDescriptions(orderId));
+        record.cacheOrder(version, order.getStatus(), orderDTO);
+        return orderDTO;
+    }
+
+    List<PancakeDTO> getPancakeDescriptions(UUID orderId) {
+        OrderRecord record = orders.get(orderId);
+        return record == null ? List.of() : PancakeServiceImpl.cachedPancakeDTOs(record, record.pancakes());
+    }
+
+    List<String> viewOrder(UUID orderId) {
+        OrderRecord record = orders.get(orderId);
+        OrderPancakes pancakes = record == null ? null : record.pancakes();
+        return pancakes == null ? List.of() : pancakes.getDescriptions();
+    }
+
+    OrderSummaryDTO viewOrderSummary(UUID orderId) {
+        return PancakeServiceImpl.summaryOf(orderId, orders.get(orderId));
+    }
+
+    Set<UUID> listOrdersWithStatus(OrderStatus orderStatus) {
+        return Set.copyOf(ordersByStatus.get(orderStatus));
+    }
+
+    int countOrdersWithStatus(OrderStatus orderStatus) {
+        return ordersByStatus.get(orderStatus).size();
+    }
+
+    Set<UUID> listOrdersInBuilding(int building, OrderStatus orderStatus) {
+        return locations.inBuilding(building, orderStatus);
+    }
+
+    Set<UUID> listOpenOrdersForRoom(int building, int room) {
+        return locations.inRoom(building, room);
+    }
+
+    // ================== Internal Methods ================== //
+
+    private Order newOrder(int building, int room, UUID orderId) {
+        return OrderFactory.createOrder(building, room, () -> orderId);
+    }
+
+    private void registerOrder(Order order) {
+        orders.put(order.getId(), new OrderRecord(order, new OrderPancakes(order.getId(), idGenerator)));
+        ordersByStatus.get(OrderStatus.NEW).add(order.getId());
+        locations.add(order);
+    }
+
+    /*
+     * @throws IllegalArgumentException if an order does not exist
+     */
+    private OrderRecord existingOrder(UUID orderId) {
+        OrderRecord record = orders.get(orderId);
+        if (record == null) {
+            throw new IllegalArgumentException("Order " + orderId + " not found");
+        }
+        return record;
+    }
+
+    /*
+     * @throws IllegalArgumentException if an order does not exist
+     * @throws IllegalStateException if an order is in another state
+     */
+    private OrderRecord activeOrder(UUID orderId, OrderStatus expected) {
+        OrderRecord record = existingOrder(orderId);
+        PancakeServiceImpl.validateOrderState(record, expected);
+        return record;
+    }
+
+    private void completeOrderInternal(OrderRecord record) {
+        OrderPancakes pancakes = record.pancakes();
+        if (pancakes == null || pancakes.isEmpty()) {
+            throw new IllegalStateException("Cannot complete order " + record.order().getId() + " with no pancakes");
+        }
+        transitionOrder(record, OrderStatus.COMPLETED, "Completed");
+    }
+
+    private OrderDTO deliverOrderInternal(OrderRecord record) {
+        Order order = record.order();
+        transitionOrder(record, OrderStatus.DELIVERED, "Delivered");
+        OrderDTO delivered = new OrderDTO(
+                order.getId(),
+                order.getBuilding(),
+                order.getRoom(),
+                OrderStatus.DELIVERED.name(),
+                PancakeServiceImpl.cachedPancakeDTOs(record, record.finish(null)));
+        finished(order.getId());
+        return delivered;
+    }
+
+    // drops the oldest finished orders once there are more than the shard keeps
+    private void finished(UUID orderId) {
+        if (maxFinishedOrders == Integer.MAX_VALUE) {
+            return;
+        }
+        finishedOrders.add(orderId);
+        while (finishedOrders.size() > maxFinishedOrders) {
+            UUID evicted = finishedOrders.poll();
+            OrderRecord record = orders.remove(evicted);
+            ordersByStatus.get(record.order().getStatus()).remove(evicted);
+            evictedListener.accept(evicted);
+        }
+    }
+
+    /*
+     * only invalid transitions are logged here, callers log the change
+     * @throws IllegalStateException if an order is in incorrect state
+     */
+    private void transitionOrder(OrderRecord record, OrderStatus next, String actionName) {
+        Order order = record.order();
+        OrderStatus from;
+        try {
+            from = order.transition(next);
+        } catch (IllegalStateException e) {
+            logger.logInvalidTransition(order, actionName);
+            throw e;
+        }
+        ordersByStatus.get(from).remove(order.getId());
+        ordersByStatus.get(next).add(order.getId());
+        locations.moved(order, from, next);
+    }
+
+    private <T> List<BatchResult<T>> transitionOrders(List<UUID> orderIds, List<Order> changed,
+                                                      Function<OrderRecord, T> transition) {
+        List<BatchResult<T>> results = new ArrayList<>(orderIds.size());
+        for (UUID orderId : orderIds) {
+            try {
+                OrderRecord record = existingOrder(orderId);
+                results.add(BatchResult.success(transition.apply(record)));
+                changed.add(record.order());
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results.add(BatchResult.failure(e));
+            }
+        }
+        return results;
+    }
+}
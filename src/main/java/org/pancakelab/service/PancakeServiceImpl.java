@@ -1,30 +1,70 @@
 package org.pancakelab.service;
 
 
+import org.pancakelab.dto.BatchResult;
 import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderRequest;
+import org.pancakelab.dto.OrderStatusEvent;
+import org.pancakelab.dto.OrderSummaryDTO;
 import org.pancakelab.dto.PancakeDTO;
+import org.pancakelab.dto.PancakeRequest;
+import org.pancakelab.journal.FileJournal;
+import org.pancakelab.journal.JournalPosition;
+import org.pancakelab.journal.JournalSnapshot;
 import org.pancakelab.model.enums.Ingredient;
 import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.IdGenerators;
 import org.pancakelab.model.OrderFactory;
+import org.pancakelab.model.OrderPancakes;
 import org.pancakelab.model.PancakeFactory;
+import org.pancakelab.model.interfaces.IdGenerator;
 import org.pancakelab.model.interfaces.Order;
 import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
+import org.pancakelab.service.interfaces.Journal;
 import org.pancakelab.service.interfaces.Logger;
+import org.pancakelab.service.interfaces.OrderArchive;
 import org.pancakelab.service.interfaces.PancakeService;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
-import java.util.function.Consumer;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 
 public final class PancakeServiceImpl implements PancakeService {
-    private final ConcurrentMap<UUID, Order> activeOrders = new ConcurrentHashMap<>(); // here we have active orders
-    private final ConcurrentMap<UUID, List<Pancake>> orderPancakes = new ConcurrentHashMap<>(); // here we have pancakes
-    private final ConcurrentMap<UUID, Order> finishedOrders = new ConcurrentHashMap<>();
-    //finished orders were not requested but added in case if we want to review finished orders(cancelled or delivered)
+    //here we have active and finished orders with their pancakes, one entry per order
+    //finished orders were not requested but kept in case if we want to review finished orders(cancelled or delivered)
+    private final ConcurrentMap<UUID, OrderRecord> orders = new ConcurrentHashMap<>();
+    //ids of active and finished orders per status, moved between sets right after each transition
+    private final Map<OrderStatus, Set<UUID>> ordersByStatus = new EnumMap<>(OrderStatus.class);
+    private final LocationIndex locations = new LocationIndex(); // active orders by building and room
+    //finished orders in the order they finished, eviction takes them from the head
+    private final Queue<OrderRecord> finishedQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    private final RetentionPolicy retention;
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder archiveFailureCount = new LongAdder();
+    private final LongAdder dtoCacheHits = new LongAdder();
+    private final LongAdder dtoCacheMisses = new LongAdder();
     private final Logger logger; // logger
+    private final IdGenerator idGenerator; // ids of orders, and of their pancakes when there is no journal
+    private final FileJournal fileJournal; // null when state is kept in memory only
+    private final Journal journal; // every change goes here, does nothing without file journal
+    //changes share it, a snapshot takes it exclusively so that it sees state matching one journal position
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final StatusFeed statusFeed; // status changes pushed to subscribers
+
+    private static final int EVICTION_BATCH = 4; // most orders one change evicts, more than it can add
 
     // ================== Public API ================== //
 
@@ -33,7 +73,97 @@ public final class PancakeServiceImpl implements PancakeService {
      * @throws NullPointerException if logger is null
      */
     public PancakeServiceImpl(Logger logger) {
-        this.logger = Objects.requireNonNull(logger, "Logger cannot be null");
+        this(logger, IdGenerators.random());
+    }
+
+    /**
+     * constructor with custom id generator
+     * @throws NullPointerException if logger or id generator is null
+     */
+    public PancakeServiceImpl(Logger logger, IdGenerator idGenerator) {
+        this(builder().logger(logger).idGenerator(idGenerator));
+    }
+
+    /*
+     * with a journal the state it holds is recovered first: latest snapshot is loaded and only the journal after it is replayed
+     * @throws NullPointerException if logger or id generator is null
+     */
+    private PancakeServiceImpl(Builder builder) {
+        this.logger = Objects.requireNonNull(builder.logger, "Logger cannot be null");
+        this.idGenerator = Objects.requireNonNull(builder.idGenerator, "Id generator cannot be null");
+        this.retention = Objects.requireNonNull(builder.retention, "Retention policy cannot be null");
+        this.fileJournal = builder.journal;
+        this.journal = fileJournal == null ? NoOpJournal.INSTANCE : fileJournal;
+        this.statusFeed = new StatusFeed(builder.statusExecutor, builder.statusBufferSize);
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+        if (fileJournal != null) {
+            JournalSnapshot snapshot = fileJournal.latestSnapshot();
+            JournalPosition replayFrom = new JournalPosition(0, 0);
+            if (snapshot != null) {
+                ServiceRecovery.restore(snapshot.state(), this);
+                replayFrom = snapshot.position();
+            }
+            fileJournal.replay(replayFrom, new ServiceRecovery(this));
+            fileJournal.scheduleSnapshots(this::takeSnapshot);
+            evictFinished(Integer.MAX_VALUE);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private Logger logger;
+        private IdGenerator idGenerator = IdGenerators.random();
+        private FileJournal journal;
+        private RetentionPolicy retention = RetentionPolicy.unlimited();
+        private Executor statusExecutor = ForkJoinPool.commonPool();
+        private int statusBufferSize = 256;
+
+        private Builder() {}
+
+        public Builder logger(Logger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        public Builder idGenerator(IdGenerator idGenerator) {
+            this.idGenerator = idGenerator;
+            return this;
+        }
+
+        // keeps state across restarts, the service recovers whatever the journal holds when it is built
+        public Builder journal(FileJournal journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        public Builder retention(RetentionPolicy retention) {
+            this.retention = retention;
+            return this;
+        }
+
+        // runs status subscribers, a subscriber never runs on the thread that changed the order
+        public Builder statusExecutor(Executor statusExecutor) {
+            this.statusExecutor = Objects.requireNonNull(statusExecutor, "Status executor cannot be null");
+            return this;
+        }
+
+        // orders with an event waiting per subscriber, the oldest waiting event is dropped once it is full
+        public Builder statusBufferSize(int statusBufferSize) {
+            if (statusBufferSize < 1) {
+                throw new IllegalArgumentException("Status buffer size must be positive");
+            }
+            this.statusBufferSize = statusBufferSize;
+            return this;
+        }
+
+        public PancakeServiceImpl build() {
+            return new PancakeServiceImpl(this);
+        }
     }
 
     /**
@@ -42,19 +172,15 @@ public final class PancakeServiceImpl implements PancakeService {
      */
     @Override
     public OrderDTO createOrder(int building, int room) {
-        Order order = OrderFactory.createOrder(building, room);
-        UUID orderId = order.getId();
-        activeOrders.put(orderId, order);
-        // thread safe list
-        orderPancakes.put(orderId, Collections.synchronizedList(new ArrayList<>()));
+        Order order = OrderFactory.createOrder(building, room, idGenerator);
+        beginChange();
+        try {
+            registerOrder(order);
+        } finally {
+            endChange();
+        }
         logger.logOrderCreated(order);
-        return new OrderDTO(
-                order.getId(),
-                order.getBuilding(),
-                order.getRoom(),
-                order.getStatus().name(),
-                List.of() // No pancakes initially
-        );
+        return newOrderDTO(order);
     }
 
     /**
@@ -64,11 +190,7 @@ public final class PancakeServiceImpl implements PancakeService {
      */
     @Override
     public void addPancakes(UUID orderId, List<String> ingredientNames, int quantity) {
-        List<Ingredient> ingredients = new ArrayList<>();
-        for (String ingredientName : ingredientNames) {
-            ingredients.add(Ingredient.fromName(ingredientName));
-        }
-        addPancakesInternal(orderId, ingredients,quantity);
+        addPancakesInternal(orderId, ingredientsOf(ingredientNames), quantity);
     }
 
     /*
@@ -78,18 +200,30 @@ public final class PancakeServiceImpl implements PancakeService {
      */
     @Override
     public void removePancake(UUID orderId, List<String> ingredientNames) {
-        validateOrderState(orderId, OrderStatus.NEW);
-
-        orderPancakes.computeIfPresent(orderId, (id, pancakes) -> {
-            Pancake toRemove = pancakes.stream()
-                    .filter(p -> PancakeFactory.isValidPancake(p, ingredientNames))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Pancake with ingredients " + ingredientNames + " not found in order " + orderId));
-            pancakes.remove(toRemove);
-            logger.logPancakeRemoved(orderId, toRemove);
-            return pancakes;
-        });
+        OrderRecord record = validateOrderExists(orderId);
+        int ingredientMask = Ingredient.maskOf(ingredientNames);
+        Recipe removed;
+        beginChange();
+        try {
+            record.lock();
+            OrderEvents.PancakesRemoved event = new OrderEvents.PancakesRemoved();
+            event.begin();
+            try {
+                validateOrderState(record, OrderStatus.NEW);
+                removed = record.pancakes().removeFirst(ingredientMask);
+                if (removed == null) {
+                    throw new IllegalArgumentException(
+                            "Pancake with ingredients " + ingredientNames + " not found in order " + orderId);
+                }
+                journal.pancakesRemoved(orderId, removed, 1);
+            } finally {
+                record.unlock();
+            }
+            event.commit(record.order(), removed, 1);
+        } finally {
+            endChange();
+        }
+        logger.logPancakesRemoved(orderId, removed, 1);
     }
 
     /*
@@ -99,18 +233,29 @@ public final class PancakeServiceImpl implements PancakeService {
      */
     @Override
     public void removePancake(UUID orderId, UUID pancakeId) {
-        validateOrderState(orderId, OrderStatus.NEW);
-
-        orderPancakes.computeIfPresent(orderId, (id, pancakes) -> {
-            Pancake toRemove = pancakes.stream()
-                    .filter(p -> p.getPancakeId().equals(pancakeId))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Pancake with ID " + pancakeId + " not found in order " + orderId));
-            pancakes.remove(toRemove);
-            logger.logPancakeRemoved(orderId, toRemove);
-            return pancakes;
-        });
+        OrderRecord record = validateOrderExists(orderId);
+        Pancake removed;
+        beginChange();
+        try {
+            record.lock();
+            OrderEvents.PancakesRemoved event = new OrderEvents.PancakesRemoved();
+            event.begin();
+            try {
+                validateOrderState(record, OrderStatus.NEW);
+                removed = record.pancakes().remove(pancakeId);
+                if (removed == null) {
+                    throw new IllegalArgumentException(
+                            "Pancake with ID " + pancakeId + " not found in order " + orderId);
+                }
+                journal.pancakeRemoved(orderId, pancakeId);
+            } finally {
+                record.unlock();
+            }
+            event.commit(record.order(), removed.getRecipe(), 1);
+        } finally {
+            endChange();
+        }
+        logger.logPancakeRemoved(orderId, removed);
     }
 
     /*
@@ -120,22 +265,30 @@ public final class PancakeServiceImpl implements PancakeService {
      */
     @Override
     public void removePancakes(String description, UUID orderId, int quantity) {
-        validateOrderState(orderId, OrderStatus.NEW);
-
-        orderPancakes.computeIfPresent(orderId, (id, pancakes) -> {
-            List<Pancake> toRemove = pancakes.stream()
-                    .filter(p -> p.getDescription().equals(description))
-                    .limit(quantity)
-                    .toList();
-            if (toRemove.size() < quantity) {
-                throw new IllegalArgumentException(
-                        String.format("Cannot remove %d pancakes of type %s; only %d available",
-                                quantity, description, toRemove.size()));
+        OrderRecord record = validateOrderExists(orderId);
+        Recipe recipe = PancakeFactory.findRecipe(description);
+        beginChange();
+        try {
+            record.lock();
+            OrderEvents.PancakesRemoved event = new OrderEvents.PancakesRemoved();
+            event.begin();
+            try {
+                validateOrderState(record, OrderStatus.NEW);
+                int available = recipe == null ? 0 : record.pancakes().remove(recipe, quantity);
+                if (available < quantity) {
+                    throw new IllegalArgumentException(
+                            String.format("Cannot remove %d pancakes of type %s; only %d available",
+                                    quantity, description, available));
+                }
+                journal.pancakesRemoved(orderId, recipe, quantity);
+            } finally {
+                record.unlock();
             }
-            pancakes.removeAll(toRemove);
-            toRemove.forEach(p -> logger.logPancakeRemoved(orderId, p));
-            return pancakes;
-        });
+            event.commit(record.order(), recipe, quantity);
+        } finally {
+            endChange();
+        }
+        logger.logPancakesRemoved(orderId, recipe, quantity);
     }
 
     /*
@@ -145,12 +298,34 @@ public final class PancakeServiceImpl implements PancakeService {
      */
     @Override
     public void completeOrder(UUID orderId) {
-        validateOrderExists(orderId);
-        List<Pancake> pancakes = orderPancakes.getOrDefault(orderId, Collections.emptyList());
-        if (pancakes.isEmpty()) {
-            throw new IllegalStateException("Cannot complete order " + orderId + " with no pancakes");
+        OrderRecord record = validateOrderExists(orderId);
+        beginChange();
+        try {
+            completeOrderInternal(record);
+        } finally {
+            endChange();
+        }
+        logger.logOrderStatusChange(record.order(), "Completed");
+    }
+
+    // caller holds the change gate
+    private void completeOrderInternal(OrderRecord record) {
+        // locked so that no pancake is removed between the check and the transition
+        record.lock();
+        OrderEvents.OrderTransition event = new OrderEvents.OrderTransition();
+        event.begin();
+        OrderStatus from;
+        try {
+            OrderPancakes pancakes = record.pancakes();
+            if (pancakes == null || pancakes.isEmpty()) {
+                throw new IllegalStateException(
+                        "Cannot complete order " + record.order().getId() + " with no pancakes");
+            }
+            from = transitionOrder(record, OrderStatus.COMPLETED, "Completed");
+        } finally {
+            record.unlock();
         }
-        executeOrderAction(orderId, Order::complete, "Completed");
+        event.commit(record.order(), from, OrderStatus.COMPLETED, true);
     }
 
     /*
@@ -160,42 +335,54 @@ public final class PancakeServiceImpl implements PancakeService {
      */
     @Override
     public void prepareOrder(UUID orderId) {
-        validateOrderExists(orderId);
-        executeOrderAction(orderId, Order::prepare, "Preparing");
+        executeOrderAction(validateOrderExists(orderId), OrderStatus.PREPARING, "Preparing");
     }
 
     /*
-     * move order to status deliver, remove it from activeOrders put it to finished
+     * move order to status deliver, the record stays where it is and only drops its pancakes
      * @throws IllegalArgumentException if an order does not exist
      * @throws IllegalStateException if an order is in incorrect state
      */
     @Override
     public OrderDTO deliverOrder(UUID orderId) {
-        Order order = validateOrderExists(orderId);
-        synchronized (order) {
-            order.deliver();
-            logger.logOrderDelivered(order);
+        OrderRecord record = validateOrderExists(orderId);
+        OrderDTO delivered;
+        beginChange();
+        try {
+            delivered = deliverOrderInternal(record);
+        } finally {
+            endChange();
+        }
+        logger.logOrderDelivered(record.order());
+        evictFinished(EVICTION_BATCH);
+        return delivered;
+    }
 
-            List<Pancake> pancakes = orderPancakes.remove(orderId);
-            activeOrders.remove(orderId);
-            finishedOrders.put(orderId, order);
+    // caller holds the change gate and does the logging, so that batches log all their orders at once
+    private OrderDTO deliverOrderInternal(OrderRecord record) {
+        Order order = record.order();
+        OrderEvents.OrderDelivered delivery = new OrderEvents.OrderDelivered();
+        delivery.begin();
+        OrderEvents.OrderTransition transition = new OrderEvents.OrderTransition();
+        transition.begin();
+        // only one caller can win the transition, so only one of them finishes the record
+        OrderStatus from = order.transition(OrderStatus.DELIVERED);
+        Instant finishedAt = retention.getClock().instant();
+        reindex(order, from, OrderStatus.DELIVERED);
+        journal.statusChanged(order.getId(), OrderStatus.DELIVERED, finishedAt);
+        statusFeed.publish(order, OrderStatus.DELIVERED);
+        transition.commit(order, from, OrderStatus.DELIVERED, false);
 
-            List<PancakeDTO> pancakeDTOList =
-                    pancakes.stream()
-                            .map(p -> new PancakeDTO(
-                                    p.getOrderId(),
-                                    p.getPancakeId(),
-                                    p.getIngredients().stream().map(Ingredient::displayName).toList(),
-                                    p.getDescription()))
-                            .toList();
+        // pancakes of an order that left NEW no longer change
+        List<PancakeDTO> pancakeDTOList = cachedPancakeDTOs(record, finish(record, finishedAt));
+        delivery.commit(order, pancakeDTOList.size());
 
-            return new OrderDTO(
-                    order.getId(),
-                    order.getBuilding(),
-                    order.getRoom(),
-                    order.getStatus().name(),
-                    pancakeDTOList);
-        }
+        return new OrderDTO(
+                order.getId(),
+                order.getBuilding(),
+                order.getRoom(),
+                OrderStatus.DELIVERED.name(),
+                pancakeDTOList);
     }
 
     /*
@@ -205,19 +392,44 @@ public final class PancakeServiceImpl implements PancakeService {
      */
     @Override
     public void cancelOrder(UUID orderId) {
-        Order order = validateOrderExists(orderId);
-        executeOrderAction(orderId, Order::cancel, "Cancelled");
-        activeOrders.remove(orderId);
-        orderPancakes.remove(orderId);
-        finishedOrders.put(orderId, order);
+        OrderRecord record = validateOrderExists(orderId);
+        beginChange();
+        try {
+            // locked because a NEW order may still be getting pancakes
+            record.lock();
+            OrderEvents.OrderCancelled cancellation = new OrderEvents.OrderCancelled();
+            cancellation.begin();
+            OrderEvents.OrderTransition transition = new OrderEvents.OrderTransition();
+            transition.begin();
+            OrderStatus from;
+            OrderPancakes pancakes;
+            try {
+                pancakes = record.pancakes();
+                from = transitionOrder(record, OrderStatus.CANCELLED, "Cancelled");
+            } finally {
+                record.unlock();
+            }
+            transition.commit(record.order(), from, OrderStatus.CANCELLED, true);
+            cancellation.commit(record.order(), pancakes == null ? 0 : pancakes.size());
+        } finally {
+            endChange();
+        }
+        logger.logOrderStatusChange(record.order(), "Cancelled");
+        evictFinished(EVICTION_BATCH);
     }
 
     /*
-     * clear finished orders( finished orders is just map with orders that has beem cancelled or delivered)
+     * clear finished orders( finished orders are the ones that has beem cancelled or delivered)
      */
     @Override
     public void clearAllFinishedOrders() {
-        finishedOrders.clear();
+        beginChange();
+        try {
+            restoreClearedFinished();
+            journal.finishedOrdersCleared();
+        } finally {
+            endChange();
+        }
     }
 
     /*
@@ -226,20 +438,26 @@ public final class PancakeServiceImpl implements PancakeService {
      */
     @Override
     public OrderDTO getOrderStatus(UUID orderId) {
-        Order order = validateOrderExists(orderId);
-        List<PancakeDTO> pancakeDTOs = orderPancakes.getOrDefault(orderId, List.of()).stream()
-                .map(p -> new PancakeDTO(
-                        p.getOrderId(),
-                        p.getPancakeId(),
-                        p.getIngredients().stream().map(Ingredient::displayName).toList(),
-                        p.getDescription()))
-                .toList();
-        return new OrderDTO(
+        OrderRecord record = validateOrderExists(orderId);
+        Order order = record.order();
+        OrderPancakes pancakes = record.pancakes();
+        OrderStatus status = order.getStatus(); // read after pancakes, see OrderRecord.pancakes
+        long version = OrderRecord.versionOf(pancakes);
+        OrderDTO cached = record.cachedOrder(version, status);
+        if (cached != null) {
+            dtoCacheHits.increment();
+            return cached;
+        }
+        dtoCacheMisses.increment();
+        List<PancakeDTO> pancakeDTOs = status.isFinal() ? List.of() : pancakeDTOsOf(record, pancakes);
+        OrderDTO orderDTO = new OrderDTO(
                 order.getId(),
                 order.getBuilding(),
                 order.getRoom(),
-                order.getStatus().name(),
+                status.name(),
                 pancakeDTOs);
+        record.cacheOrder(version, status, orderDTO);
+        return orderDTO;
     }
 
     /*
@@ -247,23 +465,37 @@ public final class PancakeServiceImpl implements PancakeService {
      */
     @Override
     public List<PancakeDTO> getPancakeDescriptions(UUID orderId) {
-        return orderPancakes.getOrDefault(orderId, List.of()).stream()
-                .map(p -> new PancakeDTO(
-                        p.getOrderId(),
-                        p.getPancakeId(),
-                        p.getIngredients().stream().map(Ingredient::displayName).toList(),
-                        p.getDescription()))
-                .toList();
+        OrderRecord record = orders.get(orderId);
+        OrderPancakes pancakes = record == null ? null : record.pancakes();
+        if (pancakes == null) {
+            return List.of();
+        }
+        List<PancakeDTO> cached = record.cachedPancakes(pancakes.getVersion());
+        if (cached != null) {
+            dtoCacheHits.increment();
+            return cached;
+        }
+        dtoCacheMisses.increment();
+        return pancakeDTOsOf(record, pancakes);
     }
 
     /*
-     * view order
+     * view order, descriptions are expanded from runs of one recipe only as the list is read
      */
     @Override
     public List<String> viewOrder(UUID orderId) {
-        return orderPancakes.getOrDefault(orderId, List.of()).stream()
-                .map(Pancake::getDescription)
-                .toList();
+        OrderRecord record = orders.get(orderId);
+        OrderPancakes pancakes = record == null ? null : record.pancakes();
+        return pancakes == null ? List.of() : pancakes.getDescriptions();
+    }
+
+    /*
+     * pancakes of an order counted per description, costs one step per recipe however many pancakes there are
+     * empty for orders that do not exist or are finished, like viewOrder, finished orders keep their location
+     */
+    @Override
+    public OrderSummaryDTO viewOrderSummary(UUID orderId) {
+        return summaryOf(orderId, orders.get(orderId));
     }
 
 
@@ -272,63 +504,417 @@ public final class PancakeServiceImpl implements PancakeService {
      */
     @Override
     public Set<UUID> listOrdersWithStatus(OrderStatus orderStatus) {
-        return Stream.concat(
-                        activeOrders.entrySet().stream()
-                                .filter(e -> e.getValue().getStatus().equals(orderStatus)),
-                        finishedOrders.entrySet().stream()
-                                .filter(e -> e.getValue().getStatus().equals(orderStatus)))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
+        return Set.copyOf(ordersByStatus.get(orderStatus));
+    }
+
+    /*
+     * count orders with given status without copying them
+     */
+    @Override
+    public int countOrdersWithStatus(OrderStatus orderStatus) {
+        return ordersByStatus.get(orderStatus).size();
+    }
+
+    /*
+     * active orders of a building with given status, delivered and cancelled orders are not kept by location
+     * @throws IllegalArgumentException if building is invalid
+     */
+    @Override
+    public Set<UUID> listOrdersInBuilding(int building, OrderStatus orderStatus) {
+        return locations.inBuilding(building, orderStatus);
+    }
+
+    /*
+     * orders for the room that are not delivered or cancelled yet
+     * @throws IllegalArgumentException if building or room is invalid
+     */
+    @Override
+    public Set<UUID> listOpenOrdersForRoom(int building, int room) {
+        return locations.inRoom(building, room);
+    }
+
+    // ================== Batches ================== //
+    // a batch is validated up front, applied under one change and logged at once, items fail on their own
+
+    /*
+     * creates every order of the batch, invalid building or room fails only its own item
+     * @return result per request in the same order
+     */
+    @Override
+    public List<BatchResult<OrderDTO>> createOrders(List<OrderRequest> requests) {
+        List<BatchResult<OrderDTO>> results = new ArrayList<>(requests.size());
+        List<Order> created = new ArrayList<>(requests.size());
+        for (OrderRequest request : requests) {
+            try {
+                Order order = OrderFactory.createOrder(request.building(), request.room(), idGenerator);
+                created.add(order);
+                results.add(BatchResult.success(newOrderDTO(order)));
+            } catch (IllegalArgumentException e) {
+                results.add(BatchResult.failure(e));
+            }
+        }
+        beginChange();
+        try {
+            for (Order order : created) {
+                registerOrder(order);
+            }
+        } finally {
+            endChange();
+        }
+        logger.logOrdersCreated(created);
+        return results;
+    }
+
+    /*
+     * adds pancakes of several recipes to one order, the order is locked once for all of them
+     * @return description of added pancakes per request in the same order
+     */
+    @Override
+    public List<BatchResult<String>> addPancakes(UUID orderId, List<PancakeRequest> requests) {
+        List<BatchResult<String>> results = new ArrayList<>(requests.size());
+        Recipe[] recipes = new Recipe[requests.size()];
+        for (int i = 0; i < recipes.length; i++) {
+            PancakeRequest request = requests.get(i);
+            try {
+                if (request.quantity() < 1) {
+                    throw new IllegalArgumentException("Quantity must be positive");
+                }
+                recipes[i] = PancakeFactory.getRecipe(ingredientsOf(request.ingredients()));
+                results.add(BatchResult.success(recipes[i].getDescription()));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results.add(BatchResult.failure(e));
+            }
+        }
+        try {
+            OrderRecord record = validateOrderExists(orderId);
+            beginChange();
+            try {
+                record.lock();
+                try {
+                    validateOrderState(record, OrderStatus.NEW);
+                    // one event per recipe, committed under the lock because the lock is held for all of them
+                    for (int i = 0; i < recipes.length; i++) {
+                        if (recipes[i] != null) {
+                            OrderEvents.PancakesAdded event = new OrderEvents.PancakesAdded();
+                            event.begin();
+                            record.pancakes().add(recipes[i], requests.get(i).quantity());
+                            journal.pancakesAdded(orderId, recipes[i], requests.get(i).quantity());
+                            event.commit(record.order(), recipes[i], requests.get(i).quantity());
+                        }
+                    }
+                } finally {
+                    record.unlock();
+                }
+            } finally {
+                endChange();
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // nothing was added, every item that was valid on its own fails the same way
+            for (int i = 0; i < recipes.length; i++) {
+                if (recipes[i] != null) {
+                    results.set(i, BatchResult.failure(e));
+                }
+            }
+            return results;
+        }
+        logPancakesAdded(logger, orderId, recipes, requests);
+        return results;
+    }
+
+    /*
+     * completes every order that has pancakes and is NEW
+     * @return order id per item in the same order
+     */
+    @Override
+    public List<BatchResult<UUID>> completeOrders(List<UUID> orderIds) {
+        List<Order> changed = new ArrayList<>(orderIds.size());
+        List<BatchResult<UUID>> results = transitionOrders(orderIds, changed, record -> {
+            completeOrderInternal(record);
+            return record.order().getId();
+        });
+        logger.logOrderStatusChanges(changed, "Completed");
+        return results;
+    }
+
+    /*
+     * moves every COMPLETED order of the batch to preparing
+     * @return order id per item in the same order
+     */
+    @Override
+    public List<BatchResult<UUID>> prepareOrders(List<UUID> orderIds) {
+        List<Order> changed = new ArrayList<>(orderIds.size());
+        List<BatchResult<UUID>> results = transitionOrders(orderIds, changed, record -> {
+            transitionUnlocked(record, OrderStatus.PREPARING, "Preparing");
+            return record.order().getId();
+        });
+        logger.logOrderStatusChanges(changed, "Preparing");
+        return results;
     }
 
+    /*
+     * delivers every PREPARING order of the batch, eviction runs once for the whole batch
+     * @return delivered order per item in the same order
+     */
+    @Override
+    public List<BatchResult<OrderDTO>> deliverOrders(List<UUID> orderIds) {
+        List<Order> changed = new ArrayList<>(orderIds.size());
+        List<BatchResult<OrderDTO>> results = transitionOrders(orderIds, changed, this::deliverOrderInternal);
+        logger.logOrdersDelivered(changed);
+        evictFinished(EVICTION_BATCH * changed.size());
+        return results;
+    }
+
+    /*
+     * applies transition to every order under one change, orders that moved are collected into changed
+     * @return result per order id in the same order
+     */
+    private <T> List<BatchResult<T>> transitionOrders(List<UUID> orderIds, List<Order> changed,
+                                                      Function<OrderRecord, T> transition) {
+        List<BatchResult<T>> results = new ArrayList<>(orderIds.size());
+        beginChange();
+        try {
+            for (UUID orderId : orderIds) {
+                try {
+                    OrderRecord record = validateOrderExists(orderId);
+                    results.add(BatchResult.success(transition.apply(record)));
+                    changed.add(record.order());
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    results.add(BatchResult.failure(e));
+                }
+            }
+        } finally {
+            endChange();
+        }
+        return results;
+    }
+
+
+    // ================== Status Events ================== //
+    // subscribers get events only as they request them, while they lag behind only the latest status of each order waits for them
+
+    // every order that is created or changes status
+    public Flow.Publisher<OrderStatusEvent> statusEvents() {
+        return statusFeed.all();
+    }
+
+    /*
+     * orders of one building that are created or change status
+     * @throws IllegalArgumentException if building is invalid
+     */
+    public Flow.Publisher<OrderStatusEvent> statusEventsForBuilding(int building) {
+        LocationIndex.validateBuilding(building);
+        return statusFeed.building(building);
+    }
+
+    /*
+     * current status of one order followed by its changes, completes once the order is delivered or cancelled
+     * @throws IllegalArgumentException if an order does not exist
+     */
+    public Flow.Publisher<OrderStatusEvent> statusEventsForOrder(UUID orderId) {
+        return statusFeed.order(orderId, validateOrderExists(orderId).order());
+    }
+
+    public int getStatusSubscriberCount() {
+        return statusFeed.getSubscriberCount();
+    }
+
+    // events pushed out of a full subscriber buffer before they were requested
+    public long getDroppedStatusEventCount() {
+        return statusFeed.getDroppedCount();
+    }
+
+    // ================== Retention ================== //
+
+    /*
+     * evicts every finished order the retention policy no longer allows, useful when age is limited and nothing finishes for a while
+     * @return number of evicted orders
+     */
+    public int evictExpiredOrders() {
+        return evictFinished(Integer.MAX_VALUE);
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    // evicted orders the archive threw on, they are gone anyway
+    public long getArchiveFailureCount() {
+        return archiveFailureCount.sum();
+    }
+
+    // finished orders that are still kept in memory
+    public int getFinishedOrderCount() {
+        return finishedCount.get();
+    }
+
+    // ================== DTO Cache ================== //
+    // reads of an order that did not change since the last read return the same dtos
+
+    public long getDtoCacheHits() {
+        return dtoCacheHits.sum();
+    }
+
+    public long getDtoCacheMisses() {
+        return dtoCacheMisses.sum();
+    }
+
+    // share of getOrderStatus and getPancakeDescriptions calls answered from the cache, 0 before the first call
+    public double getDtoCacheHitRate() {
+        long hits = dtoCacheHits.sum();
+        long total = hits + dtoCacheMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
 
     // ================== Internal Methods ================== //
 
 
+    // caller holds the change gate
+    private void registerOrder(Order order) {
+        OrderEvents.OrderCreated event = new OrderEvents.OrderCreated();
+        event.begin();
+        UUID orderId = order.getId();
+        // thread safe, pancakes are kept as recipe counts
+        orders.put(orderId, new OrderRecord(order, newPancakes(orderId)));
+        ordersByStatus.get(OrderStatus.NEW).add(orderId);
+        locations.add(order);
+        journal.orderCreated(orderId, order.getBuilding(), order.getRoom());
+        statusFeed.publish(order, OrderStatus.NEW);
+        event.commit(order);
+    }
+
+    static OrderDTO newOrderDTO(Order order) {
+        return new OrderDTO(
+                order.getId(),
+                order.getBuilding(),
+                order.getRoom(),
+                order.getStatus().name(),
+                List.of() // No pancakes initially
+        );
+    }
+
+    // one logger call for the items of a batch that got a recipe, items without one failed
+    static void logPancakesAdded(Logger logger, UUID orderId, Recipe[] recipes, List<PancakeRequest> requests) {
+        int added = 0;
+        for (Recipe recipe : recipes) {
+            if (recipe != null) {
+                added++;
+            }
+        }
+        Recipe[] addedRecipes = new Recipe[added];
+        int[] quantities = new int[added];
+        added = 0;
+        for (int i = 0; i < recipes.length; i++) {
+            if (recipes[i] != null) {
+                addedRecipes[added] = recipes[i];
+                quantities[added++] = requests.get(i).quantity();
+            }
+        }
+        logger.logPancakesAdded(orderId, addedRecipes, quantities);
+    }
+
+    static OrderSummaryDTO summaryOf(UUID orderId, OrderRecord record) {
+        if (record == null) {
+            return new OrderSummaryDTO(orderId, 0, 0, Map.of(), 0);
+        }
+        Order order = record.order();
+        OrderPancakes pancakes = record.pancakes();
+        if (pancakes == null) {
+            return new OrderSummaryDTO(orderId, order.getBuilding(), order.getRoom(), Map.of(), 0);
+        }
+        Map<String, Integer> counts = pancakes.getCountsByDescription();
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        return new OrderSummaryDTO(orderId, order.getBuilding(), order.getRoom(), counts, total);
+    }
+
+    /*
+     * ingredients by their names
+     * @throws IllegalArgumentException if ingredient does not exist
+     */
+    static List<Ingredient> ingredientsOf(List<String> ingredientNames) {
+        List<Ingredient> ingredients = new ArrayList<>(ingredientNames.size());
+        for (String ingredientName : ingredientNames) {
+            ingredients.add(Ingredient.fromName(ingredientName));
+        }
+        return ingredients;
+    }
+
     /*
      * validate Order Exists
      * @throws IllegalArgumentException if an order does not exist
      */
-    private Order validateOrderExists(UUID orderId) {
-        Order order = activeOrders.get(orderId);
-        if (order == null) {
-            order = finishedOrders.get(orderId);
-            if (order == null) {
-                throw new IllegalArgumentException("Order " + orderId + " not found");
-            }
+    private OrderRecord validateOrderExists(UUID orderId) {
+        OrderRecord record = orders.get(orderId);
+        if (record == null) {
+            throw new IllegalArgumentException("Order " + orderId + " not found");
         }
-        return order;
+        return record;
     }
 
     /*
      * validate Order state
-     * @throws IllegalArgumentException if an order does not exist
+     * @throws IllegalStateException if an order is in another state
      */
-    private void validateOrderState(UUID orderId, OrderStatus expected) {
-        Order order = validateOrderExists(orderId);
-        if (!order.getStatus().equals(expected)) {
+    static void validateOrderState(OrderRecord record, OrderStatus expected) {
+        OrderStatus status = record.order().getStatus();
+        if (status != expected) {
             throw new IllegalStateException(
                     String.format("Order %s must be %s (current: %s)",
-                            orderId, expected, order.getStatus()));
+                            record.order().getId(), expected, status));
         }
     }
 
 
     /*
      * executes axcion
-     * @throws IllegalArgumentException if an order does not exist
+     * @throws IllegalStateException if an order is in incorrect state
      */
-    private void executeOrderAction(UUID orderId, Consumer<Order> action, String actionName) {
-        Order order = validateOrderExists(orderId);
-        synchronized (order) {
-            try {
-                action.accept(order);
-                logger.logOrderStatusChange(order, actionName);
-            } catch (IllegalStateException e) {
-                logger.logInvalidTransition(order, actionName);
-                throw e;
-            }
+    private void executeOrderAction(OrderRecord record, OrderStatus next, String actionName) {
+        beginChange();
+        try {
+            transitionUnlocked(record, next, actionName);
+        } finally {
+            endChange();
+        }
+        logger.logOrderStatusChange(record.order(), actionName);
+    }
+
+    /*
+     * transition that does not take the order lock, its event lasts as long as the transition
+     * @throws IllegalStateException if an order is in incorrect state
+     */
+    private void transitionUnlocked(OrderRecord record, OrderStatus next, String actionName) {
+        OrderEvents.OrderTransition event = new OrderEvents.OrderTransition();
+        event.begin();
+        OrderStatus from = transitionOrder(record, next, actionName);
+        event.commit(record.order(), from, next, false);
+    }
+
+    /*
+     * moves order to next status and finishes the record when next is final
+     * caller holds the change gate and logs the change, only invalid transitions are logged here
+     * @return status the order left
+     * @throws IllegalStateException if an order is in incorrect state
+     */
+    private OrderStatus transitionOrder(OrderRecord record, OrderStatus next, String actionName) {
+        Order order = record.order();
+        OrderStatus from;
+        try {
+            from = order.transition(next);
+        } catch (IllegalStateException e) {
+            logger.logInvalidTransition(order, actionName);
+            throw e;
         }
+        Instant finishedAt = next.isFinal() ? retention.getClock().instant() : null;
+        reindex(order, from, next);
+        journal.statusChanged(order.getId(), next, finishedAt);
+        statusFeed.publish(order, next);
+        if (finishedAt != null) {
+            finish(record, finishedAt);
+        }
+        return from;
     }
 
     /*
@@ -340,16 +926,271 @@ public final class PancakeServiceImpl implements PancakeService {
         if (quantity < 1) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
-        validateOrderState(orderId, OrderStatus.NEW);
+        OrderRecord record = validateOrderExists(orderId);
+        Recipe recipe = PancakeFactory.getRecipe(ingredients);
+        beginChange();
+        try {
+            // journal has to get the change before anybody can remove the new pancakes
+            record.lock();
+            OrderEvents.PancakesAdded event = new OrderEvents.PancakesAdded();
+            event.begin();
+            try {
+                validateOrderState(record, OrderStatus.NEW);
+                record.pancakes().add(recipe, quantity);
+                journal.pancakesAdded(orderId, recipe, quantity);
+            } finally {
+                record.unlock();
+            }
+            event.commit(record.order(), recipe, quantity);
+        } finally {
+            endChange();
+        }
+        logger.logPancakesAdded(orderId, recipe, quantity);
+    }
+
+    /*
+     * pancakes of an order as dtos, locked so that pancakes do not change while cached
+     * giving ids to pancakes journals nothing, with a journal they are derived, see newPancakes
+     */
+    private List<PancakeDTO> pancakeDTOsOf(OrderRecord record, OrderPancakes pancakes) {
+        record.lock();
+        try {
+            return cachedPancakeDTOs(record, pancakes);
+        } finally {
+            record.unlock();
+        }
+    }
+
+    /*
+     * dtos cached for the current version of pancakes or new ones, caller makes sure pancakes do not change meanwhile
+     */
+    static List<PancakeDTO> cachedPancakeDTOs(OrderRecord record, OrderPancakes pancakes) {
+        long version = OrderRecord.versionOf(pancakes);
+        List<PancakeDTO> pancakeDTOs = record.cachedPancakes(version);
+        if (pancakeDTOs == null) {
+            pancakeDTOs = toPancakeDTOs(pancakes);
+            record.cachePancakes(version, pancakeDTOs);
+        }
+        return pancakeDTOs;
+    }
+
+    /*
+     * pancakes of an order as dtos, this is the point where pancakes get their ids
+     */
+    static List<PancakeDTO> toPancakeDTOs(OrderPancakes pancakes) {
+        if (pancakes == null) {
+            return List.of();
+        }
+        return pancakes.getPancakes().stream()
+                .map(p -> new PancakeDTO(
+                        p.getOrderId(),
+                        p.getPancakeId(),
+                        p.getRecipe().getIngredientNames(),
+                        p.getDescription()))
+                .toList();
+    }
+
+    /*
+     * order has just moved to a final status, caller holds the change gate
+     * so snapshots see the record either active or finished and queued
+     * @return pancakes the order had
+     */
+    private OrderPancakes finish(OrderRecord record, Instant finishedAt) {
+        OrderPancakes pancakes = record.finish(finishedAt);
+        finishedQueue.add(record);
+        finishedCount.incrementAndGet();
+        return pancakes;
+    }
 
-        orderPancakes.computeIfPresent(orderId, (id, pancakes) -> {
-            for (int i = 0; i < quantity; i++) {
-                Pancake pancake = PancakeFactory.createPancake(orderId, ingredients);
-                pancakes.add(pancake);
-                logger.logPancakeAdded(orderId, pancake);
+    /*
+     * takes finished orders from the head of the queue while there are too many or the oldest is too old
+     * every change evicts only a few of them so nobody pays for one large clear
+     * @return number of evicted orders
+     */
+    private int evictFinished(int limit) {
+        if (retention == RetentionPolicy.unlimited()) {
+            return 0;
+        }
+        Duration maxAge = retention.getMaxAge();
+        Instant oldestAllowed = maxAge == null ? null : retention.getClock().instant().minus(maxAge);
+        int evicted = 0;
+        while (evicted < limit) {
+            OrderRecord oldest = finishedQueue.peek();
+            if (oldest == null || (finishedCount.get() <= retention.getMaxCount()
+                    && (oldestAllowed == null || !oldest.finishedAt().isBefore(oldestAllowed)))) {
+                break;
             }
-            return pancakes;
-        });
+            beginChange();
+            try {
+                // another thread may have taken the head meanwhile, whatever is there now is at least as old
+                oldest = finishedQueue.poll();
+                if (oldest == null) {
+                    break;
+                }
+                if (!dropFinished(oldest)) {
+                    continue;
+                }
+                journal.finishedOrderEvicted(oldest.order().getId());
+            } finally {
+                endChange();
+            }
+            evicted++;
+            evictedCount.increment();
+            archive(oldest);
+        }
+        return evicted;
+    }
+
+    // record has already left the queue
+    private boolean dropFinished(OrderRecord record) {
+        Order order = record.order();
+        if (!orders.remove(order.getId(), record)) {
+            return false;
+        }
+        finishedCount.decrementAndGet();
+        ordersByStatus.get(order.getStatus()).remove(order.getId());
+        return true;
+    }
+
+    private void archive(OrderRecord finished) {
+        OrderArchive archive = retention.getArchive();
+        if (archive == null) {
+            return;
+        }
+        try {
+            archive.archive(finished.order(), finished.finishedAt());
+        } catch (RuntimeException e) {
+            archiveFailureCount.increment();
+        }
+    }
+
+    // ================== Persistence ================== //
+
+    /*
+     * writes a snapshot of the whole state, recovery will only replay the journal written after it
+     * does nothing without a journal
+     */
+    public void takeSnapshot() {
+        if (fileJournal == null) {
+            return;
+        }
+        JournalPosition position;
+        byte[] state;
+        snapshotLock.writeLock().lock();
+        try {
+            position = fileJournal.rotate();
+            state = ServiceRecovery.capture(this);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        fileJournal.writeSnapshot(new JournalSnapshot(position, state));
+    }
+
+    // always taken before the record lock, a change waiting for the gate while holding a record would block snapshots
+    private void beginChange() {
+        if (fileJournal != null) {
+            snapshotLock.readLock().lock();
+        }
+    }
+
+    private void endChange() {
+        if (fileJournal != null) {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    // with a journal pancake ids follow from the order id, so a replay gives out the same ids without recording any
+    OrderPancakes newPancakes(UUID orderId) {
+        return fileJournal == null ? new OrderPancakes(orderId, idGenerator) : OrderPancakes.withDerivedIds(orderId);
+    }
+
+    // hooks used by ServiceRecovery, they change state without journaling or logging
+
+    Order findOrder(UUID orderId) {
+        OrderRecord record = orders.get(orderId);
+        return record == null ? null : record.order();
+    }
+
+    // null for finished orders
+    OrderPancakes findPancakes(UUID orderId) {
+        OrderRecord record = orders.get(orderId);
+        return record == null ? null : record.pancakes();
+    }
+
+    // finishedAt is null for active orders, pancakes are null for finished ones
+    void restoreOrder(Order order, OrderPancakes pancakes, Instant finishedAt) {
+        OrderRecord record = new OrderRecord(order, pancakes);
+        orders.put(order.getId(), record);
+        ordersByStatus.get(order.getStatus()).add(order.getId());
+        locations.add(order);
+        if (finishedAt != null) {
+            finish(record, finishedAt);
+        }
+    }
+
+    void restoreFinished(UUID orderId, Instant finishedAt) {
+        OrderRecord record = orders.get(orderId);
+        if (record != null && record.finishedAt() == null) {
+            finish(record, finishedAt);
+        }
+    }
+
+    // also used by clearAllFinishedOrders, orders are dropped one by one so that the index follows the map
+    void restoreClearedFinished() {
+        OrderRecord finished;
+        while ((finished = finishedQueue.poll()) != null) {
+            dropFinished(finished);
+        }
+    }
+
+    // evictions follow the queue so the evicted order is nearly always at its head
+    void restoreEvicted(UUID orderId) {
+        OrderRecord record = orders.get(orderId);
+        if (record == null || record.finishedAt() == null) {
+            return;
+        }
+        OrderRecord oldest = finishedQueue.peek();
+        if (oldest == record) {
+            finishedQueue.poll();
+        } else {
+            finishedQueue.remove(record);
+        }
+        dropFinished(record);
+    }
+
+    /*
+     * moves order between index sets after it changed status from one to the other
+     * the order joins its new set before it leaves the old one, a reader may briefly see it under both statuses but never under none
+     * transitions are not locked, so the next transition may already be indexed when this one adds the order
+     * statuses never repeat, so an order that is no longer in status to once it was added is taken out again
+     */
+    void reindex(Order order, OrderStatus from, OrderStatus to) {
+        if (from == to) {
+            return;
+        }
+        Set<UUID> previous = ordersByStatus.get(from);
+        Set<UUID> next = ordersByStatus.get(to);
+        next.add(order.getId());
+        if (order.getStatus() != to) {
+            next.remove(order.getId());
+        }
+        previous.remove(order.getId());
+        locations.moved(order, from, to);
     }
 
-}
\ No newline at end of file
+    // receives an active order with its pancakes or a finished one with its finish time
+    interface OrderVisitor {
+        void visit(Order order, OrderPancakes pancakes, Instant finishedAt);
+    }
+
+    // active orders first, then finished ones in the order they finished so that a restored service evicts them in the same order
+    void forEachOrder(OrderVisitor visitor) {
+        orders.values().forEach(record -> {
+            OrderPancakes pancakes = record.pancakes();
+            if (pancakes != null) {
+                visitor.visit(record.order(), pancakes, null);
+            }
+        });
+        finishedQueue.forEach(record -> visitor.visit(record.order(), null, record.finishedAt()));
+    }
+}
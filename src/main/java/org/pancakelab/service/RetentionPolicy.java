@@ -0,0 +1,91 @@
+package org.pancakelab.service;
+
+import org.pancakelab.service.interfaces.OrderArchive;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+
+//how many finished orders the service keeps and for how long, oldest finished orders are evicted first
+public final class RetentionPolicy {
+    private static final RetentionPolicy UNLIMITED = builder().build();
+
+    private final int maxCount;
+    private final Duration maxAge;
+    private final Clock clock;
+    private final OrderArchive archive;
+
+    private RetentionPolicy(Builder builder) {
+        this.maxCount = builder.maxCount;
+        this.maxAge = builder.maxAge;
+        this.clock = builder.clock;
+        this.archive = builder.archive;
+    }
+
+    // finished orders are kept until clearAllFinishedOrders is called
+    public static RetentionPolicy unlimited() {
+        return UNLIMITED;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int maxCount = Integer.MAX_VALUE;
+        private Duration maxAge;
+        private Clock clock = Clock.systemUTC();
+        private OrderArchive archive;
+
+        private Builder() {}
+
+        public Builder maxCount(int maxCount) {
+            if (maxCount < 0) {
+                throw new IllegalArgumentException("Max count cannot be negative");
+            }
+            this.maxCount = maxCount;
+            return this;
+        }
+
+        public Builder maxAge(Duration maxAge) {
+            if (maxAge.isNegative()) {
+                throw new IllegalArgumentException("Max age cannot be negative");
+            }
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+            return this;
+        }
+
+        // evicted orders are handed to it, without an archive they are dropped
+        public Builder archive(OrderArchive archive) {
+            this.archive = archive;
+            return this;
+        }
+
+        public RetentionPolicy build() {
+            return new RetentionPolicy(this);
+        }
+    }
+
+    int getMaxCount() {
+        return maxCount;
+    }
+
+    // null when age is not limited
+    Duration getMaxAge() {
+        return maxAge;
+    }
+
+    Clock getClock() {
+        return clock;
+    }
+
+    // null when evicted orders are dropped
+    OrderArchive getArchive() {
+        return archive;
+    }
+}
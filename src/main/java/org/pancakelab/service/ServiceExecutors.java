@@ -0,0 +1,53 @@
+package org.pancakelab.service;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+//executors for AsyncPancakeServiceImpl
+//service calls only wait on explicit locks, so they can run on virtual threads without pinning their carriers
+public final class ServiceExecutors {
+    // looked up once, the project is built for a release that has no virtual threads
+    private static final MethodHandle VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+    private ServiceExecutors() {}
+
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /*
+     * a new virtual thread per call when the runtime has them, otherwise a work stealing pool sized to the cpus
+     * calls are short and never wait for anything but each other, so the fallback needs no more threads than cpus
+     */
+    public static ExecutorService preferVirtualThreads() {
+        if (VIRTUAL_THREAD_EXECUTOR == null) {
+            return workStealing(Runtime.getRuntime().availableProcessors());
+        }
+        try {
+            return (ExecutorService) VIRTUAL_THREAD_EXECUTOR.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+
+    /*
+     * platform threads only
+     * @throws IllegalArgumentException if parallelism is not positive
+     */
+    public static ExecutorService workStealing(int parallelism) {
+        return new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    private static MethodHandle findVirtualThreadExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
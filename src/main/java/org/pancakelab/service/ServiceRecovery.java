@@ -0,0 +1,204 @@
+package org.pancakelab.service;
+
+import org.pancakelab.model.OrderFactory;
+import org.pancakelab.model.OrderPancakes;
+import org.pancakelab.model.PancakeFactory;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Order;
+import org.pancakelab.model.interfaces.Recipe;
+import org.pancakelab.service.interfaces.Journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+//rebuilds PancakeServiceImpl state, replayed journal records are applied as they are without validation
+//because they were only written after the change they describe had succeeded
+final class ServiceRecovery implements Journal {
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final PancakeServiceImpl service;
+
+    ServiceRecovery(PancakeServiceImpl service) {
+        this.service = service;
+    }
+
+    // ================== Journal replay ================== //
+
+    @Override
+    public void orderCreated(UUID orderId, int building, int room) {
+        service.restoreOrder(OrderFactory.restoreOrder(orderId, building, room, OrderStatus.NEW),
+                service.newPancakes(orderId), null);
+    }
+
+    @Override
+    public void pancakesAdded(UUID orderId, Recipe recipe, int quantity) {
+        OrderPancakes pancakes = service.findPancakes(orderId);
+        if (pancakes != null) {
+            pancakes.add(recipe, quantity);
+        }
+    }
+
+    @Override
+    public void pancakesRemoved(UUID orderId, Recipe recipe, int quantity) {
+        OrderPancakes pancakes = service.findPancakes(orderId);
+        if (pancakes != null) {
+            pancakes.remove(recipe, quantity);
+        }
+    }
+
+    // ids are derived and not journaled, the pancake may still be part of its run when it was never asked for since the replay began
+    @Override
+    public void pancakeRemoved(UUID orderId, UUID pancakeId) {
+        OrderPancakes pancakes = service.findPancakes(orderId);
+        if (pancakes != null && pancakes.remove(pancakeId) == null) {
+            pancakes.identifyAll();
+            pancakes.remove(pancakeId);
+        }
+    }
+
+    /*
+     * transitions are not locked, so a transition can be journaled right before the one that led to it
+     * the order is moved along its lifecycle up to status, a status it has already passed is ignored
+     */
+    @Override
+    public void statusChanged(UUID orderId, OrderStatus status, Instant finishedAt) {
+        Order order = service.findOrder(orderId);
+        if (order == null) {
+            return;
+        }
+        OrderStatus from = order.getStatus();
+        if (from.isFinal() || status.ordinal() <= from.ordinal()) {
+            return;
+        }
+        if (!order.tryTransition(from, status) && status != OrderStatus.CANCELLED) {
+            for (int next = from.ordinal() + 1; next <= status.ordinal(); next++) {
+                order.tryTransition(order.getStatus(), STATUSES[next]);
+            }
+        }
+        if (order.getStatus() != status) {
+            throw new IllegalStateException("Order " + orderId + " cannot move from " + from + " to " + status);
+        }
+        service.reindex(order, from, status);
+        if (status.isFinal()) {
+            service.restoreFinished(orderId, finishedAt);
+        }
+    }
+
+    @Override
+    public void finishedOrdersCleared() {
+        service.restoreClearedFinished();
+    }
+
+    @Override
+    public void finishedOrderEvicted(UUID orderId) {
+        service.restoreEvicted(orderId);
+    }
+
+    // ================== Snapshots ================== //
+
+    /*
+     * every order with its pancakes, pancakes are written as runs so ids that were never given out stay that way
+     * layout per order: id, building, room, status, number of runs or -1 for finished orders,
+     * then finish time in millis for finished orders, next ordinal and runs for active ones
+     * layout per run: recipe code, count, number of ids, ids, ordinal of the first pancake without id
+     */
+    static byte[] capture(PancakeServiceImpl service) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        List<Order> orders = new ArrayList<>();
+        List<OrderPancakes> pancakes = new ArrayList<>();
+        List<Instant> finishTimes = new ArrayList<>();
+        service.forEachOrder((order, orderPancakes, finishedAt) -> {
+            orders.add(order);
+            pancakes.add(orderPancakes);
+            finishTimes.add(finishedAt);
+        });
+        try {
+            out.writeInt(orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                Order order = orders.get(i);
+                writeId(out, order.getId());
+                out.writeInt(order.getBuilding());
+                out.writeInt(order.getRoom());
+                out.writeByte(order.getStatus().ordinal());
+                writeRuns(out, pancakes.get(i), finishTimes.get(i));
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not capture service state", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static void restore(byte[] state, PancakeServiceImpl service) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+        try {
+            int orderCount = in.readInt();
+            for (int i = 0; i < orderCount; i++) {
+                UUID orderId = readId(in);
+                Order order = OrderFactory.restoreOrder(orderId, in.readInt(), in.readInt(), STATUSES[in.readByte()]);
+                int runCount = in.readInt();
+                if (runCount < 0) {
+                    service.restoreOrder(order, null, Instant.ofEpochMilli(in.readLong()));
+                    continue;
+                }
+                OrderPancakes pancakes = service.newPancakes(orderId);
+                pancakes.restoreNextOrdinal(in.readLong());
+                for (int run = 0; run < runCount; run++) {
+                    Recipe recipe = PancakeFactory.getRecipe(in.readInt());
+                    int count = in.readInt();
+                    int idCount = in.readInt();
+                    List<UUID> ids = new ArrayList<>(idCount);
+                    for (int id = 0; id < idCount; id++) {
+                        ids.add(readId(in));
+                    }
+                    pancakes.restoreRun(recipe, count, ids, in.readLong());
+                }
+                service.restoreOrder(order, pancakes, null);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not restore service state", e);
+        }
+    }
+
+    private static void writeRuns(DataOutputStream out, OrderPancakes pancakes, Instant finishedAt) throws IOException {
+        if (pancakes == null) {
+            out.writeInt(-1);
+            out.writeLong(finishedAt.toEpochMilli());
+            return;
+        }
+        List<Run> runs = new ArrayList<>();
+        long nextOrdinal = pancakes.getNextOrdinal();
+        pancakes.forEachRun((recipe, count, ids, ordinal) -> runs.add(new Run(recipe, count, ids, ordinal)));
+        out.writeInt(runs.size());
+        out.writeLong(nextOrdinal);
+        for (Run run : runs) {
+            out.writeInt(run.recipe().getCode());
+            out.writeInt(run.count());
+            out.writeInt(run.ids().size());
+            for (UUID id : run.ids()) {
+                writeId(out, id);
+            }
+            out.writeLong(run.ordinal());
+        }
+    }
+
+    private record Run(Recipe recipe, int count, List<UUID> ids, long ordinal) {}
+
+    private static void writeId(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readId(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -0,0 +1,428 @@
+package org.pancakelab.service;
+
+import org.pancakelab.dto.BatchResult;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderRequest;
+import org.pancakelab.dto.OrderSummaryDTO;
+import org.pancakelab.dto.PancakeDTO;
+import org.pancakelab.dto.PancakeRequest;
+import org.pancakelab.model.IdGenerators;
+import org.pancakelab.model.PancakeFactory;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.IdGenerator;
+import org.pancakelab.model.interfaces.Recipe;
+import org.pancakelab.service.interfaces.Logger;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+//orders are split between shards, each of them owned by one thread, see OrderShard
+//calls about one order go straight to its shard, ids are kept as the generator made them
+//ids spread by routing tell their shard by their lowest byte, under building routing the shard of every order is looked up
+//queries over all orders ask every shard at once and merge what they return
+//state is kept in memory only, there is no journal, retention only caps the count of finished orders and drops the oldest
+public final class ShardedPancakeService implements PancakeService, AutoCloseable {
+
+    public enum Routing {
+        ORDER_ID, // orders are spread by their id
+        BUILDING  // all orders of a building share a shard, so queries about a building ask only that shard
+    }
+
+    private static final int MAX_SHARDS = 256; // shard index has to fit into one byte of the order id
+
+    private final OrderShard[] shards;
+    private final Routing routing;
+    private final IdGenerator idGenerator;
+    // building routing only, an entry lives until its order is cleared
+    private final Map<UUID, Integer> shardsByOrder = new ConcurrentHashMap<>();
+
+    /*
+     * starts one thread per shard
+     * @throws NullPointerException if logger, id generator or routing is null
+     */
+    private ShardedPancakeService(Builder builder) {
+        Logger logger = Objects.requireNonNull(builder.logger, "Logger cannot be null");
+        this.idGenerator = Objects.requireNonNull(builder.idGenerator, "Id generator cannot be null");
+        this.routing = Objects.requireNonNull(builder.routing, "Routing cannot be null");
+        this.shards = new OrderShard[builder.shardCount];
+        int maxFinishedPerShard = builder.maxFinishedOrders == Integer.MAX_VALUE ? Integer.MAX_VALUE
+                : builder.maxFinishedOrders / shards.length + (builder.maxFinishedOrders % shards.length == 0 ? 0 : 1);
+        Consumer<UUID> evictedListener = routing == Routing.BUILDING ? shardsByOrder::remove : orderId -> {};
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new OrderShard(i, logger, idGenerator, maxFinishedPerShard, evictedListener);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private Logger logger;
+        private IdGenerator idGenerator = IdGenerators.random();
+        private Routing routing = Routing.ORDER_ID;
+        private int shardCount = Runtime.getRuntime().availableProcessors();
+        private int maxFinishedOrders = Integer.MAX_VALUE;
+
+        private Builder() {}
+
+        public Builder logger(Logger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        public Builder idGenerator(IdGenerator idGenerator) {
+            this.idGenerator = idGenerator;
+            return this;
+        }
+
+        public Builder routing(Routing routing) {
+            this.routing = routing;
+            return this;
+        }
+
+        public Builder shards(int shardCount) {
+            if (shardCount < 1 || shardCount > MAX_SHARDS) {
+                throw new IllegalArgumentException("Shard count must be between 1 and " + MAX_SHARDS);
+            }
+            this.shardCount = shardCount;
+            return this;
+        }
+
+        // finished orders kept before the oldest are dropped, split evenly between shards, by default until clearAllFinishedOrders
+        public Builder maxFinishedOrders(int maxFinishedOrders) {
+            if (maxFinishedOrders < 0) {
+                throw new IllegalArgumentException("Max finished orders cannot be negative");
+            }
+            this.maxFinishedOrders = maxFinishedOrders;
+            return this;
+        }
+
+        public ShardedPancakeService build() {
+            return new ShardedPancakeService(this);
+        }
+    }
+
+    /**
+     * creates an order on the shard its id or building routes it to
+     *  @throws IllegalArgumentException if building/room numbers are invalid
+     */
+    @Override
+    public OrderDTO createOrder(int building, int room) {
+        UUID orderId = idGenerator.nextId();
+        if (routing == Routing.ORDER_ID) {
+            return shardOf(orderId).call(shard -> shard.createOrder(building, room, orderId));
+        }
+        int index = shardIndexOfBuilding(building);
+        shardsByOrder.put(orderId, index);
+        try {
+            return shards[index].call(shard -> shard.createOrder(building, room, orderId));
+        } catch (RuntimeException e) {
+            shardsByOrder.remove(orderId);
+            throw e;
+        }
+    }
+
+    /*
+     * ingredients and quantity are checked before the shard is bothered
+     * @throws IllegalArgumentException if quantity is incorrect, ingredient or order does not exist
+     * @throws IllegalStateException if state is not new
+     */
+    @Override
+    public void addPancakes(UUID orderId, List<String> ingredientNames, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Recipe recipe = PancakeFactory.getRecipe(PancakeServiceImpl.ingredientsOf(ingredientNames));
+        shardOf(orderId).call(shard -> {
+            shard.addPancakes(orderId, recipe, quantity);
+            return null;
+        });
+    }
+
+    @Override
+    public void removePancake(UUID orderId, List<String> ingredientNames) {
+        shardOf(orderId).call(shard -> {
+            shard.removePancake(orderId, ingredientNames);
+            return null;
+        });
+    }
+
+    @Override
+    public void removePancake(UUID orderId, UUID pancakeId) {
+        shardOf(orderId).call(shard -> {
+            shard.removePancake(orderId, pancakeId);
+            return null;
+        });
+    }
+
+    @Override
+    public void removePancakes(String description, UUID orderId, int quantity) {
+        shardOf(orderId).call(shard -> {
+            shard.removePancakes(description, orderId, quantity);
+            return null;
+        });
+    }
+
+    @Override
+    public void completeOrder(UUID orderId) {
+        shardOf(orderId).call(shard -> {
+            shard.completeOrder(orderId);
+            return null;
+        });
+    }
+
+    @Override
+    public void prepareOrder(UUID orderId) {
+        shardOf(orderId).call(shard -> {
+            shard.prepareOrder(orderId);
+            return null;
+        });
+    }
+
+    @Override
+    public OrderDTO deliverOrder(UUID orderId) {
+        return shardOf(orderId).call(shard -> shard.deliverOrder(orderId));
+    }
+
+    @Override
+    public void cancelOrder(UUID orderId) {
+        shardOf(orderId).call(shard -> {
+            shard.cancelOrder(orderId);
+            return null;
+        });
+    }
+
+    @Override
+    public void clearAllFinishedOrders() {
+        for (Set<UUID> cleared : gather(OrderShard::clearFinishedOrders)) {
+            if (routing == Routing.BUILDING) {
+                shardsByOrder.keySet().removeAll(cleared);
+            }
+        }
+    }
+
+    @Override
+    public OrderDTO getOrderStatus(UUID orderId) {
+        return shardOf(orderId).call(shard -> shard.getOrderStatus(orderId));
+    }
+
+    @Override
+    public List<PancakeDTO> getPancakeDescriptions(UUID orderId) {
+        return shardOf(orderId).call(shard -> shard.getPancakeDescriptions(orderId));
+    }
+
+    @Override
+    public List<String> viewOrder(UUID orderId) {
+        return shardOf(orderId).call(shard -> shard.viewOrder(orderId));
+    }
+
+    @Override
+    public OrderSummaryDTO viewOrderSummary(UUID orderId) {
+        return shardOf(orderId).call(shard -> shard.viewOrderSummary(orderId));
+    }
+
+    @Override
+    public Set<UUID> listOrdersWithStatus(OrderStatus orderStatus) {
+        Set<UUID> orders = new HashSet<>();
+        for (Set<UUID> shardOrders : gather(shard -> shard.listOrdersWithStatus(orderStatus))) {
+            orders.addAll(shardOrders);
+        }
+        return Collections.unmodifiableSet(orders);
+    }
+
+    @Override
+    public int countOrdersWithStatus(OrderStatus orderStatus) {
+        int count = 0;
+        for (int shardCount : gather(shard -> shard.countOrdersWithStatus(orderStatus))) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    /*
+     * @throws IllegalArgumentException if building is invalid
+     */
+    @Override
+    public Set<UUID> listOrdersInBuilding(int building, OrderStatus orderStatus) {
+        if (routing == Routing.BUILDING) {
+            return shardOfBuilding(building).call(shard -> shard.listOrdersInBuilding(building, orderStatus));
+        }
+        Set<UUID> orders = new HashSet<>();
+        for (Set<UUID> shardOrders : gather(shard -> shard.listOrdersInBuilding(building, orderStatus))) {
+            orders.addAll(shardOrders);
+        }
+        return Collections.unmodifiableSet(orders);
+    }
+
+    /*
+     * @throws IllegalArgumentException if building or room is invalid
+     */
+    @Override
+    public Set<UUID> listOpenOrdersForRoom(int building, int room) {
+        if (routing == Routing.BUILDING) {
+            return shardOfBuilding(building).call(shard -> shard.listOpenOrdersForRoom(building, room));
+        }
+        Set<UUID> orders = new HashSet<>();
+        for (Set<UUID> shardOrders : gather(shard -> shard.listOpenOrdersForRoom(building, room))) {
+            orders.addAll(shardOrders);
+        }
+        return Collections.unmodifiableSet(orders);
+    }
+
+    // ================== Batches ================== //
+    // items are split by shard, every shard gets one command with its part of the batch
+
+    @Override
+    public List<BatchResult<OrderDTO>> createOrders(List<OrderRequest> requests) {
+        List<UUID> orderIds = new ArrayList<>(requests.size());
+        for (OrderRequest request : requests) {
+            UUID orderId = idGenerator.nextId();
+            orderIds.add(orderId);
+            if (routing == Routing.BUILDING) {
+                shardsByOrder.put(orderId, shardIndexOfBuilding(request.building()));
+            }
+        }
+        List<BatchResult<OrderDTO>> results = scatter(requests.size(), i -> shardIndexOf(orderIds.get(i)),
+                (shard, items) -> shard.createOrders(select(requests, items), select(orderIds, items)));
+        if (routing == Routing.BUILDING) {
+            for (int i = 0; i < results.size(); i++) {
+                if (!results.get(i).isSuccess()) {
+                    shardsByOrder.remove(orderIds.get(i));
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<BatchResult<String>> addPancakes(UUID orderId, List<PancakeRequest> requests) {
+        return shardOf(orderId).call(shard -> shard.addPancakes(orderId, requests));
+    }
+
+    @Override
+    public List<BatchResult<UUID>> completeOrders(List<UUID> orderIds) {
+        return scatter(orderIds.size(), i -> shardIndexOf(orderIds.get(i)),
+                (shard, items) -> shard.completeOrders(select(orderIds, items)));
+    }
+
+    @Override
+    public List<BatchResult<UUID>> prepareOrders(List<UUID> orderIds) {
+        return scatter(orderIds.size(), i -> shardIndexOf(orderIds.get(i)),
+                (shard, items) -> shard.prepareOrders(select(orderIds, items)));
+    }
+
+    @Override
+    public List<BatchResult<OrderDTO>> deliverOrders(List<UUID> orderIds) {
+        return scatter(orderIds.size(), i -> shardIndexOf(orderIds.get(i)),
+                (shard, items) -> shard.deliverOrders(select(orderIds, items)));
+    }
+
+    // ================== Lifecycle ================== //
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /*
+     * stops every shard after it applied the commands it already has, later calls fail with IllegalStateException
+     */
+    @Override
+    public void close() {
+        for (OrderShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    // ================== Internal Methods ================== //
+
+    private OrderShard shardOf(UUID orderId) {
+        return shards[shardIndexOf(orderId)];
+    }
+
+    // an order unknown to building routing goes to the first shard, which does not know it either
+    private int shardIndexOf(UUID orderId) {
+        if (routing == Routing.BUILDING) {
+            return shardsByOrder.getOrDefault(orderId, 0);
+        }
+        return (int) (orderId.getLeastSignificantBits() & 0xFF) % shards.length;
+    }
+
+    private OrderShard shardOfBuilding(int building) {
+        return shards[shardIndexOfBuilding(building)];
+    }
+
+    private int shardIndexOfBuilding(int building) {
+        return Math.floorMod(building, shards.length);
+    }
+
+    /*
+     * sends action to every shard before waiting for any of them
+     * @return result of every shard in shard order
+     */
+    private <T> List<T> gather(Function<OrderShard, T> action) {
+        List<OrderShard.Command<T>> commands = new ArrayList<>(shards.length);
+        for (OrderShard shard : shards) {
+            commands.add(shard.submit(action));
+        }
+        List<T> results = new ArrayList<>(shards.length);
+        for (OrderShard.Command<T> command : commands) {
+            results.add(command.await());
+        }
+        return results;
+    }
+
+    /*
+     * gives every shard the positions of the items that belong to it and puts results back to those positions
+     * @return result per item in the same order as items
+     */
+    private <T> List<BatchResult<T>> scatter(int size, IntUnaryOperator shardOfItem,
+                                             BiFunction<OrderShard, int[], List<BatchResult<T>>> action) {
+        int[] counts = new int[shards.length];
+        int[] itemShards = new int[size];
+        for (int i = 0; i < size; i++) {
+            itemShards[i] = shardOfItem.applyAsInt(i);
+            counts[itemShards[i]]++;
+        }
+        int[][] items = new int[shards.length][];
+        for (int s = 0; s < shards.length; s++) {
+            items[s] = new int[counts[s]];
+            counts[s] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            int s = itemShards[i];
+            items[s][counts[s]++] = i;
+        }
+
+        List<OrderShard.Command<List<BatchResult<T>>>> commands = new ArrayList<>(shards.length);
+        for (int s = 0; s < shards.length; s++) {
+            int[] shardItems = items[s];
+            commands.add(shardItems.length == 0 ? null : shards[s].submit(shard -> action.apply(shard, shardItems)));
+        }
+        List<BatchResult<T>> results = new ArrayList<>(Collections.nCopies(size, null));
+        for (int s = 0; s < shards.length; s++) {
+            if (commands.get(s) == null) {
+                continue;
+            }
+            List<BatchResult<T>> shardResults = commands.get(s).await();
+            for (int i = 0; i < items[s].length; i++) {
+                results.set(items[s][i], shardResults.get(i));
+            }
+        }
+        return results;
+    }
+
+    // elements at given positions, nulls included
+    private static <E> List<E> select(List<E> list, int[] positions) {
+        List<E> selected = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            selected.add(list.get(position));
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,290 @@
+package org.pancakelab.service;
+
+import org.pancakelab.dto.OrderStatusEvent;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Order;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+//pushes status changes to subscribers of one order, one building or all orders
+//the changing thread only drops the event into the buffer of every matching subscription, subscribers are called on the executor
+//a buffer keeps one event per order, so a slow subscriber skips the statuses it had no demand for and only sees the latest one
+final class StatusFeed {
+    private final Executor executor;
+    private final int bufferSize;
+    private final Set<Subscription> all = new CopyOnWriteArraySet<>();
+    private final ConcurrentMap<Integer, Set<Subscription>> byBuilding = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, Set<Subscription>> byOrder = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder droppedCount = new LongAdder();
+
+    StatusFeed(Executor executor, int bufferSize) {
+        this.executor = Objects.requireNonNull(executor, "Executor cannot be null");
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    // ================== Publishers ================== //
+
+    Flow.Publisher<OrderStatusEvent> all() {
+        return subscriber -> subscribe(subscriber, all, null, null);
+    }
+
+    Flow.Publisher<OrderStatusEvent> building(int building) {
+        return subscriber -> subscribe(subscriber, null, building, null);
+    }
+
+    // starts with the status the order has at subscription time, completes once the order is delivered or cancelled
+    Flow.Publisher<OrderStatusEvent> order(UUID orderId, Order order) {
+        return subscriber -> {
+            Subscription subscription = subscribe(subscriber, null, null, orderId);
+            // registered first, so a change racing with the subscription is either buffered or already visible here
+            subscription.offer(eventOf(order, order.getStatus()));
+        };
+    }
+
+    /*
+     * subscriber is told about the subscription before it is registered so that it never gets events before onSubscribe
+     * @return registered subscription
+     */
+    private Subscription subscribe(Flow.Subscriber<? super OrderStatusEvent> subscriber,
+                                   Set<Subscription> set, Integer building, UUID orderId) {
+        Objects.requireNonNull(subscriber, "Subscriber cannot be null");
+        Subscription subscription = new Subscription(subscriber, building, orderId);
+        subscriber.onSubscribe(subscription);
+        subscriberCount.incrementAndGet();
+        if (set != null) {
+            set.add(subscription);
+        } else if (building != null) {
+            add(byBuilding, building, subscription);
+        } else {
+            add(byOrder, orderId, subscription);
+        }
+        // cancelled from within onSubscribe
+        if (subscription.isCancelled()) {
+            unregister(subscription);
+        }
+        return subscription;
+    }
+
+    private static <K> void add(ConcurrentMap<K, Set<Subscription>> map, K key, Subscription subscription) {
+        map.compute(key, (k, set) -> {
+            Set<Subscription> subscriptions = set == null ? new CopyOnWriteArraySet<>() : set;
+            subscriptions.add(subscription);
+            return subscriptions;
+        });
+    }
+
+    // removes the set once its last subscription leaves
+    private static <K> boolean remove(ConcurrentMap<K, Set<Subscription>> map, K key, Subscription subscription) {
+        boolean[] removed = new boolean[1];
+        map.computeIfPresent(key, (k, set) -> {
+            removed[0] = set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+        return removed[0];
+    }
+
+    private void unregister(Subscription subscription) {
+        boolean removed;
+        if (subscription.orderId != null) {
+            removed = remove(byOrder, subscription.orderId, subscription);
+        } else if (subscription.building != null) {
+            removed = remove(byBuilding, subscription.building, subscription);
+        } else {
+            removed = all.remove(subscription);
+        }
+        if (removed) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    // ================== Events ================== //
+
+    // called right after a change, costs one read when nobody subscribed
+    void publish(Order order, OrderStatus status) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        OrderStatusEvent event = eventOf(order, status);
+        offerAll(all, event);
+        offerAll(byBuilding.get(order.getBuilding()), event);
+        offerAll(byOrder.get(order.getId()), event);
+    }
+
+    private static void offerAll(Set<Subscription> subscriptions, OrderStatusEvent event) {
+        if (subscriptions != null) {
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    private static OrderStatusEvent eventOf(Order order, OrderStatus status) {
+        return new OrderStatusEvent(order.getId(), order.getBuilding(), order.getRoom(), status.name());
+    }
+
+    int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    // events of orders pushed out of a full buffer before their subscriber asked for them
+    long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    // ================== Subscription ================== //
+
+    //events are only delivered while there is demand, one drain at a time runs on the executor so signals never overlap
+    private final class Subscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super OrderStatusEvent> subscriber;
+        private final Integer building; // null unless the subscription is for one building
+        private final UUID orderId; // null unless the subscription is for one order
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<UUID, OrderStatusEvent> pending = new LinkedHashMap<>(); // latest event per order, guarded by lock
+        private final AtomicInteger scheduled = new AtomicInteger();
+        private long demand; // guarded by lock
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        private Subscription(Flow.Subscriber<? super OrderStatusEvent> subscriber, Integer building, UUID orderId) {
+            this.subscriber = subscriber;
+            this.building = building;
+            this.orderId = orderId;
+        }
+
+        // an event older than the one already waiting for the same order lost a race between two transitions and is skipped
+        private void offer(OrderStatusEvent event) {
+            if (cancelled) {
+                return;
+            }
+            lock.lock();
+            try {
+                OrderStatusEvent waiting = pending.get(event.orderId());
+                if (waiting != null) {
+                    if (ordinalOf(waiting) > ordinalOf(event)) {
+                        return;
+                    }
+                    pending.put(event.orderId(), event); // keeps the place of the replaced event
+                } else {
+                    if (pending.size() >= bufferSize) {
+                        Iterator<OrderStatusEvent> eldest = pending.values().iterator();
+                        eldest.next();
+                        eldest.remove();
+                        droppedCount.increment();
+                    }
+                    pending.put(event.orderId(), event);
+                }
+            } finally {
+                lock.unlock();
+            }
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Requested " + n + " events, request must be positive");
+            } else {
+                lock.lock();
+                try {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                unregister(this);
+            }
+        }
+
+        private boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void schedule() {
+            if (scheduled.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = scheduled.get();
+            while (true) {
+                drain();
+                missed = scheduled.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        // a subscriber that throws is cancelled, nothing it does can fail the service
+        private void drain() {
+            while (!cancelled) {
+                if (error != null) {
+                    cancel();
+                    subscriber.onError(error);
+                    return;
+                }
+                OrderStatusEvent event = next();
+                if (event == null) {
+                    return;
+                }
+                try {
+                    subscriber.onNext(event);
+                    if (orderId != null && OrderStatus.valueOf(event.status()).isFinal()) {
+                        cancel();
+                        subscriber.onComplete();
+                    }
+                } catch (RuntimeException e) {
+                    cancel();
+                }
+            }
+        }
+
+        // null when nothing is waiting or there is no demand
+        private OrderStatusEvent next() {
+            lock.lock();
+            try {
+                if (demand == 0 || pending.isEmpty()) {
+                    return null;
+                }
+                Iterator<OrderStatusEvent> eldest = pending.values().iterator();
+                OrderStatusEvent event = eldest.next();
+                eldest.remove();
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+                return event;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static int ordinalOf(OrderStatusEvent event) {
+            return OrderStatus.valueOf(event.status()).ordinal();
+        }
+    }
+}
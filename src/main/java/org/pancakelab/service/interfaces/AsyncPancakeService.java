@@ -0,0 +1,42 @@
+package org.pancakelab.service.interfaces;
+
+import org.pancakelab.dto.BatchResult;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderRequest;
+import org.pancakelab.dto.OrderSummaryDTO;
+import org.pancakelab.dto.PancakeDTO;
+import org.pancakelab.dto.PancakeRequest;
+import org.pancakelab.model.enums.OrderStatus;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+//same operations as PancakeService, callers get a future instead of waiting
+//a future fails with the exception the synchronous call would have thrown as its cause
+public interface AsyncPancakeService {
+    CompletableFuture<OrderDTO> createOrder(int building, int room);
+    CompletableFuture<Void> addPancakes(UUID orderId, List<String> ingredientNames, int quantity);
+    CompletableFuture<Void> removePancake(UUID orderId, List<String> ingredientNames);
+    CompletableFuture<Void> removePancake(UUID orderId, UUID pancakeId);
+    CompletableFuture<Void> removePancakes(String description, UUID orderId, int quantity);
+    CompletableFuture<Void> completeOrder(UUID orderId);
+    CompletableFuture<Void> prepareOrder(UUID orderId);
+    CompletableFuture<OrderDTO> deliverOrder(UUID orderId);
+    CompletableFuture<Void> cancelOrder(UUID orderId);
+    CompletableFuture<Void> clearAllFinishedOrders();
+    CompletableFuture<OrderDTO> getOrderStatus(UUID orderId);
+    CompletableFuture<List<PancakeDTO>> getPancakeDescriptions(UUID orderId);
+    CompletableFuture<List<String>> viewOrder(UUID orderId);
+    CompletableFuture<OrderSummaryDTO> viewOrderSummary(UUID orderId);
+    CompletableFuture<Set<UUID>> listOrdersWithStatus(OrderStatus orderStatus);
+    CompletableFuture<Integer> countOrdersWithStatus(OrderStatus orderStatus);
+    CompletableFuture<Set<UUID>> listOrdersInBuilding(int building, OrderStatus orderStatus);
+    CompletableFuture<Set<UUID>> listOpenOrdersForRoom(int building, int room);
+    CompletableFuture<List<BatchResult<OrderDTO>>> createOrders(List<OrderRequest> requests);
+    CompletableFuture<List<BatchResult<String>>> addPancakes(UUID orderId, List<PancakeRequest> requests);
+    CompletableFuture<List<BatchResult<UUID>>> completeOrders(List<UUID> orderIds);
+    CompletableFuture<List<BatchResult<UUID>>> prepareOrders(List<UUID> orderIds);
+    CompletableFuture<List<BatchResult<OrderDTO>>> deliverOrders(List<UUID> orderIds);
+}
@@ -0,0 +1,19 @@
+package org.pancakelab.service.interfaces;
+
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Recipe;
+
+import java.time.Instant;
+import java.util.UUID;
+
+//every change of service state in the order it was applied, replaying it in that order rebuilds the same state
+public interface Journal {
+    void orderCreated(UUID orderId, int building, int room);
+    void pancakesAdded(UUID orderId, Recipe recipe, int quantity);
+    void pancakesRemoved(UUID orderId, Recipe recipe, int quantity);
+    void pancakeRemoved(UUID orderId, UUID pancakeId);
+    // finishedAt is null unless status is final
+    void statusChanged(UUID orderId, OrderStatus status, Instant finishedAt);
+    void finishedOrdersCleared();
+    void finishedOrderEvicted(UUID orderId);
+}
@@ -2,16 +2,40 @@ package org.pancakelab.service.interfaces;
 
 import org.pancakelab.model.interfaces.Order;
 import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface Logger {
     void logOrderCreated(Order order);
-    void logPancakeAdded(UUID orderId, Pancake pancake);
+    void logPancakesAdded(UUID orderId, Recipe recipe, int quantity);
     void logPancakeRemoved(UUID orderId, Pancake pancake);
+    void logPancakesRemoved(UUID orderId, Recipe recipe, int quantity);
     void logOrderStatusChange(Order order, String action);
     void logOrderDelivered(Order order);
     void logInvalidTransition(Order order, String action);
     String getLastLog();//not used but could be needed
     void clearLogs();
+
+    // batches log all their orders in one call, loggers that can take them at once override these
+
+    // quantities[i] pancakes of recipes[i] went into the order
+    default void logPancakesAdded(UUID orderId, Recipe[] recipes, int[] quantities) {
+        for (int i = 0; i < recipes.length; i++) {
+            logPancakesAdded(orderId, recipes[i], quantities[i]);
+        }
+    }
+
+    default void logOrdersCreated(List<Order> orders) {
+        orders.forEach(this::logOrderCreated);
+    }
+
+    default void logOrderStatusChanges(List<Order> orders, String action) {
+        orders.forEach(order -> logOrderStatusChange(order, action));
+    }
+
+    default void logOrdersDelivered(List<Order> orders) {
+        orders.forEach(this::logOrderDelivered);
+    }
 }
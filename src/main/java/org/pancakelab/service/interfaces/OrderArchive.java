@@ -0,0 +1,11 @@
+package org.pancakelab.service.interfaces;
+
+import org.pancakelab.model.interfaces.Order;
+
+import java.time.Instant;
+
+//cold storage for finished orders the service no longer keeps in memory
+//called on the thread that evicted the order so it should hand the order off quickly
+public interface OrderArchive {
+    void archive(Order order, Instant finishedAt);
+}
@@ -1,7 +1,11 @@
 package org.pancakelab.service.interfaces;
 
+import org.pancakelab.dto.BatchResult;
 import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderRequest;
+import org.pancakelab.dto.OrderSummaryDTO;
 import org.pancakelab.dto.PancakeDTO;
+import org.pancakelab.dto.PancakeRequest;
 import org.pancakelab.model.enums.OrderStatus;
 
 import java.util.List;
@@ -22,5 +26,16 @@ public interface PancakeService {
     OrderDTO getOrderStatus(UUID orderId);
     List<PancakeDTO> getPancakeDescriptions(UUID orderId);
     List<String> viewOrder(UUID orderId);
+    OrderSummaryDTO viewOrderSummary(UUID orderId);
     Set<UUID> listOrdersWithStatus(OrderStatus orderStatus);
+    int countOrdersWithStatus(OrderStatus orderStatus);
+    Set<UUID> listOrdersInBuilding(int building, OrderStatus orderStatus);
+    Set<UUID> listOpenOrdersForRoom(int building, int room);
+
+    // batches return one result per item in the order the items were given, a failing item does not fail the batch
+    List<BatchResult<OrderDTO>> createOrders(List<OrderRequest> requests);
+    List<BatchResult<String>> addPancakes(UUID orderId, List<PancakeRequest> requests);
+    List<BatchResult<UUID>> completeOrders(List<UUID> orderIds);
+    List<BatchResult<UUID>> prepareOrders(List<UUID> orderIds);
+    List<BatchResult<OrderDTO>> deliverOrders(List<UUID> orderIds);
 }
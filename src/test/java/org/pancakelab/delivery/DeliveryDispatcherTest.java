@@ -0,0 +1,79 @@
+package org.pancakelab.delivery;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.OrderLogger;
+import org.pancakelab.service.PancakeServiceImpl;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeliveryDispatcherTest {
+    private final PancakeService service = new PancakeServiceImpl(OrderLogger.getInstance());
+
+    @Test
+    public void testRunsAreGroupedByBuildingAndSortedByRoom() {
+        Map<Integer, List<Integer>> roomsByBuilding = new ConcurrentHashMap<>();
+        OrderDTO cancelled;
+        try (DeliveryDispatcher dispatcher = DeliveryDispatcher.builder()
+                .service(service)
+                .runSize(3)
+                .maxAge(Duration.ofMinutes(1))
+                .runners(2)
+                .courier((building, run) -> roomsByBuilding.put(building, run.stream().map(OrderDTO::room).toList()))
+                .build()) {
+            dispatcher.ready(preparingOrder(1, 30));
+            dispatcher.ready(preparingOrder(2, 5));
+            dispatcher.ready(preparingOrder(1, 10));
+            dispatcher.ready(preparingOrder(1, 20));
+            cancelled = service.createOrder(2, 1);
+            dispatcher.ready(cancelled.id(), 2, 1);
+            service.cancelOrder(cancelled.id());
+        }
+        // building 1 left as soon as it had three orders, building 2 was flushed on close
+        assertEquals(Map.of(1, List.of(10, 20, 30), 2, List.of(5)), roomsByBuilding);
+        assertEquals(4, service.countOrdersWithStatus(OrderStatus.DELIVERED));
+    }
+
+    @Test
+    public void testAgedRunIsReleased_metricsCountIt() throws InterruptedException {
+        try (DeliveryDispatcher dispatcher = DeliveryDispatcher.builder()
+                .service(service)
+                .runSize(10)
+                .maxAge(Duration.ofMillis(50))
+                .runners(1)
+                .build()) {
+            UUID orderId = preparingOrder(3, 7);
+            dispatcher.ready(orderId);
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            // the runner counts the order right after the service delivered it
+            DeliveryMetrics metrics = dispatcher.getMetrics();
+            while (metrics.ordersDelivered() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+                metrics = dispatcher.getMetrics();
+            }
+            assertTrue(service.listOrdersWithStatus(OrderStatus.DELIVERED).contains(orderId));
+            assertEquals(1, metrics.runsReleased());
+            assertEquals(1, metrics.ordersDelivered());
+            assertEquals(0, metrics.waitingOrders());
+            assertTrue(metrics.maxWait().compareTo(Duration.ofMillis(50)) >= 0);
+            assertEquals(1, metrics.ordersPerHourByRunner().size());
+            assertTrue(metrics.ordersPerHourByRunner().get(0) > 0);
+        }
+    }
+
+    private UUID preparingOrder(int building, int room) {
+        OrderDTO order = service.createOrder(building, room);
+        service.addPancakes(order.id(), List.of("dark chocolate"), 1);
+        service.completeOrder(order.id());
+        service.prepareOrder(order.id());
+        return order.id();
+    }
+}
@@ -0,0 +1,62 @@
+package org.pancakelab.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTest {
+
+    @Test
+    public void testWriter_escapesAndEncodesUtf8() throws Exception {
+        UUID id = UUID.randomUUID();
+        JsonWriter json = new JsonWriter(4);
+        json.beginObject()
+                .name("text").value("quote \" slash \\ tab \t é € 🥞")
+                .name("id").value(id)
+                .name("numbers").beginArray().value(0).value(-42).value(Long.MAX_VALUE).endArray()
+                .name("empty").beginObject().endObject()
+                .name("flag").value(true)
+                .name("nothing").nullValue()
+                .endObject();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        json.writeTo(out);
+        String text = out.toString(StandardCharsets.UTF_8);
+
+        assertEquals("{\"text\":\"quote \\\" slash \\\\ tab \\u0009 é € 🥞\",\"id\":\"" + id + "\","
+                + "\"numbers\":[0,-42," + Long.MAX_VALUE + "],\"empty\":{},\"flag\":true,\"nothing\":null}", text);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> parsed = (Map<String, Object>) JsonReader.parse(text);
+        assertEquals("quote \" slash \\ tab \t é € 🥞", parsed.get("text"));
+        assertEquals(List.of(0L, -42L, Long.MAX_VALUE), parsed.get("numbers"));
+        assertNull(parsed.get("nothing"));
+
+        json.reset();
+        json.beginArray().value("again").endArray();
+        out.reset();
+        json.writeTo(out);
+        assertEquals("[\"again\"]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReader_rejectsInvalidJson() {
+        assertThrows(IllegalArgumentException.class, () -> JsonReader.parse("{\"a\":1,}"));
+        assertThrows(IllegalArgumentException.class, () -> JsonReader.parse("[1 2]"));
+        assertThrows(IllegalArgumentException.class, () -> JsonReader.parse("{\"quantity\":1.5}"));
+        assertThrows(IllegalArgumentException.class, () -> JsonReader.parse("\"open"));
+        assertThrows(IllegalArgumentException.class, () -> JsonReader.parse(""));
+    }
+
+    @Test
+    public void testReader_limitsNesting() {
+        String deepest = "[".repeat(JsonReader.MAX_DEPTH) + "]".repeat(JsonReader.MAX_DEPTH);
+        assertDoesNotThrow(() -> JsonReader.parse(deepest));
+        assertThrows(IllegalArgumentException.class, () -> JsonReader.parse("[" + deepest + "]"));
+        assertThrows(IllegalArgumentException.class, () -> JsonReader.parse("{\"a\":".repeat(100_000)));
+    }
+}
@@ -0,0 +1,142 @@
+package org.pancakelab.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.service.OrderLogger;
+import org.pancakelab.service.PancakeServiceImpl;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PancakeHttpServerTest {
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private PancakeHttpServer server;
+
+    @BeforeEach
+    public void setUp() {
+        server = PancakeHttpServer.builder()
+                .service(PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).build())
+                .port(0)
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testOrderLifecycle_overHttp() throws Exception {
+        HttpResponse<String> created = send("POST", "/orders", "{\"building\":1,\"room\":2}");
+        assertEquals(201, created.statusCode());
+        String orderId = (String) object(created.body()).get("id");
+
+        assertEquals(204, send("POST", "/orders/" + orderId + "/pancakes",
+                "{\"ingredients\":[\"dark chocolate\"],\"quantity\":3}").statusCode());
+        assertEquals(204, send("POST", "/orders/" + orderId + "/pancakes/remove",
+                "{\"description\":\"Delicious pancake with dark chocolate!\",\"quantity\":1}").statusCode());
+        assertEquals("{\"orderId\":\"" + orderId + "\",\"pancakeCounts\":{\"Delicious pancake with dark chocolate!\":2},"
+                + "\"totalPancakes\":2}", send("GET", "/orders/" + orderId + "/summary", null).body());
+        assertEquals("[\"" + orderId + "\"]", send("GET", "/orders?building=1&status=new", null).body());
+
+        assertEquals(204, send("POST", "/orders/" + orderId + "/complete", null).statusCode());
+        assertEquals("[{\"value\":\"" + orderId + "\"}]",
+                send("POST", "/orders/prepare", "[\"" + orderId + "\"]").body());
+        HttpResponse<String> delivered = send("POST", "/orders/" + orderId + "/deliver", null);
+        Map<String, Object> order = object(delivered.body());
+        assertEquals("DELIVERED", order.get("status"));
+        assertEquals(2, ((List<?>) order.get("pancakes")).size());
+        assertEquals("{\"count\":1}", send("GET", "/orders/count?status=DELIVERED", null).body());
+    }
+
+    @Test
+    public void testFailures_answerWithStatusAndMessage() throws Exception {
+        String orderId = (String) object(send("POST", "/orders", "{\"building\":1,\"room\":2}").body()).get("id");
+
+        HttpResponse<String> conflict = send("POST", "/orders/" + orderId + "/deliver", null);
+        assertEquals(409, conflict.statusCode());
+        assertEquals("Order must be PREPARING (current: NEW)", object(conflict.body()).get("error"));
+        assertEquals(400, send("POST", "/orders", "{\"building\":1}").statusCode());
+        assertEquals(400, send("POST", "/orders", "{\"building\":").statusCode());
+        assertEquals(400, send("GET", "/orders/not-an-id", null).statusCode());
+        assertEquals(404, send("GET", "/orders/" + orderId + "/nothing", null).statusCode());
+        assertEquals(405, send("DELETE", "/orders/" + orderId, null).statusCode());
+        assertEquals("[{\"error\":\"Quantity must be positive\"}]", send("POST", "/orders/" + orderId + "/pancakes",
+                "[{\"ingredients\":[\"dark chocolate\"],\"quantity\":0}]").body());
+    }
+
+    @Test
+    public void testOversizedOrNestedBodies_areRefused() throws Exception {
+        String tooLarge = "[" + "\"x\",".repeat(OrderHandler.MAX_BODY_BYTES / 4) + "\"x\"]";
+        HttpResponse<String> refused = send("POST", "/orders/batch", tooLarge);
+        assertEquals(413, refused.statusCode());
+        assertEquals("close", refused.headers().firstValue("Connection").orElse(null));
+        assertEquals(400, send("POST", "/orders/batch", "[".repeat(100_000)).statusCode());
+        assertEquals(201, send("POST", "/orders", "{\"building\":1,\"room\":2}").statusCode(), "Server still answers");
+    }
+
+    // every request goes over one socket, each one only gets an answer if the one before left the connection open
+    @Test
+    public void testKeepAlive_servesRequestsOnOneConnection() throws Exception {
+        try (Socket socket = new Socket(server.getAddress().getAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String body = "{\"building\":1,\"room\":2}";
+
+            out.write(("POST /orders HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + body.length() + "\r\n\r\n" + body)
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            String orderId = (String) object(readResponse(in, "HTTP/1.1 201 Created")).get("id");
+            // no body in the answer, the server is done with the exchange once the headers are out
+            out.write(("POST /orders/" + orderId + "/cancel HTTP/1.1\r\nHost: localhost\r\nContent-Length: 0\r\n\r\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("", readResponse(in, "HTTP/1.1 204 No Content"));
+            out.write(("GET /orders/" + orderId + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("CANCELLED", object(readResponse(in, "HTTP/1.1 200 OK")).get("status"));
+        }
+    }
+
+    private static String readResponse(BufferedReader in, String statusLine) throws Exception {
+        assertEquals(statusLine, in.readLine());
+        int length = 0;
+        for (String header = in.readLine(); !header.isEmpty(); header = in.readLine()) {
+            if (header.toLowerCase().startsWith("content-length:")) {
+                length = Integer.parseInt(header.substring(15).trim());
+            }
+        }
+        char[] body = new char[length];
+        int read = 0;
+        while (read < length) {
+            read += in.read(body, read, length - read);
+        }
+        return new String(body);
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> object(String json) {
+        return (Map<String, Object>) JsonReader.parse(json);
+    }
+}
@@ -0,0 +1,200 @@
+package org.pancakelab.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.OrderLogger;
+import org.pancakelab.service.PancakeServiceImpl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileJournalTest {
+    private static final List<String> DARK_CHOCOLATE = List.of("dark chocolate");
+    private static final List<String> MILK_CHOCOLATE_HAZELNUTS = List.of("milk chocolate", "hazelnuts");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecovery_fromJournalOnly() {
+        Map<UUID, OrderDTO> expected;
+        try (FileJournal journal = openJournal()) {
+            PancakeServiceImpl service = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).journal(journal).build();
+            List<UUID> orders = runWorkload(service);
+            expected = statusesOf(service, orders);
+        }
+
+        try (FileJournal journal = openJournal()) {
+            PancakeServiceImpl recovered = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).journal(journal).build();
+            assertEquals(expected, statusesOf(recovered, expected.keySet()));
+            assertStatusListsEqual(expected, recovered);
+        }
+    }
+
+    @Test
+    public void testRecovery_fromSnapshotAndJournalTail() throws IOException {
+        Map<UUID, OrderDTO> expected;
+        try (FileJournal journal = openJournal()) {
+            PancakeServiceImpl service = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).journal(journal).build();
+            List<UUID> orders = new ArrayList<>(runWorkload(service));
+            service.takeSnapshot();
+            orders.addAll(runWorkload(service));
+            expected = statusesOf(service, orders);
+        }
+        assertEquals(1, countFiles("snapshot-"), "Only latest snapshot should be kept");
+        assertEquals(1, countFiles("segment-"), "Segments covered by the snapshot should be removed");
+
+        try (FileJournal journal = openJournal()) {
+            PancakeServiceImpl recovered = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).journal(journal).build();
+            assertEquals(expected, statusesOf(recovered, expected.keySet()));
+            assertStatusListsEqual(expected, recovered);
+        }
+    }
+
+    @Test
+    public void testRecovery_tornRecordIsIgnored() throws IOException {
+        UUID kept;
+        try (FileJournal journal = openJournal()) {
+            PancakeServiceImpl service = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).journal(journal).build();
+            kept = service.createOrder(1, 1).id();
+            service.addPancakes(kept, DARK_CHOCOLATE, 2);
+        }
+        appendTornRecord(37);
+
+        try (FileJournal journal = openJournal()) {
+            PancakeServiceImpl recovered = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).journal(journal).build();
+            assertEquals(2, recovered.viewOrder(kept).size());
+            UUID next = recovered.createOrder(2, 2).id();
+            assertEquals(OrderStatus.NEW.name(), recovered.getOrderStatus(next).status());
+        }
+        try (FileJournal journal = openJournal()) {
+            PancakeServiceImpl recovered = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).journal(journal).build();
+            assertEquals(2, recovered.listOrdersWithStatus(OrderStatus.NEW).size());
+        }
+    }
+
+    @Test
+    public void testRecovery_tornLengthPastSegmentEndIsIgnored() throws IOException {
+        UUID kept;
+        try (FileJournal journal = openJournal()) {
+            PancakeServiceImpl service = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).journal(journal).build();
+            kept = service.createOrder(1, 1).id();
+        }
+        appendTornRecord(Integer.MAX_VALUE - 4);
+
+        try (FileJournal journal = openJournal()) {
+            PancakeServiceImpl recovered = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).journal(journal).build();
+            assertEquals(Set.of(kept), recovered.listOrdersWithStatus(OrderStatus.NEW));
+        }
+    }
+
+    @Test
+    public void testReadingPancakes_appendsNothing() throws IOException {
+        try (FileJournal journal = openJournal()) {
+            PancakeServiceImpl service = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).journal(journal).build();
+            UUID orderId = service.createOrder(1, 1).id();
+            service.addPancakes(orderId, DARK_CHOCOLATE, 50);
+            Path segment;
+            try (Stream<Path> files = Files.list(directory)) {
+                segment = files.filter(p -> p.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+            }
+            byte[] before = Files.readAllBytes(segment);
+            assertEquals(50, service.getOrderStatus(orderId).pancakes().size());
+            service.getPancakeDescriptions(orderId);
+            assertArrayEquals(before, Files.readAllBytes(segment), "Pancake ids should not be journaled");
+        }
+    }
+
+    // every kind of change, including pancake ids that were given out and pancakes removed by id afterwards
+    private List<UUID> runWorkload(PancakeServiceImpl service) {
+        UUID delivered = service.createOrder(1, 10).id();
+        service.addPancakes(delivered, DARK_CHOCOLATE, 3);
+        service.completeOrder(delivered);
+        service.prepareOrder(delivered);
+        service.deliverOrder(delivered);
+
+        UUID cancelled = service.createOrder(2, 20).id();
+        service.addPancakes(cancelled, DARK_CHOCOLATE, 1);
+        service.cancelOrder(cancelled);
+
+        UUID preparing = service.createOrder(3, 30).id();
+        service.addPancakes(preparing, MILK_CHOCOLATE_HAZELNUTS, 4);
+        service.removePancake(preparing, List.of("hazelnuts", "milk chocolate"));
+        service.completeOrder(preparing);
+        service.prepareOrder(preparing);
+
+        UUID open = service.createOrder(4, 40).id();
+        service.addPancakes(open, DARK_CHOCOLATE, 2);
+        service.getPancakeDescriptions(open);
+        service.addPancakes(open, MILK_CHOCOLATE_HAZELNUTS, 5);
+        service.addPancakes(open, DARK_CHOCOLATE, 2);
+        UUID firstPancake = service.getOrderStatus(open).pancakes().get(0).pancakeId();
+        service.removePancake(open, firstPancake);
+        service.removePancakes("Delicious pancake with milk chocolate, hazelnuts!", open, 2);
+
+        UUID completed = service.createOrder(5, 50).id();
+        service.addPancakes(completed, DARK_CHOCOLATE, 1);
+        service.completeOrder(completed);
+        return List.of(delivered, cancelled, preparing, open, completed);
+    }
+
+    private static Map<UUID, OrderDTO> statusesOf(PancakeServiceImpl service, Collection<UUID> orders) {
+        Map<UUID, OrderDTO> statuses = new HashMap<>();
+        for (UUID orderId : orders) {
+            statuses.put(orderId, service.getOrderStatus(orderId));
+        }
+        return statuses;
+    }
+
+    private static void assertStatusListsEqual(Map<UUID, OrderDTO> expected, PancakeServiceImpl recovered) {
+        for (OrderStatus status : OrderStatus.values()) {
+            Set<UUID> withStatus = new HashSet<>();
+            expected.forEach((id, order) -> {
+                if (order.status().equals(status.name())) {
+                    withStatus.add(id);
+                }
+            });
+            assertEquals(withStatus, recovered.listOrdersWithStatus(status));
+        }
+    }
+
+    // header of a record that was never finished, right after the last complete one
+    private void appendTornRecord(int length) throws IOException {
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(p -> p.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int end = 0;
+            while (buffer.get(end + Integer.BYTES) != 0) {
+                end += Integer.BYTES + 1 + buffer.getInt(end) + Integer.BYTES;
+            }
+            buffer.putInt(end, length).put(end + Integer.BYTES, (byte) 1).putLong(end + 5, 42L);
+        }
+    }
+
+    private FileJournal openJournal() {
+        return FileJournal.builder(directory)
+                .segmentSize(64 * 1024)
+                .syncInterval(Duration.ZERO)
+                .build();
+    }
+
+    private long countFiles(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.pancakelab.kitchen;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.OrderLogger;
+import org.pancakelab.service.PancakeServiceImpl;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KitchenTest {
+    private static final String DARK = "Delicious pancake with dark chocolate!";
+    private static final String MILK = "Delicious pancake with milk chocolate!";
+
+    private final PancakeService service = new PancakeServiceImpl(OrderLogger.getInstance());
+
+    @Test
+    public void testBatchesHoldOneRecipe_orderIsReadyAfterItsLastBatch() throws InterruptedException {
+        OrderDTO first = completedOrder(3, 2);
+        OrderDTO second = completedOrder(3, 0);
+        ConcurrentLinkedQueue<String> batches = new ConcurrentLinkedQueue<>();
+        Set<UUID> ready = ConcurrentHashMap.newKeySet();
+        CountDownLatch allReady = new CountDownLatch(2);
+
+        try (Kitchen kitchen = Kitchen.builder()
+                .service(service)
+                .batchSize(4)
+                .maxWait(Duration.ofMillis(200))
+                .cooks(2)
+                .griddle((description, quantity) -> batches.add(quantity + " x " + description))
+                .onReady(orderId -> {
+                    ready.add(orderId);
+                    allReady.countDown();
+                })
+                .build()) {
+            assertEquals(2, kitchen.submitCompleted());
+            assertEquals(Set.of(first.id(), second.id()), service.listOrdersWithStatus(OrderStatus.PREPARING));
+            assertTrue(allReady.await(5, TimeUnit.SECONDS));
+
+            assertEquals(Set.of(first.id(), second.id()), ready);
+            // six dark chocolate pancakes make one full batch and one that left after max wait
+            assertTrue(batches.containsAll(List.of("4 x " + DARK, "2 x " + DARK, "2 x " + MILK)), batches.toString());
+            assertEquals(3, batches.size());
+
+            KitchenMetrics metrics = kitchen.getMetrics();
+            assertEquals(2, metrics.ordersReceived());
+            assertEquals(2, metrics.ordersReady());
+            assertEquals(0, metrics.ordersFailed());
+            assertEquals(8, metrics.pancakesCooked());
+            assertEquals(0, metrics.queuedPancakes());
+            assertTrue(metrics.maxQueueLatency().compareTo(Duration.ofMillis(200)) >= 0, "Partial batch waited max wait");
+        }
+        try (Kitchen kitchen = Kitchen.builder().service(service).build()) {
+            assertThrows(IllegalStateException.class, () -> kitchen.submit(first.id()), "Order is already PREPARING");
+        }
+    }
+
+    @Test
+    public void testFailedBatch_isRetriedThenOrderIsHandedToFailureListenerOnce() throws InterruptedException {
+        OrderDTO failing = completedOrder(1, 3);
+        OrderDTO cooked = completedOrder(2, 0);
+        AtomicInteger darkFailures = new AtomicInteger();
+        Set<UUID> ready = ConcurrentHashMap.newKeySet();
+        ConcurrentLinkedQueue<UUID> failed = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(2);
+
+        try (Kitchen kitchen = Kitchen.builder()
+                .service(service)
+                .batchSize(2)
+                .maxWait(Duration.ofMillis(20))
+                .maxAttempts(2)
+                .griddle((description, quantity) -> {
+                    // milk chocolate never cooks, dark chocolate fails once and then cooks
+                    if (description.equals(MILK) || darkFailures.getAndIncrement() == 0) {
+                        throw new IllegalStateException("Griddle is cold");
+                    }
+                })
+                .onReady(orderId -> {
+                    ready.add(orderId);
+                    done.countDown();
+                })
+                .onFailed(orderId -> {
+                    failed.add(orderId);
+                    done.countDown();
+                })
+                .build()) {
+            kitchen.submit(failing.id());
+            kitchen.submit(cooked.id());
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            kitchen.close();
+
+            assertEquals(List.of(failing.id()), List.copyOf(failed), "Both milk chocolate batches failed, the order fails once");
+            assertEquals(Set.of(cooked.id()), ready);
+            assertEquals(2, kitchen.getMetrics().failedBatches());
+            assertEquals(1, kitchen.getMetrics().ordersFailed());
+        }
+        assertEquals(OrderStatus.PREPARING.name(), service.getOrderStatus(failing.id()).status());
+    }
+
+    @Test
+    public void testOrderDeliveredBeforeItIsRead_isNotReady() {
+        OrderDTO order = completedOrder(2, 0);
+        // somebody else delivers the order right after the kitchen moved it to PREPARING
+        PancakeService racing = (PancakeService) Proxy.newProxyInstance(PancakeService.class.getClassLoader(),
+                new Class<?>[] {PancakeService.class}, (proxy, method, args) -> {
+                    try {
+                        Object result = method.invoke(service, args);
+                        if (method.getName().equals("prepareOrder")) {
+                            service.deliverOrder((UUID) args[0]);
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        Set<UUID> ready = ConcurrentHashMap.newKeySet();
+
+        try (Kitchen kitchen = Kitchen.builder().service(racing).onReady(ready::add).build()) {
+            kitchen.submit(order.id());
+
+            assertEquals(Set.of(), ready);
+            assertEquals(0, kitchen.getMetrics().ordersReceived());
+            assertEquals(0, kitchen.getMetrics().ordersReady());
+        }
+        assertEquals(OrderStatus.DELIVERED.name(), service.getOrderStatus(order.id()).status());
+    }
+
+    private OrderDTO completedOrder(int dark, int milk) {
+        OrderDTO order = service.createOrder(1, 1);
+        service.addPancakes(order.id(), List.of("dark chocolate"), dark);
+        if (milk > 0) {
+            service.addPancakes(order.id(), List.of("milk chocolate"), milk);
+        }
+        service.completeOrder(order.id());
+        return order;
+    }
+}
@@ -0,0 +1,44 @@
+package org.pancakelab.load;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles_stayWithinBucketPrecision() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            (micros % 2 == 0 ? first : second).record(micros * 1_000);
+        }
+        first.add(second);
+
+        assertEquals(10_000, first.getCount());
+        assertEquals(10_000_000, first.getMax());
+        assertWithinPrecision(5_000_000, first.getValueAtPercentile(50));
+        assertWithinPrecision(9_900_000, first.getValueAtPercentile(99));
+        assertWithinPrecision(9_990_000, first.getValueAtPercentile(99.9));
+        assertEquals(10_000_000, first.getValueAtPercentile(100));
+        assertEquals(5_000_500, first.getMean(), 1);
+    }
+
+    @Test
+    public void testBuckets_coverEveryValue() {
+        long previousIndex = -1;
+        for (long value : new long[]{0, 1, 127, 128, 130, 255, 256, 1L << 40, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index > previousIndex, "Buckets grow with values");
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+            previousIndex = index;
+        }
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram().record(-1));
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 64,
+                "Expected " + expected + " within 1/64 but was " + actual);
+    }
+}
@@ -0,0 +1,60 @@
+package org.pancakelab.load;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.OrderLogger;
+import org.pancakelab.service.PancakeServiceImpl;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void testRun_everyOrderIsDeliveredOrCancelled() {
+        PancakeServiceImpl service = new PancakeServiceImpl(OrderLogger.getInstance());
+        LoadReport report = new LoadGenerator(service).run(Workload.builder()
+                .workers(2)
+                .ordersPerSecond(200)
+                .duration(Duration.ofMillis(300))
+                .maxPancakes(3)
+                .removeRate(0.5)
+                .cancelRate(0.2)
+                .build());
+        OrderLogger.getInstance().clearLogs();
+
+        assertTrue(report.orders() > 0);
+        LoadReport.Stats created = report.operations().get(Operation.CREATE);
+        assertEquals(report.orders(), created.count());
+        assertEquals(report.orders(), service.countOrdersWithStatus(OrderStatus.DELIVERED)
+                + service.countOrdersWithStatus(OrderStatus.CANCELLED));
+        for (LoadReport.Stats stats : report.operations().values()) {
+            assertEquals(0, stats.errors());
+            assertTrue(stats.p50() <= stats.p99() && stats.p99() <= stats.max());
+        }
+        assertTrue(report.format().contains("DELIVER"));
+    }
+
+    @Test
+    public void testThinkTime_doesNotDelayNextOrder() {
+        PancakeServiceImpl service = new PancakeServiceImpl(OrderLogger.getInstance());
+        Duration thinkTime = Duration.ofMillis(100);
+        Workload workload = Workload.builder()
+                .workers(1)
+                .ordersPerSecond(50)
+                .duration(Duration.ofMillis(400))
+                .thinkTime(thinkTime)
+                .build();
+        LoadGenerator generator = new LoadGenerator(service);
+        generator.run(workload); // warms up, first calls load classes
+        LoadReport report = generator.run(workload);
+        OrderLogger.getInstance().clearLogs();
+
+        assertEquals(20, report.orders());
+        assertEquals(40, service.countOrdersWithStatus(OrderStatus.DELIVERED)
+                + service.countOrdersWithStatus(OrderStatus.CANCELLED));
+        assertTrue(report.operations().get(Operation.CREATE).p50() < thinkTime.toNanos(),
+                "Creating is not timed through think time of other orders");
+    }
+}
@@ -0,0 +1,108 @@
+package org.pancakelab.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.service.OrderLogger;
+import org.pancakelab.service.PancakeServiceImpl;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.pancakelab.service.PancakeServiceTest.DARK_CHOCOLATE_INGREDIENT;
+import static org.pancakelab.service.PancakeServiceTest.MILK_CHOCOLATE_INGREDIENT;
+
+public class MetricsPancakeServiceTest {
+
+    // the default times every call, so every latency is there to check
+    private MetricsPancakeService newService() {
+        return new MetricsPancakeService(PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).build());
+    }
+
+    @Test
+    public void testLifecycle_countsCallsGaugesAndPancakesInFlight() {
+        MetricsPancakeService pancakeService = newService();
+        PancakeServiceMetrics metrics = pancakeService.getMetrics();
+
+        OrderDTO delivered = pancakeService.createOrder(1, 1);
+        pancakeService.addPancakes(delivered.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 3);
+        pancakeService.removePancake(delivered.id(), List.of(DARK_CHOCOLATE_INGREDIENT));
+        OrderDTO cancelled = pancakeService.createOrder(1, 2);
+        pancakeService.addPancakes(cancelled.id(), List.of(MILK_CHOCOLATE_INGREDIENT), 4);
+        assertEquals(6, metrics.getPancakesInFlight());
+        assertEquals(2, metrics.getActiveOrders());
+
+        pancakeService.completeOrder(delivered.id());
+        pancakeService.prepareOrder(delivered.id());
+        pancakeService.deliverOrder(delivered.id());
+        pancakeService.cancelOrder(cancelled.id());
+
+        assertEquals(0, metrics.getPancakesInFlight());
+        assertEquals(0, metrics.getActiveOrders());
+        assertEquals(2, metrics.getFinishedOrders());
+        assertEquals(2, metrics.getCalls(ServiceMethod.CREATE_ORDER));
+        assertEquals(2, metrics.getCalls().get("addPancakes"));
+        assertEquals(0, metrics.getErrors().get("addPancakes"));
+        assertTrue(metrics.getMaxLatencyNanos().get("deliverOrder") > 0);
+    }
+
+    @Test
+    public void testCancel_takesOutOnlyPancakesCountedForTheOrder() {
+        PancakeServiceImpl plain = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).build();
+        OrderDTO before = plain.createOrder(1, 1);
+        plain.addPancakes(before.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 5);
+        MetricsPancakeService pancakeService = new MetricsPancakeService(plain, 1);
+        PancakeServiceMetrics metrics = pancakeService.getMetrics();
+        OrderDTO after = pancakeService.createOrder(1, 2);
+        pancakeService.addPancakes(after.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 2);
+
+        pancakeService.removePancake(before.id(), List.of(DARK_CHOCOLATE_INGREDIENT));
+        pancakeService.cancelOrder(before.id());
+        assertEquals(2, metrics.getPancakesInFlight(), "Pancakes added before wrapping were never counted");
+        pancakeService.cancelOrder(after.id());
+        assertEquals(0, metrics.getPancakesInFlight());
+        metrics.pancakesEntered(after.id(), 3); // an add that raced the cancel and was recorded after it
+        assertEquals(0, metrics.getPancakesInFlight(), "A finished order gets no tally back");
+    }
+
+    @Test
+    public void testFailedCalls_areSplitIntoInvalidTransitionsAndRejectedValidations() {
+        MetricsPancakeService pancakeService = newService();
+        PancakeServiceMetrics metrics = pancakeService.getMetrics();
+        OrderDTO order = pancakeService.createOrder(1, 1);
+
+        assertThrows(IllegalStateException.class, () -> pancakeService.deliverOrder(order.id()));
+        assertThrows(IllegalArgumentException.class, () -> pancakeService.completeOrder(UUID.randomUUID()));
+        assertThrows(IllegalArgumentException.class,
+                () -> pancakeService.addPancakes(order.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 0));
+        pancakeService.addPancakes(order.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 1);
+        pancakeService.completeOrder(order.id());
+        assertThrows(IllegalStateException.class,
+                () -> pancakeService.addPancakes(order.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 1));
+
+        assertEquals(1, metrics.getInvalidTransitions());
+        assertEquals(3, metrics.getRejectedValidations());
+        assertEquals(1, metrics.getErrors(ServiceMethod.DELIVER_ORDER));
+        assertEquals(2, metrics.getCalls(ServiceMethod.COMPLETE_ORDER));
+        assertEquals(1, metrics.getPancakesInFlight());
+        assertTrue(metrics.snapshot().contains("pancakelab_call_errors_total{method=\"addPancakes\"} 2\n"));
+        assertTrue(metrics.snapshot().contains("pancakelab_invalid_transitions_total 1\n"));
+    }
+
+    @Test
+    public void testRegisterMBean_exposesMetricsOverJmx() throws Exception {
+        MetricsPancakeService pancakeService = newService();
+        pancakeService.createOrder(1, 1);
+
+        ObjectName name = pancakeService.getMetrics().registerMBean("metrics-test");
+        try {
+            assertEquals(1, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ActiveOrders"));
+            assertThrows(IllegalStateException.class, () -> pancakeService.getMetrics().registerMBean("metrics-test"));
+        } finally {
+            pancakeService.getMetrics().unregisterMBean(name);
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
@@ -0,0 +1,75 @@
+package org.pancakelab.model;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.model.interfaces.IdGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdGeneratorsTest {
+
+    @Test
+    public void testTimeOrdered_idsAreVersion7AndIncreasing() {
+        IdGenerator generator = IdGenerators.timeOrdered();
+        UUID previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = generator.nextId();
+            assertEquals(7, next.version());
+            assertEquals(2, next.variant());
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), next.getMostSignificantBits()) < 0,
+                    "Ids should grow with time");
+            previous = next;
+        }
+    }
+
+    @Test
+    public void testSequence_threadsLeaveNoStateBehind() throws InterruptedException {
+        IdGenerator generator = IdGenerators.sequence();
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        for (int t = 0; t < 2_000; t++) {
+            Thread thread = new Thread(() -> {
+                ids.add(generator.nextId());
+                ids.add(generator.nextId());
+            });
+            thread.start();
+            thread.join();
+        }
+        assertEquals(4_000, ids.size(), "Ids should be unique across short lived threads");
+        ids.forEach(id -> {
+            assertEquals(8, id.version());
+            assertEquals(2, id.variant());
+        });
+    }
+
+    @Test
+    void testConcurrentGeneration_idsAreUnique() throws InterruptedException, ExecutionException {
+        for (IdGenerator generator : List.of(IdGenerators.random(), IdGenerators.timeOrdered(), IdGenerators.sequence())) {
+            int threadCount = 16;
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            try {
+                List<Future<List<UUID>>> futures = new ArrayList<>();
+                for (int t = 0; t < threadCount; t++) {
+                    futures.add(executor.submit(() -> {
+                        List<UUID> ids = new ArrayList<>();
+                        for (int i = 0; i < 5_000; i++) {
+                            ids.add(generator.nextId());
+                        }
+                        return ids;
+                    }));
+                }
+                Set<UUID> ids = ConcurrentHashMap.newKeySet();
+                for (Future<List<UUID>> future : futures) {
+                    future.get().forEach(id -> assertTrue(ids.add(id), "Ids should be unique"));
+                }
+            } finally {
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            }
+        }
+    }
+}
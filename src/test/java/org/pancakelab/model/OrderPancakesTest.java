@@ -0,0 +1,142 @@
+package org.pancakelab.model;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderPancakesTest {
+    private static final Recipe DARK = PancakeFactory.getRecipe(List.of(Ingredient.DARK_CHOCOLATE));
+    private static final Recipe MILK_HAZELNUTS =
+            PancakeFactory.getRecipe(List.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS));
+    private static final Recipe HAZELNUTS_MILK =
+            PancakeFactory.getRecipe(List.of(Ingredient.HAZELNUTS, Ingredient.MILK_CHOCOLATE));
+
+    @Test
+    public void testRemovals_keepOrderOfRemainingPancakes() {
+        OrderPancakes pancakes = new OrderPancakes(UUID.randomUUID());
+        pancakes.add(DARK, 2);
+        pancakes.add(HAZELNUTS_MILK, 1);
+        pancakes.add(MILK_HAZELNUTS, 2);
+        pancakes.add(DARK, 3);
+        List<Pancake> identified = pancakes.getPancakes();
+        pancakes.add(DARK, 2);
+
+        assertSame(HAZELNUTS_MILK, pancakes.removeFirst(MILK_HAZELNUTS.getMask()), "First matching pancake goes first");
+        assertEquals(identified.get(5).getPancakeId(), pancakes.remove(identified.get(5).getPancakeId()).getPancakeId());
+        assertNull(pancakes.remove(identified.get(5).getPancakeId()));
+        assertEquals(6, pancakes.remove(DARK, 7), "Nothing is removed when there are not enough");
+        assertEquals(6, pancakes.remove(DARK, 4));
+
+        assertEquals(List.of(MILK_HAZELNUTS.getDescription(), MILK_HAZELNUTS.getDescription(),
+                DARK.getDescription(), DARK.getDescription()), pancakes.getDescriptions());
+        List<UUID> ids = pancakes.getPancakes().stream().map(Pancake::getPancakeId).toList();
+        assertEquals(List.of(identified.get(3).getPancakeId(), identified.get(4).getPancakeId()), ids.subList(0, 2));
+        assertEquals(4, pancakes.size());
+    }
+
+    @Test
+    public void testRemoveFirst_matchesIngredientsInAnyOrder() {
+        OrderPancakes pancakes = new OrderPancakes(UUID.randomUUID());
+        pancakes.add(DARK, 1);
+        pancakes.add(MILK_HAZELNUTS, 1);
+
+        assertNull(pancakes.removeFirst(Ingredient.maskOf(List.of("milk chocolate"))), "A subset does not match");
+        assertNull(pancakes.removeFirst(Ingredient.maskOf(List.of("milk chocolate", "hazelnuts", "whipped cream"))));
+        assertNull(pancakes.removeFirst(Ingredient.maskOf(List.of("hazelnuts", "maple syrup"))));
+        assertSame(MILK_HAZELNUTS, pancakes.removeFirst(Ingredient.maskOf(List.of("hazelnuts", "milk chocolate"))));
+        assertTrue(PancakeFactory.isValidRecipe(HAZELNUTS_MILK, List.of("milk chocolate", "hazelnuts")));
+        assertFalse(PancakeFactory.isValidRecipe(DARK, List.of("dark chocolate", "hazelnuts")));
+        assertEquals(List.of(DARK.getDescription()), pancakes.getDescriptions());
+    }
+
+    @Test
+    public void testViews_followAddsAndRemovals() {
+        OrderPancakes pancakes = new OrderPancakes(UUID.randomUUID());
+        pancakes.add(DARK, 2);
+        pancakes.add(MILK_HAZELNUTS, 1);
+        pancakes.add(DARK, 3);
+        pancakes.getPancakes(); // single pancakes with ids are merged back into runs
+        pancakes.add(DARK, 1);
+        pancakes.remove(MILK_HAZELNUTS, 1);
+        pancakes.add(MILK_HAZELNUTS, 2);
+
+        assertEquals(Map.of(DARK.getDescription(), 6, MILK_HAZELNUTS.getDescription(), 2),
+                pancakes.getCountsByDescription());
+        List<String> descriptions = pancakes.getDescriptions();
+        assertEquals(8, descriptions.size());
+        assertEquals(DARK.getDescription(), descriptions.get(5));
+        assertEquals(MILK_HAZELNUTS.getDescription(), descriptions.get(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> descriptions.get(8));
+        assertEquals(List.of(DARK.getDescription()), pancakes.getDescriptions().subList(0, 1));
+        long version = pancakes.getVersion();
+        pancakes.getDescriptions();
+        assertEquals(version, pancakes.getVersion(), "Reading does not change the pancakes");
+    }
+
+    @Test
+    public void testRuns_roundTripWithIds() {
+        UUID orderId = UUID.randomUUID();
+        OrderPancakes pancakes = OrderPancakes.withDerivedIds(orderId);
+        pancakes.add(DARK, 3);
+        UUID first = pancakes.getPancakes().get(0).getPancakeId();
+        pancakes.add(DARK, 2);
+        pancakes.add(MILK_HAZELNUTS, 1);
+        pancakes.remove(first);
+        pancakes.remove(MILK_HAZELNUTS, 1);
+
+        OrderPancakes restored = OrderPancakes.withDerivedIds(orderId);
+        restored.restoreNextOrdinal(pancakes.getNextOrdinal());
+        List<Integer> counts = new ArrayList<>();
+        pancakes.forEachRun((recipe, count, ids, ordinal) -> {
+            counts.add(count);
+            restored.restoreRun(recipe, count, ids, ordinal);
+        });
+        assertEquals(List.of(4), counts);
+        assertEquals(pancakes.getDescriptions(), restored.getDescriptions());
+
+        pancakes.add(DARK, 1);
+        restored.add(DARK, 1);
+        assertEquals(idsOf(pancakes), idsOf(restored), "Restored pancakes get the ids the original ones got");
+        assertEquals(OrderPancakes.derivedId(orderId, 6), idsOf(restored).get(4), "Ordinal of a removed pancake is not used again");
+    }
+
+    @Test
+    public void testDerivedIds_sameForSamePancakeWheneverGivenOut() {
+        UUID orderId = UUID.randomUUID();
+        OrderPancakes early = OrderPancakes.withDerivedIds(orderId);
+        OrderPancakes late = OrderPancakes.withDerivedIds(orderId);
+        for (OrderPancakes pancakes : List.of(early, late)) {
+            pancakes.add(DARK, 2);
+            if (pancakes == early) {
+                pancakes.getPancakes();
+            }
+            pancakes.add(MILK_HAZELNUTS, 3);
+            pancakes.remove(DARK, 1);
+        }
+        UUID second = early.getPancakes().get(0).getPancakeId();
+        assertEquals(OrderPancakes.derivedId(orderId, 1), second);
+        late.identifyAll();
+        assertNotNull(late.remove(second), "Pancake is found by the id it got in the other instance");
+        assertNotNull(early.remove(second));
+        assertEquals(idsOf(early), idsOf(late));
+
+        Set<UUID> ids = new HashSet<>(idsOf(late));
+        ids.add(orderId);
+        assertEquals(4, ids.size(), "Ids differ from each other and from the order id");
+        ids.forEach(id -> assertEquals(orderId.version(), id.version()));
+    }
+
+    private static List<UUID> idsOf(OrderPancakes pancakes) {
+        return pancakes.getPancakes().stream().map(Pancake::getPancakeId).toList();
+    }
+}
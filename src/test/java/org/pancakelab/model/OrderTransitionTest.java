@@ -0,0 +1,64 @@
+package org.pancakelab.model;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.model.interfaces.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderTransitionTest {
+
+    @Test
+    public void testTryTransition_reportsFailureWithoutChangingStatus() {
+        Order order = OrderFactory.createOrder(1, 1);
+
+        assertFalse(order.tryTransition(OrderStatus.NEW, OrderStatus.PREPARING), "Transition is not in the table");
+        assertFalse(order.tryTransition(OrderStatus.COMPLETED, OrderStatus.PREPARING), "Order is not COMPLETED");
+        assertEquals(OrderStatus.NEW, order.getStatus());
+
+        assertTrue(order.tryTransition(OrderStatus.NEW, OrderStatus.COMPLETED));
+        assertEquals(OrderStatus.COMPLETED, order.transition(OrderStatus.PREPARING));
+        IllegalStateException exception = assertThrows(IllegalStateException.class, order::cancel);
+        assertEquals("Can only cancel either NEW or COMPLETED orders", exception.getMessage());
+        assertEquals(OrderStatus.PREPARING, order.getStatus());
+    }
+
+    @Test
+    public void testConcurrentTransitions_exactlyOneWinsFromEachStatus() throws InterruptedException, ExecutionException {
+        int threadCount = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int round = 0; round < 200; round++) {
+                Order order = OrderFactory.createOrder(1, 1);
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger completed = new AtomicInteger();
+                AtomicInteger cancelled = new AtomicInteger();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threadCount; t++) {
+                    boolean cancelling = t % 2 == 0;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        if (cancelling ? order.tryTransition(OrderStatus.NEW, OrderStatus.CANCELLED)
+                                : order.tryTransition(OrderStatus.NEW, OrderStatus.COMPLETED)) {
+                            (cancelling ? cancelled : completed).incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                assertEquals(1, completed.get() + cancelled.get());
+                assertEquals(completed.get() == 1 ? OrderStatus.COMPLETED : OrderStatus.CANCELLED, order.getStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
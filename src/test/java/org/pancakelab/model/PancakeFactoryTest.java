@@ -0,0 +1,85 @@
+package org.pancakelab.model;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.model.interfaces.Pancake;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PancakeFactoryTest {
+    private static final List<List<Ingredient>> RECIPES = List.of(
+            List.of(Ingredient.DARK_CHOCOLATE),
+            List.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS),
+            List.of(Ingredient.WHIPPED_CREAM, Ingredient.DARK_CHOCOLATE, Ingredient.HAZELNUTS),
+            List.of(Ingredient.HAZELNUTS, Ingredient.MILK_CHOCOLATE, Ingredient.WHIPPED_CREAM, Ingredient.DARK_CHOCOLATE));
+
+    @Test
+    public void testCreatePancakes_allPancakesShareRecipe() {
+        UUID orderId = UUID.randomUUID();
+        List<Pancake> pancakes = PancakeFactory.createPancakes(orderId, List.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS), 3);
+
+        assertEquals(3, pancakes.size());
+        assertEquals(3, pancakes.stream().map(Pancake::getPancakeId).distinct().count());
+        pancakes.forEach(p -> {
+            assertEquals(orderId, p.getOrderId());
+            assertSame(pancakes.get(0).getRecipe(), p.getRecipe());
+            assertEquals("Delicious pancake with milk chocolate, hazelnuts!", p.getDescription());
+        });
+    }
+
+    @Test
+    public void testCreatePancakes_invalidInputIsRejected() {
+        UUID orderId = UUID.randomUUID();
+        assertThrows(IllegalArgumentException.class, () ->
+                PancakeFactory.createPancakes(orderId, List.of(Ingredient.HAZELNUTS), 0));
+        assertThrows(IllegalStateException.class, () ->
+                PancakeFactory.createPancakes(orderId, List.of(), 1));
+    }
+
+    @Test
+    void testConcurrentPancakeCreation() throws InterruptedException, ExecutionException {
+        int threadCount = 64;
+        int iterations = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<Pancake>>> futures = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                final List<Ingredient> ingredients = RECIPES.get(t % RECIPES.size());
+                final UUID orderId = UUID.randomUUID();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Pancake> created = new ArrayList<>();
+                    for (int i = 0; i < iterations; i++) {
+                        created.add(PancakeFactory.createPancake(orderId, ingredients));
+                        created.addAll(PancakeFactory.createPancakes(orderId, ingredients, 4));
+                    }
+                    return created;
+                }));
+            }
+            start.countDown();
+
+            Set<UUID> ids = ConcurrentHashMap.newKeySet();
+            for (int t = 0; t < threadCount; t++) {
+                List<Ingredient> expected = RECIPES.get(t % RECIPES.size());
+                List<Pancake> created = futures.get(t).get();
+                assertEquals(iterations * 5, created.size());
+                UUID orderId = created.get(0).getOrderId();
+                for (Pancake pancake : created) {
+                    assertEquals(orderId, pancake.getOrderId(), "Pancake must keep the order it was created for");
+                    assertEquals(expected, List.copyOf(pancake.getIngredients()), "Pancake must keep its own ingredients");
+                    assertTrue(ids.add(pancake.getPancakeId()), "Pancake IDs should be unique");
+                }
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+}
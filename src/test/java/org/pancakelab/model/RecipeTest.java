@@ -0,0 +1,45 @@
+package org.pancakelab.model;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.model.interfaces.Pancake;
+import org.pancakelab.model.interfaces.Recipe;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecipeTest {
+
+    @Test
+    public void testGetRecipe_sameIngredientsShareOneRecipe() {
+        Recipe recipe = PancakeFactory.getRecipe(List.of(Ingredient.DARK_CHOCOLATE, Ingredient.WHIPPED_CREAM));
+
+        assertSame(recipe, PancakeFactory.getRecipe(List.of(Ingredient.DARK_CHOCOLATE, Ingredient.WHIPPED_CREAM)));
+        assertSame(recipe, PancakeFactory.getRecipe(
+                List.of(Ingredient.DARK_CHOCOLATE, Ingredient.WHIPPED_CREAM, Ingredient.DARK_CHOCOLATE)),
+                "Duplicate ingredients are ignored");
+        assertSame(recipe, PancakeFactory.getRecipe(recipe.getCode()));
+        assertSame(recipe, PancakeFactory.findRecipe(recipe.getDescription()));
+        assertNotSame(recipe, PancakeFactory.getRecipe(List.of(Ingredient.WHIPPED_CREAM, Ingredient.DARK_CHOCOLATE)),
+                "Ingredient order is part of the recipe");
+
+        Pancake single = PancakeFactory.createPancake(UUID.randomUUID(), List.of(Ingredient.DARK_CHOCOLATE, Ingredient.WHIPPED_CREAM));
+        assertSame(recipe, single.getRecipe());
+    }
+
+    @Test
+    public void testRecipe_keepsDescriptionsOfPancakes() {
+        Recipe recipe = PancakeFactory.getRecipe(List.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS, Ingredient.WHIPPED_CREAM));
+
+        assertEquals("Delicious pancake with milk chocolate, hazelnuts, whipped cream!", recipe.getDescription());
+        assertEquals(List.of("milk chocolate", "hazelnuts", "whipped cream"), recipe.getIngredientNames());
+        assertEquals(List.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS, Ingredient.WHIPPED_CREAM),
+                List.copyOf(recipe.getIngredients()));
+        assertEquals("Delicious pancake with dark chocolate!",
+                PancakeFactory.getRecipe(List.of(Ingredient.DARK_CHOCOLATE)).getDescription());
+        assertNull(PancakeFactory.findRecipe("Delicious pancake with nothing!"));
+        assertThrows(IllegalStateException.class, () -> PancakeFactory.getRecipe(List.of()));
+    }
+}
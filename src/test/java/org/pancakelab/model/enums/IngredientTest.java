@@ -0,0 +1,31 @@
+package org.pancakelab.model.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngredientTest {
+
+    @Test
+    public void testMaskOf_ignoresOrderAndCase() {
+        int mask = Ingredient.DARK_CHOCOLATE.mask() | Ingredient.HAZELNUTS.mask();
+
+        assertEquals(mask, Ingredient.maskOf(List.of("dark chocolate", "hazelnuts")));
+        assertEquals(mask, Ingredient.maskOf(List.of("hazelnuts", "dark chocolate")));
+        assertEquals(mask, Ingredient.maskOf(List.of("Hazelnuts", "DARK CHOCOLATE", "hazelnuts")));
+        assertEquals(0, Ingredient.maskOf(List.of()));
+        for (Ingredient ingredient : Ingredient.values()) {
+            assertEquals(1, Integer.bitCount(ingredient.mask()));
+            assertEquals(ingredient.mask(), Ingredient.maskOf(List.of(ingredient.displayName())));
+        }
+    }
+
+    @Test
+    public void testMaskOf_unknownNameMatchesNothing() {
+        assertEquals(0, Ingredient.maskOf(List.of("dark chocolate", "maple syrup")));
+        assertEquals(0, Ingredient.maskOf(List.of("maple syrup")));
+        assertThrows(IllegalArgumentException.class, () -> Ingredient.fromName("maple syrup"));
+    }
+}
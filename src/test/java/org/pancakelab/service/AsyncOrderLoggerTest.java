@@ -0,0 +1,139 @@
+package org.pancakelab.service;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.model.OrderFactory;
+import org.pancakelab.model.PancakeFactory;
+import org.pancakelab.model.enums.Ingredient;
+import org.pancakelab.model.interfaces.Order;
+import org.pancakelab.model.interfaces.Recipe;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncOrderLoggerTest {
+
+    @Test
+    public void testEventsAreFormattedByConsumer() {
+        StringWriter sink = new StringWriter();
+        try (AsyncOrderLogger logger = AsyncOrderLogger.builder().sink(sink).build()) {
+            Order order = OrderFactory.createOrder(7, 312);
+            Recipe recipe = PancakeFactory.getRecipe(List.of(Ingredient.MILK_CHOCOLATE, Ingredient.HAZELNUTS));
+            logger.logOrderCreated(order);
+            logger.logPancakesAdded(order.getId(), recipe, 3);
+            logger.logPancakesRemoved(order.getId(), recipe, 1);
+            order.complete();
+            logger.logOrderStatusChange(order, "Completed");
+            assertTrue(logger.flush(5, TimeUnit.SECONDS));
+
+            String[] lines = sink.toString().split(System.lineSeparator());
+            assertEquals(4, lines.length);
+            assertTrue(lines[0].endsWith("[CREATE] Order " + order.getId() + " for building 7 room 312"));
+            assertTrue(lines[1].endsWith("[ADD] 3 x Delicious pancake with milk chocolate, hazelnuts! to order " + order.getId()));
+            assertTrue(lines[2].endsWith("[REMOVE] 1 x Delicious pancake with milk chocolate, hazelnuts! from order " + order.getId()));
+            assertTrue(lines[3].endsWith("[STATUS] Order " + order.getId() + " Completed → COMPLETED"));
+            assertEquals(lines[3], logger.getLastLog());
+            assertEquals(4, logger.getWrittenCount());
+            assertEquals(0, logger.getQueueDepth());
+        }
+    }
+
+    @Test
+    public void testBatchesWrapAroundTheRing() {
+        StringWriter sink = new StringWriter();
+        try (AsyncOrderLogger logger = AsyncOrderLogger.builder()
+                .capacity(8)
+                .batchSize(3)
+                .overflowPolicy(AsyncOrderLogger.OverflowPolicy.BLOCK)
+                .sink(sink)
+                .build()) {
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < 21; i++) {
+                orders.add(OrderFactory.createOrder(1, i + 1));
+            }
+            logger.logOrdersCreated(orders);
+            logger.logOrdersCreated(orders.subList(0, 5));
+            assertTrue(logger.flush(5, TimeUnit.SECONDS));
+
+            String[] lines = sink.toString().split(System.lineSeparator());
+            assertEquals(26, lines.length);
+            for (int i = 0; i < lines.length; i++) {
+                Order order = orders.get(i < 21 ? i : i - 21);
+                assertTrue(lines[i].endsWith("[CREATE] Order " + order.getId() + " for building 1 room " + order.getRoom()));
+            }
+            assertEquals(0, logger.getDroppedCount());
+        }
+    }
+
+    @Test
+    public void testDropPolicy_eventsAreDroppedWhenRingIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        try (AsyncOrderLogger logger = AsyncOrderLogger.builder()
+                .capacity(16)
+                .batchSize(1)
+                .overflowPolicy(AsyncOrderLogger.OverflowPolicy.DROP)
+                .sink(new BlockingWriter(release))
+                .build()) {
+            Order order = OrderFactory.createOrder(1, 1);
+            for (int i = 0; i < 100; i++) {
+                logger.logOrderCreated(order);
+            }
+            assertTrue(logger.getDroppedCount() > 0, "Full ring should drop events");
+            release.countDown();
+            assertTrue(logger.flush(5, TimeUnit.SECONDS));
+            assertEquals(100, logger.getWrittenCount() + logger.getDroppedCount());
+        }
+    }
+
+    @Test
+    void testBlockPolicy_concurrentProducersLoseNothing() throws InterruptedException, ExecutionException {
+        int threadCount = 8;
+        int events = 10_000;
+        try (AsyncOrderLogger logger = AsyncOrderLogger.builder()
+                .capacity(64)
+                .overflowPolicy(AsyncOrderLogger.OverflowPolicy.BLOCK)
+                .build();
+             AutoCloseableExecutorService acExecutor =
+                     new AutoCloseableExecutorService(Executors.newFixedThreadPool(threadCount))) {
+            Order order = OrderFactory.createOrder(1, 1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                futures.add(acExecutor.get().submit(() -> {
+                    for (int i = 0; i < events; i++) {
+                        logger.logOrderDelivered(order);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertTrue(logger.flush(5, TimeUnit.SECONDS));
+            assertEquals(0, logger.getDroppedCount());
+            assertEquals((long) threadCount * events, logger.getWrittenCount());
+        }
+    }
+
+    private static final class BlockingWriter extends Writer {
+        private final CountDownLatch release;
+
+        private BlockingWriter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override public void flush() {}
+        @Override public void close() {}
+    }
+}
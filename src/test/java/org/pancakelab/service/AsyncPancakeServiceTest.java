@@ -0,0 +1,67 @@
+package org.pancakelab.service;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.interfaces.AsyncPancakeService;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.pancakelab.service.PancakeServiceTest.DARK_CHOCOLATE_INGREDIENT;
+
+public class AsyncPancakeServiceTest {
+
+    @Test
+    public void testFailedCall_futureFailsWithServiceException() throws Exception {
+        try (AsyncOrderLogger logger = AsyncOrderLogger.builder().build();
+             AutoCloseableExecutorService executor = new AutoCloseableExecutorService(ServiceExecutors.preferVirtualThreads())) {
+            AsyncPancakeService service = new AsyncPancakeServiceImpl(new PancakeServiceImpl(logger), executor.get());
+
+            OrderDTO order = service.createOrder(1, 1).get(5, TimeUnit.SECONDS);
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> service.completeOrder(order.id()).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+            assertEquals(OrderStatus.NEW.name(), service.getOrderStatus(order.id()).get(5, TimeUnit.SECONDS).status());
+        }
+    }
+
+    @Test
+    public void testManyConcurrentClients_allOrdersComplete() throws Exception {
+        int clientCount = 2_000;
+        try (AsyncOrderLogger logger = AsyncOrderLogger.builder().build();
+             AutoCloseableExecutorService executor = new AutoCloseableExecutorService(ServiceExecutors.preferVirtualThreads())) {
+            PancakeServiceImpl pancakeService = new PancakeServiceImpl(logger);
+            AsyncPancakeService service = new AsyncPancakeServiceImpl(pancakeService, executor.get());
+            CompletableFuture<?>[] clients = new CompletableFuture<?>[clientCount];
+
+            // every client creates an order, adds pancakes and completes it without waiting for anybody else
+            for (int i = 0; i < clientCount; i++) {
+                int client = i;
+                clients[i] = service.createOrder(client % 10 + 1, client % 999 + 1)
+                        .thenCompose(order -> {
+                            UUID orderId = order.id();
+                            return service.addPancakes(orderId, List.of(DARK_CHOCOLATE_INGREDIENT), 2)
+                                    .thenCompose(ignored -> service.completeOrder(orderId));
+                        });
+            }
+            CompletableFuture.allOf(clients).get(1, TimeUnit.MINUTES);
+
+            assertEquals(clientCount, service.countOrdersWithStatus(OrderStatus.COMPLETED).get(5, TimeUnit.SECONDS));
+            assertEquals(clientCount / 10, service.listOrdersInBuilding(1, OrderStatus.COMPLETED)
+                    .get(5, TimeUnit.SECONDS).size());
+            assertFalse(service.listOpenOrdersForRoom(1, 1).get(5, TimeUnit.SECONDS).isEmpty());
+            assertEquals(clientCount * 2L, pancakeService.listOrdersWithStatus(OrderStatus.COMPLETED).stream()
+                    .mapToLong(orderId -> pancakeService.viewOrder(orderId).size())
+                    .sum());
+            service.cancelOrder(service.createOrder(1, 1).get(5, TimeUnit.SECONDS).id()).get(5, TimeUnit.SECONDS);
+            service.clearAllFinishedOrders().get(5, TimeUnit.SECONDS);
+            assertEquals(0, service.countOrdersWithStatus(OrderStatus.CANCELLED).get(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.pancakelab.service;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pancakelab.dto.OrderDTO;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.pancakelab.service.PancakeServiceTest.DARK_CHOCOLATE_INGREDIENT;
+
+public class OrderEventsTest {
+    private static final List<String> EVENTS = List.of(
+            "org.pancakelab.OrderCreated", "org.pancakelab.PancakesAdded", "org.pancakelab.PancakesRemoved",
+            "org.pancakelab.OrderTransition", "org.pancakelab.OrderDelivered", "org.pancakelab.OrderCancelled");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecording_hasEveryLifecycleEvent() throws Exception {
+        PancakeServiceImpl pancakeService = PancakeServiceImpl.builder().logger(OrderLogger.getInstance()).build();
+        Path file = directory.resolve("orders.jfr");
+
+        OrderDTO delivered;
+        try (Recording recording = FlightRecordings.newRecording()) {
+            // every call is faster than the bundled thresholds
+            EVENTS.forEach(name -> recording.enable(name).withThreshold(Duration.ZERO));
+            recording.start();
+            delivered = pancakeService.createOrder(1, 1);
+            pancakeService.addPancakes(delivered.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 3);
+            pancakeService.removePancake(delivered.id(), List.of(DARK_CHOCOLATE_INGREDIENT));
+            pancakeService.completeOrder(delivered.id());
+            pancakeService.prepareOrder(delivered.id());
+            pancakeService.deliverOrder(delivered.id());
+            OrderDTO cancelled = pancakeService.createOrder(1, 2);
+            pancakeService.cancelOrder(cancelled.id());
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("org.pancakelab."))
+                .collect(Collectors.toList());
+
+        assertEquals(EVENTS.stream().sorted().collect(Collectors.toList()),
+                events.stream().map(event -> event.getEventType().getName()).distinct().sorted().collect(Collectors.toList()));
+        List<String> transitions = events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.pancakelab.OrderTransition"))
+                .map(event -> event.getString("from") + ">" + event.getString("to") + ":" + event.getBoolean("orderLocked"))
+                .collect(Collectors.toList());
+        assertEquals(List.of("NEW>COMPLETED:true", "COMPLETED>PREPARING:false", "PREPARING>DELIVERED:false",
+                "NEW>CANCELLED:true"), transitions);
+        RecordedEvent delivery = events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.pancakelab.OrderDelivered"))
+                .findFirst().orElseThrow();
+        assertEquals(delivered.id().toString(), delivery.getString("orderId"));
+        assertEquals(2, delivery.getInt("pancakes"));
+    }
+}
@@ -22,7 +22,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class PancakeServiceTest {
-    private final PancakeService pancakeService = new PancakeServiceImpl(OrderLogger.getInstance());
+    private final PancakeService pancakeService = createPancakeService();
     private OrderDTO order = null;
 
     public final static String DARK_CHOCOLATE_INGREDIENT = "dark chocolate";
@@ -222,6 +222,11 @@ public class PancakeServiceTest {
     }
 
 
+    // other implementations run the same suite by overriding this, it is called while the test instance is created
+    protected PancakeService createPancakeService() {
+        return new PancakeServiceImpl(OrderLogger.getInstance());
+    }
+
     private void addPancakes() {
         pancakeService.addPancakes(order.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 3);
         pancakeService.addPancakes(order.id(), List.of(MILK_CHOCOLATE_INGREDIENT), 3);
@@ -2,8 +2,12 @@ package org.pancakelab.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.pancakelab.dto.BatchResult;
 import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderRequest;
+import org.pancakelab.dto.OrderSummaryDTO;
 import org.pancakelab.dto.PancakeDTO;
+import org.pancakelab.dto.PancakeRequest;
 import org.pancakelab.model.enums.OrderStatus;
 import org.pancakelab.service.interfaces.PancakeService;
 
@@ -94,6 +98,147 @@ public class PancakeServiceUnitTest {
         assertTrue(pancakes.isEmpty());
     }
 
+    @Test
+    public void testCountOrdersWithStatus_followsTransitionsAndClearing() {
+        OrderDTO delivered = pancakeService.createOrder(1, 5);
+        OrderDTO cancelled = pancakeService.createOrder(1, 6);
+        pancakeService.createOrder(1, 7);
+        assertEquals(3, pancakeService.countOrdersWithStatus(OrderStatus.NEW));
+
+        pancakeService.addPancakes(delivered.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 1);
+        pancakeService.completeOrder(delivered.id());
+        assertEquals(2, pancakeService.countOrdersWithStatus(OrderStatus.NEW));
+        assertEquals(1, pancakeService.countOrdersWithStatus(OrderStatus.COMPLETED));
+
+        assertThrows(IllegalStateException.class, () -> pancakeService.deliverOrder(delivered.id()));
+        assertEquals(Set.of(delivered.id()), pancakeService.listOrdersWithStatus(OrderStatus.COMPLETED));
+
+        pancakeService.prepareOrder(delivered.id());
+        pancakeService.deliverOrder(delivered.id());
+        pancakeService.cancelOrder(cancelled.id());
+        assertEquals(0, pancakeService.countOrdersWithStatus(OrderStatus.PREPARING));
+        assertEquals(1, pancakeService.countOrdersWithStatus(OrderStatus.DELIVERED));
+        assertEquals(1, pancakeService.countOrdersWithStatus(OrderStatus.CANCELLED));
+
+        pancakeService.clearAllFinishedOrders();
+        assertEquals(0, pancakeService.countOrdersWithStatus(OrderStatus.DELIVERED));
+        assertEquals(0, pancakeService.countOrdersWithStatus(OrderStatus.CANCELLED));
+        assertEquals(1, pancakeService.countOrdersWithStatus(OrderStatus.NEW));
+    }
+
+    @Test
+    public void testLocationQueries_onlyActiveOrdersAreReturned() {
+        OrderDTO preparing = pancakeService.createOrder(7, 312);
+        OrderDTO open = pancakeService.createOrder(7, 312);
+        OrderDTO otherRoom = pancakeService.createOrder(7, 313);
+        OrderDTO otherBuilding = pancakeService.createOrder(6, 312);
+        pancakeService.addPancakes(preparing.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 1);
+        pancakeService.completeOrder(preparing.id());
+        pancakeService.prepareOrder(preparing.id());
+
+        assertEquals(Set.of(preparing.id()), pancakeService.listOrdersInBuilding(7, OrderStatus.PREPARING));
+        assertEquals(Set.of(open.id(), otherRoom.id()), pancakeService.listOrdersInBuilding(7, OrderStatus.NEW));
+        assertEquals(Set.of(otherBuilding.id()), pancakeService.listOrdersInBuilding(6, OrderStatus.NEW));
+        assertEquals(Set.of(preparing.id(), open.id()), pancakeService.listOpenOrdersForRoom(7, 312));
+
+        pancakeService.deliverOrder(preparing.id());
+        pancakeService.cancelOrder(open.id());
+        assertTrue(pancakeService.listOrdersInBuilding(7, OrderStatus.PREPARING).isEmpty());
+        assertTrue(pancakeService.listOrdersInBuilding(7, OrderStatus.DELIVERED).isEmpty());
+        assertTrue(pancakeService.listOpenOrdersForRoom(7, 312).isEmpty());
+        assertEquals(Set.of(otherRoom.id()), pancakeService.listOpenOrdersForRoom(7, 313));
+
+        assertThrows(IllegalArgumentException.class, () -> pancakeService.listOpenOrdersForRoom(11, 1));
+        assertThrows(IllegalArgumentException.class, () -> pancakeService.listOpenOrdersForRoom(1, 1000));
+    }
+
+    @Test
+    public void testBatches_failingItemsDoNotFailTheBatch() {
+        List<BatchResult<OrderDTO>> created = pancakeService.createOrders(List.of(
+                new OrderRequest(1, 10), new OrderRequest(11, 10), new OrderRequest(1, 11)));
+        assertTrue(created.get(0).isSuccess());
+        assertInstanceOf(IllegalArgumentException.class, created.get(1).error());
+        assertTrue(created.get(2).isSuccess());
+        UUID first = created.get(0).value().id();
+        UUID empty = created.get(2).value().id();
+        assertEquals(Set.of(first, empty), pancakeService.listOrdersWithStatus(OrderStatus.NEW));
+
+        List<BatchResult<String>> added = pancakeService.addPancakes(first, List.of(
+                new PancakeRequest(List.of(DARK_CHOCOLATE_INGREDIENT), 2),
+                new PancakeRequest(List.of("syrup"), 1),
+                new PancakeRequest(List.of(MILK_CHOCOLATE_INGREDIENT), 0),
+                new PancakeRequest(List.of(MILK_CHOCOLATE_INGREDIENT), 1)));
+        assertEquals("Delicious pancake with dark chocolate!", added.get(0).value());
+        assertFalse(added.get(1).isSuccess());
+        assertEquals("Quantity must be positive", added.get(2).error().getMessage());
+        assertTrue(added.get(3).isSuccess());
+        assertEquals(3, pancakeService.viewOrder(first).size());
+
+        UUID unknown = UUID.randomUUID();
+        List<BatchResult<UUID>> completed = pancakeService.completeOrders(List.of(first, empty, unknown));
+        assertEquals(first, completed.get(0).value());
+        assertInstanceOf(IllegalStateException.class, completed.get(1).error(), "Order has no pancakes");
+        assertInstanceOf(IllegalArgumentException.class, completed.get(2).error());
+        assertTrue(pancakeService.addPancakes(first, List.of(
+                new PancakeRequest(List.of(DARK_CHOCOLATE_INGREDIENT), 1))).get(0).error() instanceof IllegalStateException);
+
+        assertTrue(pancakeService.prepareOrders(List.of(first)).get(0).isSuccess());
+        List<BatchResult<OrderDTO>> delivered = pancakeService.deliverOrders(List.of(first, empty));
+        assertEquals(3, delivered.get(0).value().pancakes().size());
+        assertInstanceOf(IllegalStateException.class, delivered.get(1).error());
+        assertEquals(Set.of(first), pancakeService.listOrdersWithStatus(OrderStatus.DELIVERED));
+        assertEquals(Set.of(empty), pancakeService.listOrdersWithStatus(OrderStatus.NEW));
+    }
+
+    @Test
+    public void testDtoCache_repeatedReadsShareDtosUntilOrderChanges() {
+        PancakeServiceImpl service = new PancakeServiceImpl(OrderLogger.getInstance());
+        OrderDTO order = service.createOrder(2, 3);
+        service.addPancakes(order.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 2);
+
+        OrderDTO first = service.getOrderStatus(order.id());
+        assertSame(first, service.getOrderStatus(order.id()));
+        assertSame(first.pancakes(), service.getPancakeDescriptions(order.id()));
+
+        service.addPancakes(order.id(), List.of(MILK_CHOCOLATE_INGREDIENT), 1);
+        OrderDTO changed = service.getOrderStatus(order.id());
+        assertEquals(3, changed.pancakes().size());
+        assertEquals(first.pancakes(), changed.pancakes().subList(0, 2)); // ids given out earlier are kept
+
+        service.completeOrder(order.id());
+        assertEquals(OrderStatus.COMPLETED.name(), service.getOrderStatus(order.id()).status());
+        assertSame(changed.pancakes(), service.getOrderStatus(order.id()).pancakes());
+        service.prepareOrder(order.id());
+        assertEquals(changed.pancakes(), service.deliverOrder(order.id()).pancakes());
+
+        assertEquals(3, service.getDtoCacheHits());
+        assertEquals(3, service.getDtoCacheMisses());
+        assertEquals(0.5, service.getDtoCacheHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testViewOrderSummary_countsPancakesPerDescription() {
+        OrderDTO order = pancakeService.createOrder(5, 1);
+        pancakeService.addPancakes(order.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 3);
+        pancakeService.addPancakes(order.id(), List.of(MILK_CHOCOLATE_INGREDIENT), 1);
+        pancakeService.addPancakes(order.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 2);
+        pancakeService.removePancakes("Delicious pancake with dark chocolate!", order.id(), 1);
+
+        OrderSummaryDTO summary = pancakeService.viewOrderSummary(order.id());
+        assertEquals(List.of("Delicious pancake with dark chocolate!", "Delicious pancake with milk chocolate!"),
+                List.copyOf(summary.pancakeCounts().keySet()));
+        assertEquals(List.of(4, 1), List.copyOf(summary.pancakeCounts().values()));
+        assertEquals(5, summary.totalPancakes());
+        assertEquals(summary.totalPancakes(), pancakeService.viewOrder(order.id()).size());
+        assertEquals(5, summary.building());
+        assertEquals(1, summary.room());
+
+        pancakeService.cancelOrder(order.id());
+        assertEquals(0, pancakeService.viewOrderSummary(order.id()).totalPancakes());
+        assertEquals(5, pancakeService.viewOrderSummary(order.id()).building());
+        assertFalse(pancakeService.viewOrderSummary(UUID.randomUUID()).orderExists());
+    }
+
     @Test
     public void testAddPancakeWithInvalidQuantity_throwsException() {
         OrderDTO order = pancakeService.createOrder(4, 8);
@@ -154,6 +299,38 @@ public class PancakeServiceUnitTest {
         }
     }
 
+    @Test
+    void testConcurrentDeliverAndStatus_readersAlwaysSeeConsistentOrder() throws InterruptedException, ExecutionException {
+        int orderCount = 200;
+        List<UUID> orderIds = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            UUID orderId = pancakeService.createOrder(2, 1 + i).id();
+            pancakeService.addPancakes(orderId, List.of(DARK_CHOCOLATE_INGREDIENT), 2);
+            pancakeService.completeOrder(orderId);
+            pancakeService.prepareOrder(orderId);
+            orderIds.add(orderId);
+        }
+
+        try (AutoCloseableExecutorService acExecutor =
+                     new AutoCloseableExecutorService(Executors.newFixedThreadPool(2))) {
+            ExecutorService executor = acExecutor.get();
+            Future<?> reader = executor.submit(() -> {
+                for (UUID orderId : orderIds) {
+                    for (int i = 0; i < 20; i++) {
+                        // never missing while it is being delivered, pancakes only while it is not delivered yet
+                        OrderDTO status = pancakeService.getOrderStatus(orderId);
+                        int expectedPancakes = status.status().equals(OrderStatus.DELIVERED.name()) ? 0 : 2;
+                        assertEquals(expectedPancakes, status.pancakes().size());
+                    }
+                }
+            });
+            Future<?> deliverer = executor.submit(() -> orderIds.forEach(pancakeService::deliverOrder));
+            reader.get();
+            deliverer.get();
+        }
+        assertEquals(orderCount, pancakeService.countOrdersWithStatus(OrderStatus.DELIVERED));
+    }
+
     @Test
     void testConcurrentAddPancakes() throws InterruptedException, ExecutionException {
         // Create an order first
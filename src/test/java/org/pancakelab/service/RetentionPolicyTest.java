@@ -0,0 +1,122 @@
+package org.pancakelab.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.journal.FileJournal;
+import org.pancakelab.model.enums.OrderStatus;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.pancakelab.service.PancakeServiceTest.DARK_CHOCOLATE_INGREDIENT;
+
+public class RetentionPolicyTest {
+
+    @Test
+    public void testMaxCount_oldestFinishedOrdersAreArchivedFirst() {
+        List<UUID> archived = new ArrayList<>();
+        PancakeServiceImpl pancakeService = PancakeServiceImpl.builder()
+                .logger(OrderLogger.getInstance())
+                .retention(RetentionPolicy.builder()
+                        .maxCount(2)
+                        .archive((order, finishedAt) -> archived.add(order.getId()))
+                        .build())
+                .build();
+
+        List<UUID> cancelled = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            OrderDTO order = pancakeService.createOrder(1, 1 + i);
+            pancakeService.cancelOrder(order.id());
+            cancelled.add(order.id());
+        }
+
+        assertEquals(cancelled.subList(0, 3), archived);
+        assertEquals(2, pancakeService.getFinishedOrderCount());
+        assertEquals(3, pancakeService.getEvictedCount());
+        assertEquals(Set.copyOf(cancelled.subList(3, 5)), pancakeService.listOrdersWithStatus(OrderStatus.CANCELLED));
+        assertThrows(IllegalArgumentException.class, () -> pancakeService.getOrderStatus(cancelled.get(0)));
+    }
+
+    @Test
+    public void testMaxAge_expiredOrdersAreEvicted() {
+        MutableClock clock = new MutableClock();
+        PancakeServiceImpl pancakeService = PancakeServiceImpl.builder()
+                .logger(OrderLogger.getInstance())
+                .retention(RetentionPolicy.builder()
+                        .maxAge(Duration.ofMinutes(10))
+                        .clock(clock)
+                        .archive((order, finishedAt) -> { throw new IllegalStateException("Archive is down"); })
+                        .build())
+                .build();
+
+        OrderDTO old = pancakeService.createOrder(2, 1);
+        pancakeService.cancelOrder(old.id());
+        clock.advance(Duration.ofMinutes(6));
+        OrderDTO recent = pancakeService.createOrder(2, 2);
+        pancakeService.addPancakes(recent.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 1);
+        pancakeService.completeOrder(recent.id());
+        pancakeService.prepareOrder(recent.id());
+        pancakeService.deliverOrder(recent.id());
+        assertEquals(0, pancakeService.evictExpiredOrders());
+
+        clock.advance(Duration.ofMinutes(5));
+        assertEquals(1, pancakeService.evictExpiredOrders());
+        assertEquals(Set.of(), pancakeService.listOrdersWithStatus(OrderStatus.CANCELLED));
+        assertEquals(Set.of(recent.id()), pancakeService.listOrdersWithStatus(OrderStatus.DELIVERED));
+        assertEquals(1, pancakeService.getArchiveFailureCount());
+    }
+
+    @Test
+    public void testMaxAge_finishTimesSurviveRestart(@TempDir Path directory) {
+        MutableClock clock = new MutableClock();
+        RetentionPolicy retention = RetentionPolicy.builder().maxAge(Duration.ofMinutes(10)).clock(clock).build();
+        UUID fromJournal;
+        UUID fromSnapshot;
+        UUID recent;
+        try (FileJournal journal = FileJournal.builder(directory).build()) {
+            PancakeServiceImpl pancakeService = PancakeServiceImpl.builder()
+                    .logger(OrderLogger.getInstance()).journal(journal).retention(retention).build();
+            fromSnapshot = pancakeService.createOrder(3, 1).id();
+            pancakeService.cancelOrder(fromSnapshot);
+            pancakeService.takeSnapshot();
+            fromJournal = pancakeService.createOrder(3, 2).id();
+            pancakeService.cancelOrder(fromJournal);
+            clock.advance(Duration.ofMinutes(8));
+            recent = pancakeService.createOrder(3, 3).id();
+            pancakeService.cancelOrder(recent);
+        }
+
+        clock.advance(Duration.ofMinutes(5));
+        try (FileJournal journal = FileJournal.builder(directory).build()) {
+            PancakeServiceImpl recovered = PancakeServiceImpl.builder()
+                    .logger(OrderLogger.getInstance()).journal(journal).retention(retention).build();
+            assertEquals(Set.of(recent), recovered.listOrdersWithStatus(OrderStatus.CANCELLED),
+                    "Orders finished before the restart keep their age");
+            assertEquals(2, recovered.getEvictedCount());
+            assertThrows(IllegalArgumentException.class, () -> recovered.getOrderStatus(fromJournal));
+            assertThrows(IllegalArgumentException.class, () -> recovered.getOrderStatus(fromSnapshot));
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+}
@@ -0,0 +1,153 @@
+package org.pancakelab.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.pancakelab.dto.BatchResult;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderRequest;
+import org.pancakelab.model.IdGenerators;
+import org.pancakelab.model.enums.OrderStatus;
+import org.pancakelab.service.interfaces.PancakeService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//runs the whole PancakeServiceTest suite against the sharded service
+public class ShardedPancakeServiceTest extends PancakeServiceTest {
+    private ShardedPancakeService shardedService;
+
+    @Override
+    protected PancakeService createPancakeService() {
+        shardedService = ShardedPancakeService.builder()
+                .logger(OrderLogger.getInstance())
+                .shards(4)
+                .build();
+        return shardedService;
+    }
+
+    @AfterAll
+    public void closeService() {
+        shardedService.close();
+    }
+
+    @Test
+    public void testBuildingRouting_batchesAndQueriesSpanShards() {
+        try (ShardedPancakeService service = ShardedPancakeService.builder()
+                .logger(OrderLogger.getInstance())
+                .routing(ShardedPancakeService.Routing.BUILDING)
+                .shards(3)
+                .build()) {
+            List<OrderRequest> requests = new ArrayList<>();
+            for (int building = 1; building <= 10; building++) {
+                requests.add(new OrderRequest(building, 100 + building));
+            }
+            requests.add(new OrderRequest(0, 1));
+            List<BatchResult<OrderDTO>> created = service.createOrders(requests);
+            assertInstanceOf(IllegalArgumentException.class, created.get(10).error());
+
+            List<UUID> orderIds = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                OrderDTO order = created.get(i).value();
+                assertEquals(i + 1, order.building(), "Results keep the order of requests");
+                orderIds.add(order.id());
+                service.addPancakes(order.id(), List.of(PancakeServiceTest.DARK_CHOCOLATE_INGREDIENT), 1);
+            }
+            orderIds.add(UUID.randomUUID());
+
+            List<BatchResult<UUID>> completed = service.completeOrders(orderIds);
+            for (int i = 0; i < 10; i++) {
+                assertEquals(orderIds.get(i), completed.get(i).value());
+            }
+            assertInstanceOf(IllegalArgumentException.class, completed.get(10).error());
+
+            assertEquals(10, service.countOrdersWithStatus(OrderStatus.COMPLETED));
+            assertEquals(Set.of(orderIds.get(6)), service.listOrdersInBuilding(7, OrderStatus.COMPLETED));
+            assertEquals(Set.of(orderIds.get(2)), service.listOpenOrdersForRoom(3, 103));
+            assertEquals(Set.copyOf(orderIds.subList(0, 10)), service.listOrdersWithStatus(OrderStatus.COMPLETED));
+        }
+    }
+
+    @Test
+    public void testClosedService_callsFail() {
+        ShardedPancakeService service = ShardedPancakeService.builder()
+                .logger(OrderLogger.getInstance())
+                .shards(2)
+                .build();
+        OrderDTO order = service.createOrder(1, 1);
+        service.close();
+        assertThrows(IllegalStateException.class, () -> service.getOrderStatus(order.id()));
+    }
+
+    @Test
+    public void testBuildingRouting_sequenceIdsStayUnique() {
+        try (ShardedPancakeService service = ShardedPancakeService.builder()
+                .logger(OrderLogger.getInstance())
+                .idGenerator(IdGenerators.sequence())
+                .routing(ShardedPancakeService.Routing.BUILDING)
+                .shards(3)
+                .build()) {
+            Set<UUID> orderIds = new HashSet<>();
+            for (int i = 0; i < 1000; i++) {
+                OrderDTO order = service.createOrder(i % 10 + 1, 1);
+                assertTrue(orderIds.add(order.id()), "Ids of cleared orders are not given out again");
+                service.cancelOrder(order.id());
+                service.clearAllFinishedOrders();
+            }
+            OrderDTO order = service.createOrder(5, 5);
+            assertEquals(Set.of(order.id()), service.listOrdersInBuilding(5, OrderStatus.NEW));
+            assertEquals(OrderStatus.NEW.name(), service.getOrderStatus(order.id()).status());
+        }
+    }
+
+    @Test
+    public void testBuildingRouting_keepsIdsAsGenerated() {
+        try (ShardedPancakeService service = ShardedPancakeService.builder()
+                .logger(OrderLogger.getInstance())
+                .idGenerator(IdGenerators.timeOrdered())
+                .routing(ShardedPancakeService.Routing.BUILDING)
+                .shards(3)
+                .build()) {
+            List<UUID> orderIds = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                orderIds.add(service.createOrder(i % 10 + 1, 1).id());
+            }
+            for (OrderDTO created : service.createOrders(List.of(new OrderRequest(4, 4), new OrderRequest(5, 5)))
+                    .stream().map(BatchResult::value).toList()) {
+                orderIds.add(created.id());
+            }
+            List<UUID> sorted = new ArrayList<>(orderIds);
+            sorted.sort(Comparator.naturalOrder());
+            assertEquals(sorted, orderIds, "Ids created one after another stay in creation order");
+            assertEquals(OrderStatus.NEW.name(), service.getOrderStatus(orderIds.get(999)).status());
+            assertThrows(IllegalArgumentException.class, () -> service.getOrderStatus(UUID.randomUUID()));
+        }
+    }
+
+    @Test
+    public void testMaxFinishedOrders_dropsOldestFinishedOrders() {
+        try (ShardedPancakeService service = ShardedPancakeService.builder()
+                .logger(OrderLogger.getInstance())
+                .routing(ShardedPancakeService.Routing.BUILDING)
+                .shards(1)
+                .maxFinishedOrders(2)
+                .build()) {
+            List<UUID> orderIds = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                UUID orderId = service.createOrder(1, 1).id();
+                service.cancelOrder(orderId);
+                orderIds.add(orderId);
+            }
+            UUID open = service.createOrder(1, 2).id();
+
+            assertThrows(IllegalArgumentException.class, () -> service.getOrderStatus(orderIds.get(0)));
+            assertEquals(Set.of(orderIds.get(1), orderIds.get(2)), service.listOrdersWithStatus(OrderStatus.CANCELLED));
+            assertEquals(OrderStatus.NEW.name(), service.getOrderStatus(open).status());
+        }
+    }
+}
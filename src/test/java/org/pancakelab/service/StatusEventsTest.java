@@ -0,0 +1,135 @@
+package org.pancakelab.service;
+
+import org.junit.jupiter.api.Test;
+import org.pancakelab.dto.OrderDTO;
+import org.pancakelab.dto.OrderStatusEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.pancakelab.service.PancakeServiceTest.DARK_CHOCOLATE_INGREDIENT;
+
+public class StatusEventsTest {
+
+    // subscribers run on the thread that changed the order, so every event has arrived once the change returns
+    private PancakeServiceImpl newService(int bufferSize) {
+        return PancakeServiceImpl.builder()
+                .logger(OrderLogger.getInstance())
+                .statusExecutor(Runnable::run)
+                .statusBufferSize(bufferSize)
+                .build();
+    }
+
+    @Test
+    public void testOrderSubscription_startsWithCurrentStatusAndCompletesWhenDelivered() {
+        PancakeServiceImpl pancakeService = newService(16);
+        OrderDTO order = pancakeService.createOrder(1, 1);
+        pancakeService.addPancakes(order.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 1);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        pancakeService.statusEventsForOrder(order.id()).subscribe(subscriber);
+        pancakeService.completeOrder(order.id());
+        pancakeService.prepareOrder(order.id());
+        pancakeService.deliverOrder(order.id());
+
+        assertEquals(List.of("NEW", "COMPLETED", "PREPARING", "DELIVERED"), subscriber.statuses());
+        assertTrue(subscriber.completed);
+        assertEquals(0, pancakeService.getStatusSubscriberCount());
+        assertThrows(IllegalArgumentException.class, () -> pancakeService.statusEventsForOrder(UUID.randomUUID()));
+    }
+
+    @Test
+    public void testSlowSubscriber_seesOnlyLatestStatusOfItsBuilding() {
+        PancakeServiceImpl pancakeService = newService(16);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        pancakeService.statusEventsForBuilding(3).subscribe(subscriber);
+
+        OrderDTO order = pancakeService.createOrder(3, 1);
+        pancakeService.createOrder(4, 1);
+        pancakeService.addPancakes(order.id(), List.of(DARK_CHOCOLATE_INGREDIENT), 1);
+        pancakeService.completeOrder(order.id());
+        pancakeService.prepareOrder(order.id());
+        assertTrue(subscriber.events.isEmpty());
+
+        subscriber.subscription.request(10);
+
+        assertEquals(List.of("PREPARING"), subscriber.statuses());
+        assertEquals(order.id(), subscriber.events.get(0).orderId());
+        assertEquals(0, pancakeService.getDroppedStatusEventCount());
+    }
+
+    @Test
+    public void testFullBuffer_dropsOldestOrder() {
+        PancakeServiceImpl pancakeService = newService(1);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        pancakeService.statusEvents().subscribe(subscriber);
+
+        pancakeService.createOrder(1, 1);
+        OrderDTO latest = pancakeService.createOrder(2, 2);
+        subscriber.subscription.request(5);
+
+        assertEquals(1, subscriber.events.size());
+        assertEquals(latest.id(), subscriber.events.get(0).orderId());
+        assertEquals(1, pancakeService.getDroppedStatusEventCount());
+    }
+
+    @Test
+    public void testInvalidRequestAndCancel_stopTheSubscription() {
+        PancakeServiceImpl pancakeService = newService(16);
+        RecordingSubscriber failing = new RecordingSubscriber(0);
+        RecordingSubscriber cancelled = new RecordingSubscriber(Long.MAX_VALUE);
+        pancakeService.statusEvents().subscribe(failing);
+        pancakeService.statusEvents().subscribe(cancelled);
+        assertEquals(2, pancakeService.getStatusSubscriberCount());
+
+        failing.subscription.request(0);
+        cancelled.subscription.cancel();
+        pancakeService.createOrder(1, 1);
+
+        assertInstanceOf(IllegalArgumentException.class, failing.error);
+        assertTrue(cancelled.events.isEmpty());
+        assertEquals(0, pancakeService.getStatusSubscriberCount());
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<OrderStatusEvent> {
+        private final long initialDemand;
+        private final List<OrderStatusEvent> events = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        private RecordingSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(OrderStatusEvent item) {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+        private List<String> statuses() {
+            return events.stream().map(OrderStatusEvent::status).toList();
+        }
+    }
+}